@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.util.IResourceScopeCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import robostar.robocert.CertPackage;
+import robostar.robocert.Interaction;
+import robostar.robocert.SpecificationGroup;
+import robostar.robocert.textual.generator.tikz.diagram.DiagramGenerator;
+import robostar.robocert.textual.generator.tockcsp.CertPackageGenerator;
+
+/**
+ * Benchmarks the tock-CSP and TikZ generators on linked RoboCert workloads.
+ *
+ * @author Matt Windsor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GenerateBenchmark {
+
+  /**
+   * Number of messages in the workload.
+   */
+  @Param({"8", "128", "1024"})
+  public int messages;
+
+  private CertPackageGenerator csp;
+  private DiagramGenerator diagram;
+  private IResourceScopeCache cache;
+  private Resource res;
+  private CertPackage pkg;
+  private List<Interaction> interactions;
+
+  /**
+   * Sets up the injector, and loads and links the workload.
+   *
+   * @throws IOException if parsing fails at the I/O level.
+   */
+  @Setup
+  public void setUp() throws IOException {
+    final var injector = Models.injector();
+    csp = injector.getInstance(CertPackageGenerator.class);
+    diagram = injector.getInstance(DiagramGenerator.class);
+    cache = injector.getInstance(IResourceScopeCache.class);
+
+    res = injector.getInstance(Models.class).load(Models.workload(messages), true);
+    pkg = Models.pkg(res);
+    interactions = pkg.getGroups().stream().filter(SpecificationGroup.class::isInstance)
+        .flatMap(g -> ((SpecificationGroup) g).getInteractions().stream()).toList();
+  }
+
+  /**
+   * Forgets anything cached by previous generations, so that each one starts cold.
+   */
+  @Setup(Level.Invocation)
+  public void clearCache() {
+    // Clearing every resource, as some caches (such as import closures) sit on the .rct files.
+    for (var r : res.getResourceSet().getResources()) {
+      cache.clear(r);
+    }
+  }
+
+  /**
+   * @return the tock-CSP for the whole package.
+   */
+  @Benchmark
+  public CharSequence tockCsp() {
+    return csp.generate(pkg);
+  }
+
+  /**
+   * Generates TikZ for each sequence.
+   *
+   * @param bh consumes the generated diagrams.
+   */
+  @Benchmark
+  public void tikz(Blackhole bh) {
+    for (var it : interactions) {
+      bh.consume(diagram.generate(it));
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.benchmarks;
+
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import robostar.robocert.CertPackage;
+import robostar.robocert.textual.RoboCertStandaloneSetup;
+import robostar.robocert.textual.tests.examples.Workload;
+import robostar.robocert.textual.tests.examples.WorkloadGenerator;
+
+/**
+ * Loads benchmark workloads into resource sets.
+ *
+ * @param sets provides fresh resource sets.
+ * @param gen  generates the source text of workloads.
+ * @author Matt Windsor
+ */
+public record Models(Provider<XtextResourceSet> sets, WorkloadGenerator gen) {
+
+  private static final URI ROBOCHART_URI = URI.createURI("bench/model.rct");
+  private static final URI ROBOCERT_URI = URI.createURI("bench/spec.rcert");
+
+  /**
+   * Constructs a model loader.
+   *
+   * @param sets provides fresh resource sets.
+   * @param gen  generates the source text of workloads.
+   */
+  @Inject
+  public Models {
+    Objects.requireNonNull(sets);
+    Objects.requireNonNull(gen);
+  }
+
+  /**
+   * Creates a standalone RoboCert injector, registering the languages with EMF.
+   *
+   * @return the injector.
+   */
+  public static Injector injector() {
+    return new RoboCertStandaloneSetup().createInjectorAndDoEMFRegistration();
+  }
+
+  /**
+   * Gets the workload used for the given number of messages.
+   * <p>
+   * This is the representative workload, scaled up to the given number of messages.
+   *
+   * @param messages number of messages.
+   * @return the workload.
+   */
+  public static Workload workload(int messages) {
+    return Workload.representative().withMessages(messages);
+  }
+
+  /**
+   * Parses both sides of a workload from source text into a fresh resource set.
+   *
+   * @param w    the workload.
+   * @param link whether to resolve all cross-references after parsing.
+   * @return the RoboCert resource (whose resource set also holds the RoboChart resource).
+   * @throws IOException if parsing fails at the I/O level (which shouldn't happen).
+   */
+  public Resource load(Workload w, boolean link) throws IOException {
+    return load(gen.robochart(w), gen.robocert(w), link);
+  }
+
+  /**
+   * Parses RoboChart and RoboCert source text into a fresh resource set.
+   *
+   * @param robochart the RoboChart source.
+   * @param robocert  the RoboCert source.
+   * @param link      whether to resolve all cross-references after parsing.
+   * @return the RoboCert resource (whose resource set also holds the RoboChart resource).
+   * @throws IOException if parsing fails at the I/O level (which shouldn't happen).
+   */
+  public Resource load(String robochart, String robocert, boolean link) throws IOException {
+    final var set = sets.get();
+    load(set, ROBOCHART_URI, robochart);
+    final var res = load(set, ROBOCERT_URI, robocert);
+    if (link) {
+      EcoreUtil.resolveAll(set);
+    }
+    return res;
+  }
+
+  /**
+   * Gets the package at the root of a loaded RoboCert resource.
+   *
+   * @param res the resource.
+   * @return the package.
+   */
+  public static CertPackage pkg(Resource res) {
+    return (CertPackage) res.getContents().get(0);
+  }
+
+  private Resource load(ResourceSet set, URI uri, String source) throws IOException {
+    final var res = set.createResource(uri);
+    res.load(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)), null);
+    return res;
+  }
+}
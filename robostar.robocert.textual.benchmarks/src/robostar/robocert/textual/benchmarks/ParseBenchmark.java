@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import robostar.robocert.textual.tests.examples.WorkloadGenerator;
+
+/**
+ * Benchmarks parsing, and parsing then linking, RoboCert workloads.
+ *
+ * @author Matt Windsor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParseBenchmark {
+
+  /**
+   * Number of messages in the workload.
+   */
+  @Param({"8", "128", "1024"})
+  public int messages;
+
+  private Models models;
+  private String robochart;
+  private String robocert;
+
+  /**
+   * Sets up the injector and workload.
+   */
+  @Setup
+  public void setUp() {
+    final var injector = Models.injector();
+    models = injector.getInstance(Models.class);
+
+    final var gen = injector.getInstance(WorkloadGenerator.class);
+    final var w = Models.workload(messages);
+    robochart = gen.robochart(w);
+    robocert = gen.robocert(w);
+  }
+
+  /**
+   * @return the parsed (but unlinked) resource.
+   * @throws IOException if parsing fails at the I/O level.
+   */
+  @Benchmark
+  public Resource parse() throws IOException {
+    return models.load(robochart, robocert, false);
+  }
+
+  /**
+   * @return the parsed and fully linked resource.
+   * @throws IOException if parsing fails at the I/O level.
+   */
+  @Benchmark
+  public Resource parseAndLink() throws IOException {
+    return models.load(robochart, robocert, true);
+  }
+}
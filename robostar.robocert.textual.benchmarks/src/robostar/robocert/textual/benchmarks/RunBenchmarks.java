@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks from within the Tycho test runtime.
+ * <p>
+ * Benchmarks run in the test JVM rather than in forks, as forks wouldn't get the OSGi wiring; this
+ * makes the numbers somewhat noisier than forked JMH runs, so compare results from like-for-like
+ * machines only.  The {@value #INCLUDE_PROPERTY} system property restricts which benchmarks run
+ * (as a regular expression), and the {@value #RESULT_PROPERTY} property says where the JSON
+ * results go.
+ *
+ * @author Matt Windsor
+ */
+class RunBenchmarks {
+
+  /**
+   * System property holding the regular expression of benchmarks to run.
+   */
+  public static final String INCLUDE_PROPERTY = "robocert.bench.include";
+
+  /**
+   * System property holding the path to which results are written.
+   */
+  public static final String RESULT_PROPERTY = "robocert.bench.result";
+
+  private static final String DEFAULT_INCLUDE = RunBenchmarks.class.getPackageName() + "\\..*";
+
+  /**
+   * Where the JMH annotation processor lists the benchmarks it generated.
+   */
+  private static final String BENCHMARK_LIST = "/META-INF/BenchmarkList";
+
+  @Test
+  void run() throws RunnerException {
+    assertNotNull(RunBenchmarks.class.getResource(BENCHMARK_LIST),
+        "%s is missing; did the JMH annotation processor run?".formatted(BENCHMARK_LIST));
+
+    final var opts = new OptionsBuilder()
+        .include(System.getProperty(INCLUDE_PROPERTY, DEFAULT_INCLUDE))
+        .forks(0)
+        .resultFormat(ResultFormatType.JSON)
+        .result(System.getProperty(RESULT_PROPERTY, "jmh-result.json"))
+        .build();
+
+    assertFalse(new Runner(opts).run().isEmpty(), "no benchmarks ran");
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.benchmarks;
+
+import com.google.inject.Injector;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import robostar.robocert.textual.RoboCertStandaloneSetup;
+
+/**
+ * Benchmarks creating the RoboCert injector, as the command-line tool does on startup.
+ *
+ * @author Matt Windsor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class StartupBenchmark {
+
+  /**
+   * Registers the languages with EMF, so that only injector creation is measured.
+   */
+  @Setup
+  public void setUp() {
+    Models.injector();
+  }
+
+  /**
+   * @return a freshly created injector.
+   */
+  @Benchmark
+  public Injector createInjector() {
+    return new RoboCertStandaloneSetup().createInjector();
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.IResourceScopeCache;
+import org.eclipse.xtext.validation.CheckMode;
+import org.eclipse.xtext.validation.IResourceValidator;
+import org.eclipse.xtext.validation.Issue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks validating linked RoboCert workloads (which runs the RoboCert validator's checks).
+ *
+ * @author Matt Windsor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ValidateBenchmark {
+
+  /**
+   * Number of messages in the workload.
+   */
+  @Param({"8", "128", "1024"})
+  public int messages;
+
+  private IResourceValidator validator;
+  private IResourceScopeCache cache;
+  private Resource res;
+
+  /**
+   * Sets up the injector, and loads and links the workload.
+   *
+   * @throws IOException if parsing fails at the I/O level.
+   */
+  @Setup
+  public void setUp() throws IOException {
+    final var injector = Models.injector();
+    validator = injector.getInstance(IResourceValidator.class);
+    cache = injector.getInstance(IResourceScopeCache.class);
+    res = injector.getInstance(Models.class).load(Models.workload(messages), true);
+  }
+
+  /**
+   * Forgets anything cached by previous validations, so that each one starts cold.
+   */
+  @Setup(Level.Invocation)
+  public void clearCache() {
+    // Clearing every resource, as some caches (such as import closures) sit on the .rct files.
+    for (var r : res.getResourceSet().getResources()) {
+      cache.clear(r);
+    }
+  }
+
+  /**
+   * @return the validation issues.
+   */
+  @Benchmark
+  public List<Issue> validate() {
+    return validator.validate(res, CheckMode.ALL, CancelIndicator.NullImpl);
+  }
+}
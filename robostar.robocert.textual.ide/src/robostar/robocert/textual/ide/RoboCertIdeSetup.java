@@ -8,6 +8,7 @@ import com.google.inject.Injector;
 import org.eclipse.xtext.util.Modules2;
 import robostar.robocert.textual.RoboCertRuntimeModule;
 import robostar.robocert.textual.RoboCertStandaloneSetup;
+import robostar.robocert.textual.resource.ResourceCache;
 
 /**
  * Initialization support for running Xtext languages as language servers.
@@ -16,7 +17,10 @@ public class RoboCertIdeSetup extends RoboCertStandaloneSetup {
 
 	@Override
 	public Injector createInjector() {
-		return Guice.createInjector(Modules2.mixin(new RoboCertRuntimeModule(), new RoboCertIdeModule()));
+		final var injector = Guice.createInjector(Modules2.mixin(new RoboCertRuntimeModule(), new RoboCertIdeModule()));
+		// The language server reopens the same files across sessions, so it caches them per user.
+		injector.getInstance(ResourceCache.class).setDefaultDirectory(ResourceCache.userDirectory());
+		return injector;
 	}
 	
 }
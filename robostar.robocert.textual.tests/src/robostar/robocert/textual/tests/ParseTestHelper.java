@@ -14,9 +14,12 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import circus.robocalc.robochart.Expression;
+import circus.robocalc.robochart.RoboChartFactory;
 import com.google.inject.Inject;
 import java.util.stream.Collectors;
 import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.xtext.testing.util.ParseHelper;
 import robostar.robocert.CertPackage;
 import robostar.robocert.ExpressionValueSpecification;
@@ -51,6 +54,7 @@ specification group X {
 """;
 	
 	@Inject ParseHelper<CertPackage> parseHelper;
+	@Inject RoboChartFactory chartFactory;
 	
 	/**
 	 * Parses the given input as a CertPackage and does some basic checks.
@@ -64,6 +68,38 @@ specification group X {
 		assertPackageValid(pkg);
 		return pkg;
 	}
+
+	/**
+	 * Parses the given input as a CertPackage inside the given resource set.
+	 *
+	 * @param input the fully-formed CertPackage to parse.
+	 * @param set   the resource set into which the package should be parsed.
+	 *
+	 * @return the resulting package, if all is well.
+	 */
+	public CertPackage parse(CharSequence input, ResourceSet set) {
+		final var pkg = assertDoesNotThrow(() -> parseHelper.parse(input, set));
+		assertPackageValid(pkg);
+		return pkg;
+	}
+
+	/**
+	 * Adds stand-ins for the RoboChart core types to a resource set.
+	 * <p>
+	 * The command-line tool loads the RoboChart standard library from its own classpath, which
+	 * we don't have here.
+	 *
+	 * @param set the resource set to which the types should be added.
+	 */
+	public void addCoreTypes(ResourceSet set) {
+		final var pkg = chartFactory.createRCPackage();
+		for (var name : new String[] {"int", "boolean"}) {
+			final var type = chartFactory.createPrimitiveType();
+			type.setName(name);
+			pkg.getTypes().add(type);
+		}
+		set.createResource(URI.createURI("test/core.rct")).getContents().add(pkg);
+	}
 	
 	/**
 	 * Asserts that the given package is present and has no errors.
@@ -13,14 +13,17 @@
  */
 package robostar.robocert.textual.tests;
 
+import circus.robocalc.robochart.SetExp;
 import com.google.inject.Inject;
 import java.util.stream.Collectors;
+import org.eclipse.xtext.EcoreUtil2;
 import org.eclipse.xtext.testing.InjectWith;
 import org.eclipse.xtext.testing.extensions.InjectionExtension;
 import org.eclipse.xtext.testing.util.ParseHelper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.Interaction;
 
 @ExtendWith(InjectionExtension.class)
 @InjectWith(RoboCertInjectorProvider.class)
@@ -52,4 +55,23 @@ specification group S {
 		Assertions.assertTrue(errors.isEmpty(), "Unexpected errors: %s".formatted(errors.stream().map(Object::toString).collect(
 				Collectors.joining(", "))));
 	}
+
+	@Test
+	void loadModel_variableDomain() {
+		final var result = Assertions.assertDoesNotThrow(() -> parseHelper.parse("""
+specification group S {
+  target = module Mod
+  actors = {target as T, world as W}
+  sequence Test {
+    var x: int in {0, 1, 2}
+    actors T and W
+    anything until deadlock (on T) end
+  }
+}
+"""));
+		Assertions.assertTrue(result.eResource().getErrors().isEmpty());
+		final var seq = EcoreUtil2.getAllContentsOfType(result, Interaction.class).get(0);
+		final var domain = seq.getVariables().getVars().get(0).getInitial();
+		Assertions.assertTrue(domain instanceof SetExp s && s.getValues().size() == 3);
+	}
 }
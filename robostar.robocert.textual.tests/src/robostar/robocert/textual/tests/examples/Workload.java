@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.examples;
+
+/**
+ * Size parameters for a synthetic model produced by {@link WorkloadGenerator}.
+ *
+ * @param controllers number of controllers in the RoboChart module (each with its own event and
+ *                    connection to the robotic platform).
+ * @param lifelines   number of controllers that appear as lifelines in the sequence (plus the
+ *                    world, which always appears).
+ * @param messages    number of messages in the sequence.
+ * @param depth       maximum nesting depth of loop, alt, par, and until fragments.
+ * @param variables   number of interaction variables, bound by wildcard arguments.
+ * @author Matt Windsor
+ */
+public record Workload(int controllers, int lifelines, int messages, int depth, int variables) {
+
+  /**
+   * Constructs a workload, checking that its parameters make sense.
+   *
+   * @param controllers number of controllers in the RoboChart module.
+   * @param lifelines   number of controllers that appear as lifelines in the sequence.
+   * @param messages    number of messages in the sequence.
+   * @param depth       maximum nesting depth of fragments.
+   * @param variables   number of interaction variables.
+   */
+  public Workload {
+    if (controllers < 1) {
+      throw new IllegalArgumentException("need at least one controller");
+    }
+    if (lifelines < 1 || controllers < lifelines) {
+      throw new IllegalArgumentException(
+          "lifelines must be between 1 and %d".formatted(controllers));
+    }
+    if (messages < 1) {
+      throw new IllegalArgumentException("need at least one message");
+    }
+    if (depth < 0 || variables < 0) {
+      throw new IllegalArgumentException("depth and variables must be non-negative");
+    }
+  }
+
+  /**
+   * @return a small workload that touches every fragment kind once.
+   */
+  public static Workload representative() {
+    return new Workload(2, 2, 8, 4, 1);
+  }
+
+  /**
+   * Scales up the size of the sequence, keeping the RoboChart side fixed.
+   *
+   * @param messages the new number of messages.
+   * @return a copy of this workload with the given number of messages.
+   */
+  public Workload withMessages(int messages) {
+    return new Workload(controllers, lifelines, messages, depth, variables);
+  }
+}
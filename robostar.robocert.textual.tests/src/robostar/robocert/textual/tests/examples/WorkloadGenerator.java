@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.examples;
+
+import circus.robocalc.robochart.ControllerRef;
+import circus.robocalc.robochart.Event;
+import circus.robocalc.robochart.PrimitiveType;
+import circus.robocalc.robochart.RCModule;
+import circus.robocalc.robochart.RoboChartFactory;
+import circus.robocalc.robochart.TypeRef;
+import circus.robocalc.robochart.Variable;
+import circus.robocalc.robochart.VariableModifier;
+import com.google.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import robostar.robocert.Actor;
+import robostar.robocert.CertPackage;
+import robostar.robocert.InteractionFragment;
+import robostar.robocert.InteractionOperand;
+import robostar.robocert.Message;
+import robostar.robocert.RoboCertFactory;
+import robostar.robocert.SequencePropertyType;
+import robostar.robocert.ValueSpecification;
+import robostar.robocert.util.ExpressionFactory;
+
+/**
+ * Generates synthetic RoboChart and RoboCert models of controlled size, for benchmarks and scaling
+ * tests.
+ * <p>
+ * Each model comes in two forms: as EMF trees, and as {@code .rct}/{@code .rcert} source text.
+ * Both forms have the same shape and package layout, and are fully determined by the
+ * {@link Workload}, so that results on them are reproducible.  The one difference is the
+ * {@code int} type: the text form refers to the RoboChart core type, which must be loaded
+ * alongside it, while the EMF form uses a detached stand-in.
+ * <p>
+ * The RoboChart side is a single package (one {@code .rct} file, in the text form) holding
+ * controllers {@code C0}, {@code C1}, and so on, and a module {@value #MODULE} holding a robotic
+ * platform and references to those controllers.  Each controller {@code Ci} has one integer event
+ * {@code ei}, connected asynchronously to the platform.
+ * <p>
+ * The RoboCert side is a group {@value #GROUP} targeting the components of the module, with one
+ * sequence {@value #SEQUENCE} and one assertion that the sequence holds.  Message {@code j} goes
+ * between the world and lifeline {@code j mod lifelines}, alternating in direction; messages are
+ * spread over a tree of loop, until, alt, and par fragments (in that order, by nesting level), with
+ * each fragment keeping its first message outside itself.
+ *
+ * @param chart factory for RoboChart objects.
+ * @param cert  factory for RoboCert objects.
+ * @param exprs factory for expressions.
+ * @author Matt Windsor
+ */
+public record WorkloadGenerator(RoboChartFactory chart, RoboCertFactory cert,
+                                ExpressionFactory exprs) {
+
+  /**
+   * Name of the generated RoboChart module.
+   */
+  public static final String MODULE = "Mod";
+
+  /**
+   * Name of the generated specification group.
+   */
+  public static final String GROUP = "G";
+
+  /**
+   * Name of the generated sequence.
+   */
+  public static final String SEQUENCE = "S";
+
+  /**
+   * Constructs a workload generator.
+   *
+   * @param chart factory for RoboChart objects.
+   * @param cert  factory for RoboCert objects.
+   * @param exprs factory for expressions.
+   */
+  @Inject
+  public WorkloadGenerator {
+    Objects.requireNonNull(chart);
+    Objects.requireNonNull(cert);
+    Objects.requireNonNull(exprs);
+  }
+
+  //
+  // Shape
+  //
+
+  private enum Kind {LOOP, UNTIL, ALT, PAR}
+
+  private sealed interface Step permits Send, Block {
+
+  }
+
+  private record Send(int index) implements Step {
+
+  }
+
+  private record Block(Kind kind, List<List<Step>> operands) implements Step {
+
+  }
+
+  private static List<Step> plan(Workload w) {
+    return steps(w, 0, IntStream.range(0, w.messages()).boxed().toList());
+  }
+
+  private static List<Step> steps(Workload w, int level, List<Integer> msgs) {
+    if (w.depth() <= level || msgs.size() < 2) {
+      return msgs.stream().<Step>map(Send::new).toList();
+    }
+
+    final var kind = Kind.values()[level % Kind.values().length];
+    final var rest = msgs.subList(1, msgs.size());
+    final var operands = switch (kind) {
+      case LOOP, UNTIL -> List.of(steps(w, level + 1, rest));
+      case ALT, PAR -> {
+        final var mid = (rest.size() + 1) / 2;
+        yield List.of(steps(w, level + 1, rest.subList(0, mid)),
+            steps(w, level + 1, rest.subList(mid, rest.size())));
+      }
+    };
+    return List.of(new Send(msgs.get(0)), new Block(kind, operands));
+  }
+
+  private static int lifeline(Workload w, int msg) {
+    return msg % w.lifelines();
+  }
+
+  private static boolean isInbound(int msg) {
+    return msg % 2 == 0;
+  }
+
+  /**
+   * @return the variable bound by the message, or -1 if it has a literal argument.
+   */
+  private static int variable(Workload w, int msg) {
+    if (w.variables() == 0 || isInbound(msg)) {
+      return -1;
+    }
+    return (msg / 2) % w.variables();
+  }
+
+  //
+  // Text
+  //
+
+  /**
+   * Generates the RoboChart side of a workload as source text.
+   *
+   * @param w the workload.
+   * @return the contents of a {@code .rct} file.
+   */
+  public String robochart(Workload w) {
+    final var sb = new StringBuilder();
+    for (var i = 0; i < w.controllers(); i++) {
+      sb.append("controller C%1$d {\n  event e%1$d: int\n}\n\n".formatted(i));
+    }
+
+    sb.append("module %s {\n  robotic platform RP {\n".formatted(MODULE));
+    for (var i = 0; i < w.controllers(); i++) {
+      sb.append("    event e%d: int\n".formatted(i));
+    }
+    sb.append("  }\n\n");
+    for (var i = 0; i < w.controllers(); i++) {
+      sb.append("  cref c%1$d = C%1$d\n".formatted(i));
+    }
+    for (var i = 0; i < w.controllers(); i++) {
+      sb.append("  connection RP on e%1$d to c%1$d on e%1$d (_async)\n".formatted(i));
+    }
+    return sb.append("}\n").toString();
+  }
+
+  /**
+   * Generates the RoboCert side of a workload as source text.
+   *
+   * @param w the workload.
+   * @return the contents of a {@code .rcert} file.
+   */
+  public String robocert(Workload w) {
+    final var actors = IntStream.range(0, w.lifelines())
+        .mapToObj(i -> "component %s::c%d as L%d".formatted(MODULE, i, i))
+        .collect(Collectors.joining(", "));
+    final var actorNames = IntStream.range(0, w.lifelines()).mapToObj("L%d"::formatted)
+        .collect(Collectors.joining(", "));
+
+    final var sb = new StringBuilder();
+    sb.append("specification group %s {\n".formatted(GROUP));
+    sb.append("  target = components of module %s\n".formatted(MODULE));
+    sb.append("  actors = {%s, world as W}\n".formatted(actors));
+    sb.append("  sequence %s {\n".formatted(SEQUENCE));
+    if (0 < w.variables()) {
+      sb.append("    var ").append(IntStream.range(0, w.variables()).mapToObj("x%d: int"::formatted)
+          .collect(Collectors.joining(", "))).append('\n');
+    }
+    sb.append("    actors %s and W\n".formatted(actorNames));
+    appendSteps(sb, w, plan(w), 4);
+    sb.append("  }\n}\n\n");
+    sb.append("assertion A: %s::%s holds\n".formatted(GROUP, SEQUENCE));
+    return sb.toString();
+  }
+
+  private void appendSteps(StringBuilder sb, Workload w, List<Step> steps, int indent) {
+    final var pad = " ".repeat(indent);
+    if (steps.isEmpty()) {
+      sb.append(pad).append("nothing\n");
+      return;
+    }
+
+    for (var step : steps) {
+      if (step instanceof Send s) {
+        sb.append(pad).append(messageText(w, s.index())).append('\n');
+      } else if (step instanceof Block b) {
+        final var ops = b.operands();
+        sb.append(pad).append(switch (b.kind()) {
+          case LOOP -> "loop";
+          case UNTIL -> "any until";
+          case ALT -> "alt";
+          case PAR -> "par";
+        }).append('\n');
+        appendSteps(sb, w, ops.get(0), indent + 2);
+        for (var op : ops.subList(1, ops.size())) {
+          sb.append(pad).append(b.kind() == Kind.ALT ? "else" : "and").append('\n');
+          appendSteps(sb, w, op, indent + 2);
+        }
+        sb.append(pad).append("end\n");
+      }
+    }
+  }
+
+  private String messageText(Workload w, int msg) {
+    final var life = lifeline(w, msg);
+    final var ends = isInbound(msg) ? "W->>L%d" : "L%d->>W";
+    final var v = variable(w, msg);
+    final var arg = v < 0 ? Integer.toString(msg) : "any into x%d".formatted(v);
+    return (ends + ": event e%d(%s)").formatted(life, life, arg);
+  }
+
+  //
+  // EMF
+  //
+
+  /**
+   * Generates the RoboChart side of a workload as an EMF tree.
+   * <p>
+   * As in the text form, the module and the controller definitions share one package, so that the
+   * controllers resolve through the same (local) scope in both forms.
+   *
+   * @param w the workload.
+   * @return the module.
+   */
+  public RCModule module(Workload w) {
+    final var intType = chart.createPrimitiveType();
+    intType.setName("int");
+
+    final var platform = chart.createRoboticPlatformDef();
+    platform.setName("RP");
+
+    final var pkg = chart.createRCPackage();
+    final var mod = chart.createRCModule();
+    mod.setName(MODULE);
+    mod.getNodes().add(platform);
+
+    for (var i = 0; i < w.controllers(); i++) {
+      final var ctrl = chart.createControllerDef();
+      ctrl.setName("C%d".formatted(i));
+      final var ctrlEvent = event(i, intType);
+      ctrl.getEvents().add(ctrlEvent);
+      pkg.getControllers().add(ctrl);
+
+      final var ref = chart.createControllerRef();
+      ref.setName("c%d".formatted(i));
+      ref.setRef(ctrl);
+      mod.getNodes().add(ref);
+
+      final var platformEvent = event(i, intType);
+      platform.getEvents().add(platformEvent);
+
+      final var conn = chart.createConnection();
+      conn.setFrom(platform);
+      conn.setEfrom(platformEvent);
+      conn.setTo(ref);
+      conn.setEto(ctrlEvent);
+      conn.setAsync(true);
+      mod.getConnections().add(conn);
+    }
+
+    pkg.getModules().add(mod);
+    return mod;
+  }
+
+  private Event event(int i, PrimitiveType type) {
+    final var it = chart.createEvent();
+    it.setName("e%d".formatted(i));
+    it.setType(typeRef(type));
+    return it;
+  }
+
+  private TypeRef typeRef(PrimitiveType type) {
+    final var it = chart.createTypeRef();
+    it.setRef(type);
+    return it;
+  }
+
+  /**
+   * Generates the RoboCert side of a workload as an EMF tree.
+   *
+   * @param w   the workload.
+   * @param mod the module produced by {@link #module(Workload)} for the same workload.
+   * @return the package.
+   */
+  public CertPackage certPackage(Workload w, RCModule mod) {
+    final var refs = mod.getNodes().stream().filter(ControllerRef.class::isInstance)
+        .map(ControllerRef.class::cast).toList();
+
+    final var lifelines = new ArrayList<Actor>();
+    for (var i = 0; i < w.lifelines(); i++) {
+      final var actor = cert.createComponentActor();
+      actor.setName("L%d".formatted(i));
+      actor.setNode(refs.get(i));
+      lifelines.add(actor);
+    }
+    final var world = cert.createWorld();
+    world.setName("W");
+
+    final var target = cert.createInModuleTarget();
+    target.setModule(mod);
+
+    final var intType = chart.createPrimitiveType();
+    intType.setName("int");
+    final var vars = chart.createVariableList();
+    vars.setModifier(VariableModifier.VAR);
+    for (var i = 0; i < w.variables(); i++) {
+      final var v = chart.createVariable();
+      v.setName("x%d".formatted(i));
+      v.setType(typeRef(intType));
+      vars.getVars().add(v);
+    }
+
+    final var seq = cert.createInteraction();
+    seq.setName(SEQUENCE);
+    seq.getActors().addAll(lifelines);
+    seq.getActors().add(world);
+    if (0 < w.variables()) {
+      seq.setVariables(vars);
+    }
+    final var ctx = new EmfContext(w, refs, lifelines, world, vars.getVars());
+    seq.getFragments().addAll(fragments(ctx, plan(w)));
+
+    final var group = cert.createSpecificationGroup();
+    group.setName(GROUP);
+    group.setTarget(target);
+    group.getActors().addAll(lifelines);
+    group.getActors().add(world);
+    group.getInteractions().add(seq);
+
+    final var prop = cert.createSequenceProperty();
+    prop.setInteraction(seq);
+    prop.setType(SequencePropertyType.HOLDS);
+    final var assertion = cert.createAssertion();
+    assertion.setName("A");
+    assertion.setProperty(prop);
+    final var assertions = cert.createAssertionGroup();
+    assertions.getAssertions().add(assertion);
+
+    final var pkg = cert.createCertPackage();
+    pkg.getGroups().add(group);
+    pkg.getGroups().add(assertions);
+    return pkg;
+  }
+
+  private record EmfContext(Workload w, List<ControllerRef> refs, List<Actor> lifelines,
+                            Actor world, List<Variable> vars) {
+
+  }
+
+  private List<InteractionFragment> fragments(EmfContext ctx, List<Step> steps) {
+    return steps.stream().map(s -> fragment(ctx, s)).toList();
+  }
+
+  private InteractionFragment fragment(EmfContext ctx, Step step) {
+    if (step instanceof Send s) {
+      final var occ = cert.createMessageOccurrence();
+      occ.setMessage(message(ctx, s.index()));
+      final var frag = cert.createOccurrenceFragment();
+      frag.setOccurrence(occ);
+      return frag;
+    }
+
+    final var b = (Block) step;
+    final var ops = b.operands().stream().map(o -> operand(ctx, o)).toList();
+    return switch (b.kind()) {
+      case LOOP -> {
+        final var it = cert.createLoopFragment();
+        it.setBody(ops.get(0));
+        yield it;
+      }
+      case UNTIL -> {
+        final var it = cert.createUntilFragment();
+        it.setIntraMessages(cert.createUniverseMessageSet());
+        it.setBody(ops.get(0));
+        yield it;
+      }
+      case ALT -> {
+        final var it = cert.createAltFragment();
+        it.getBranches().addAll(ops);
+        yield it;
+      }
+      case PAR -> {
+        final var it = cert.createParFragment();
+        it.getBranches().addAll(ops);
+        yield it;
+      }
+    };
+  }
+
+  private InteractionOperand operand(EmfContext ctx, List<Step> steps) {
+    final var it = cert.createInteractionOperand();
+    it.setGuard(cert.createEmptyGuard());
+    it.getFragments().addAll(fragments(ctx, steps));
+    return it;
+  }
+
+  private Message message(EmfContext ctx, int msg) {
+    final var life = lifeline(ctx.w(), msg);
+    final var lifeActor = ctx.lifelines().get(life);
+
+    final var topic = cert.createEventTopic();
+    topic.setEfrom(ctx.refs().get(life).getRef().getEvents().get(0));
+
+    final var it = cert.createMessage();
+    it.setFrom(isInbound(msg) ? ctx.world() : lifeActor);
+    it.setTo(isInbound(msg) ? lifeActor : ctx.world());
+    it.setTopic(topic);
+    it.getArguments().add(argument(ctx, msg));
+    return it;
+  }
+
+  private ValueSpecification argument(EmfContext ctx, int msg) {
+    final var v = variable(ctx.w(), msg);
+    if (v < 0) {
+      final var it = cert.createExpressionValueSpecification();
+      it.setExpr(exprs.integer(msg));
+      return it;
+    }
+    final var it = cert.createWildcardValueSpecification();
+    it.setDestination(ctx.vars().get(v));
+    return it;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.examples;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import circus.robocalc.robochart.RCPackage;
+import com.google.common.collect.Iterables;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.EcoreUtil2;
+import org.eclipse.xtext.diagnostics.Severity;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.validation.CheckMode;
+import org.eclipse.xtext.validation.IResourceValidator;
+import org.eclipse.xtext.validation.Issue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.CertPackage;
+import robostar.robocert.InModuleTarget;
+import robostar.robocert.Interaction;
+import robostar.robocert.InteractionOperand;
+import robostar.robocert.Message;
+import robostar.robocert.textual.tests.ParseTestHelper;
+import robostar.robocert.textual.tests.RoboCertInjectorProvider;
+
+/**
+ * Tests {@link WorkloadGenerator}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertInjectorProvider.class)
+class WorkloadGeneratorTest {
+
+  private static final Workload WORKLOAD = new Workload(3, 2, 64, 4, 2);
+
+  private static final Set<String> SHAPE_CLASSES = Set.of("OccurrenceFragment", "LoopFragment",
+      "UntilFragment", "AltFragment", "ParFragment", "InteractionOperand");
+
+  @Inject
+  private WorkloadGenerator gen;
+  @Inject
+  private ParseTestHelper pt;
+  @Inject
+  private Provider<XtextResourceSet> sets;
+  @Inject
+  private IResourceValidator validator;
+
+  /**
+   * Tests that the EMF form has the requested number of messages and nesting depth.
+   */
+  @Test
+  void testCertPackage_size() {
+    final var pkg = gen.certPackage(WORKLOAD, gen.module(WORKLOAD));
+
+    final var msgs = EcoreUtil2.getAllContentsOfType(pkg, Message.class);
+    assertThat(msgs, hasSize(WORKLOAD.messages()));
+    assertThat(msgs.stream().mapToInt(WorkloadGeneratorTest::depth).max().orElse(0),
+        is(WORKLOAD.depth()));
+  }
+
+  /**
+   * Tests that the text form parses to the same shape as the EMF form.
+   */
+  @Test
+  void testRobocert_sameShape() {
+    final var parsed = pt.parse(gen.robocert(WORKLOAD));
+    final var built = gen.certPackage(WORKLOAD, gen.module(WORKLOAD));
+
+    assertThat(shape(parsed), is(shape(built)));
+  }
+
+  /**
+   * Tests that the text and EMF forms lay out the RoboChart side in the same way, with the module
+   * and the controllers in one package.
+   */
+  @Test
+  void testModule_sameLayout() throws IOException {
+    final var set = sets.get();
+    pt.addCoreTypes(set);
+    final var parsed = (RCPackage) load(set, "workload.rct", gen.robochart(WORKLOAD)).getContents()
+        .get(0);
+    final var built = (RCPackage) gen.module(WORKLOAD).eContainer();
+
+    assertThat(built.getModules(), hasSize(parsed.getModules().size()));
+    assertThat(built.getControllers(), hasSize(parsed.getControllers().size()));
+    assertThat(built.getControllers(), hasSize(WORKLOAD.controllers()));
+  }
+
+  /**
+   * Tests that the text forms of both sides parse together, link to each other, and validate.
+   */
+  @Test
+  void testText_linksAndValidates() throws IOException {
+    final var set = sets.get();
+    pt.addCoreTypes(set);
+    final var rct = load(set, "workload.rct", gen.robochart(WORKLOAD));
+    final var rcert = load(set, "workload.rcert", gen.robocert(WORKLOAD));
+    EcoreUtil.resolveAll(set);
+
+    assertThat(rct.getErrors(), is(empty()));
+    assertThat(rcert.getErrors(), is(empty()));
+    assertThat(EcoreUtil.UnresolvedProxyCrossReferencer.find(set).keySet(), is(empty()));
+
+    final var module = EcoreUtil2.getAllContentsOfType(rcert.getContents().get(0),
+        InModuleTarget.class).get(0).getModule();
+    assertThat(module.eResource(), is(rct));
+
+    final var issues = validator.validate(rcert, CheckMode.ALL, CancelIndicator.NullImpl);
+    assertThat(issues.stream().filter(i -> i.getSeverity() == Severity.ERROR)
+        .map(Issue::getMessage).toList(), is(empty()));
+  }
+
+  /**
+   * Tests that the representative workload uses every kind of fragment.
+   */
+  @Test
+  void testRepresentative_allFragments() {
+    final var w = Workload.representative();
+    final var pkg = gen.certPackage(w, gen.module(w));
+
+    assertThat(Set.copyOf(shape(pkg)), is(SHAPE_CLASSES));
+  }
+
+  private static Resource load(ResourceSet set, String name, String source) throws IOException {
+    final var res = set.createResource(URI.createURI("workload/" + name));
+    res.load(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)), null);
+    return res;
+  }
+
+  private static int depth(EObject obj) {
+    return Iterables.size(
+        Iterables.filter(EcoreUtil2.getAllContainers(obj), InteractionOperand.class));
+  }
+
+  private static List<String> shape(CertPackage pkg) {
+    final var seq = EcoreUtil2.getAllContentsOfType(pkg, Interaction.class).get(0);
+    return EcoreUtil2.eAllContentsAsList(seq).stream().map(x -> x.eClass().getName())
+        .filter(SHAPE_CLASSES::contains).toList();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.generator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.inject.Inject;
+import java.util.List;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.textual.generator.BackendRegistry;
+import robostar.robocert.textual.generator.svg.SvgGenerator;
+import robostar.robocert.textual.generator.tikz.TikzGenerator;
+import robostar.robocert.textual.generator.tockcsp.TockCspGenerator;
+import robostar.robocert.textual.tests.ParseTestHelper;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link BackendRegistry}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class BackendRegistryTest {
+
+  @Inject
+  private BackendRegistry backends;
+
+  @Inject
+  private ParseTestHelper parse;
+
+  @AfterEach
+  void tearDown() {
+    // The registry is a singleton, so don't leak selections into other tests.
+    backends.select(null);
+  }
+
+  /**
+   * Tests that only the core backends run by default, in registration order.
+   */
+  @Test
+  void testSelected_default() {
+    assertThat(backends.selected(resource()),
+        contains(instanceOf(TockCspGenerator.class), instanceOf(TikzGenerator.class)));
+  }
+
+  /**
+   * Tests that overriding the selection restricts the backends that run.
+   */
+  @Test
+  void testSelected_override() {
+    backends.selectNames("svg, csp");
+    assertThat(backends.selected(resource()),
+        contains(instanceOf(TockCspGenerator.class), instanceOf(SvgGenerator.class)));
+  }
+
+  /**
+   * Tests that backends aren't kept alive by the registry between builds.
+   */
+  @Test
+  void testSelected_fresh() {
+    backends.select(List.of(BackendRegistry.TIKZ));
+    final var first = backends.selected(resource()).get(0);
+    assertThat(backends.selected(resource()).get(0), not(sameInstance(first)));
+  }
+
+  /**
+   * Tests that selecting an unknown backend is an error.
+   */
+  @Test
+  void testSelect_unknown() {
+    assertThrows(IllegalArgumentException.class, () -> backends.selectNames("csp,pdf"));
+  }
+
+  private Resource resource() {
+    return parse.parse(parse.liftSubsequence("T->>W: op Z(1)")).eResource();
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.generator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.IOException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import robostar.robocert.textual.generator.Metrics;
+import robostar.robocert.textual.generator.Metrics.Sample;
+import robostar.robocert.textual.generator.Metrics.Span;
+
+/**
+ * Tests {@link Metrics}.
+ *
+ * @author Matt Windsor
+ */
+class MetricsTest {
+
+  private Metrics metrics;
+
+  @BeforeEach
+  void setUp() {
+    metrics = new Metrics();
+  }
+
+  /**
+   * Tests that nothing is recorded while metrics are off.
+   */
+  @Test
+  void testStart_disabled() {
+    try (var span = metrics.start("parse", "a.rct")) {
+      assertThat(span, is(sameInstance(Span.NONE)));
+    }
+    metrics.recordOutput("output/csp", "a.csp", 42);
+
+    assertThat(metrics.samples(), is(empty()));
+  }
+
+  /**
+   * Tests that lazily named spans only build their names while metrics are on.
+   */
+  @Test
+  void testStart_lazy() {
+    try (var ignored = metrics.start(() -> {
+      throw new AssertionError("phase name built while metrics are off");
+    }, "a.rct")) {
+      assertThat(metrics.samples(), is(empty()));
+    }
+
+    metrics.setEnabled(true);
+    try (var ignored = metrics.start(() -> "backend/" + "Csp", "a.rct")) {
+      assertThat(metrics.samples(), is(empty()));
+    }
+    assertThat(metrics.samples().stream().map(Sample::phase).toList(), contains("backend/Csp"));
+  }
+
+  /**
+   * Tests that spans and outputs are recorded while metrics are on.
+   */
+  @Test
+  void testStart_enabled() {
+    metrics.setEnabled(true);
+    try (var ignored = metrics.start("parse", "a.rct")) {
+      metrics.recordOutput("output/csp", "a.csp", 42);
+    }
+
+    assertThat(metrics.samples().stream().map(Sample::phase).toList(),
+        contains("output/csp", "parse"));
+    assertThat(metrics.samples().get(0).outputBytes(), is(42L));
+    assertThat(metrics.samples().get(1).subject(), is("a.rct"));
+  }
+
+  /**
+   * Tests that the JSON output totals samples by phase.
+   *
+   * @throws IOException if the JSON can't be written (which shouldn't happen).
+   */
+  @Test
+  void testWriteJson() throws IOException {
+    metrics.setEnabled(true);
+    metrics.recordOutput("output/csp", "a.csp", 40);
+    metrics.recordOutput("output/csp", "b \"quoted\".csp", 2);
+
+    final var sb = new StringBuilder();
+    metrics.writeJson(sb);
+    final var json = sb.toString();
+
+    assertThat(json, containsString(
+        "\"output/csp\": {\"count\": 2, \"nanos\": 0, \"allocatedBytes\": 0, \"outputBytes\": 42}"));
+    assertThat(json, containsString("\"subject\": \"b \\\"quoted\\\".csp\""));
+  }
+}
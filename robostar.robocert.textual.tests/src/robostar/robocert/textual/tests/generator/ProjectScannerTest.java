@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.generator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import robostar.robocert.textual.generator.ProjectScanner;
+import robostar.robocert.textual.generator.utils.ExecutionStrategy;
+import robostar.robocert.textual.generator.utils.FilenameHelper;
+
+/**
+ * Tests {@link ProjectScanner}.
+ *
+ * @author Matt Windsor
+ */
+class ProjectScannerTest {
+
+  @TempDir
+  Path root;
+
+  private ProjectScanner scanner;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    scanner = new ProjectScanner(new FilenameHelper(), new ExecutionStrategy());
+
+    touch("b.rct");
+    touch("a.rct");
+    touch("notes.txt");
+    touch("robots/arm.rct");
+    touch("robots/legacy/old.rct");
+    touch(".git/stray.rct");
+    touch("csp-gen/generated.rct");
+  }
+
+  /**
+   * Tests that, by default, every source file outside hidden directories is found, in order.
+   */
+  @Test
+  void testScan_default() throws IOException {
+    assertThat(scanner.scan(root),
+        contains(path("a.rct"), path("b.rct"), path("csp-gen/generated.rct"),
+            path("robots/arm.rct"), path("robots/legacy/old.rct")));
+  }
+
+  /**
+   * Tests that skipped directories are not entered.
+   */
+  @Test
+  void testScan_skipDirectory() throws IOException {
+    scanner.skipDirectory(root.resolve("csp-gen"));
+    assertThat(scanner.scan(root),
+        contains(path("a.rct"), path("b.rct"), path("robots/arm.rct"),
+            path("robots/legacy/old.rct")));
+  }
+
+  /**
+   * Tests that exclude globs prune whole directories.
+   */
+  @Test
+  void testScan_exclude() throws IOException {
+    scanner.addExclude("robots/legacy");
+    scanner.addExclude("csp-gen");
+    assertThat(scanner.scan(root),
+        contains(path("a.rct"), path("b.rct"), path("robots/arm.rct")));
+  }
+
+  /**
+   * Tests that include globs restrict the files found.
+   */
+  @Test
+  void testScan_include() throws IOException {
+    scanner.addInclude("robots/**");
+    assertThat(scanner.scan(root),
+        contains(path("robots/arm.rct"), path("robots/legacy/old.rct")));
+  }
+
+  private Path path(String name) {
+    return root.resolve(name);
+  }
+
+  private void touch(String name) throws IOException {
+    final var p = path(name);
+    Files.createDirectories(p.getParent());
+    Files.createFile(p);
+  }
+}
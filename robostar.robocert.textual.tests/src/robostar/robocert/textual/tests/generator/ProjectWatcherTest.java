@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.generator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import robostar.robocert.textual.generator.ProjectWatcher;
+
+/**
+ * Tests {@link ProjectWatcher}.
+ *
+ * @author Matt Windsor
+ */
+class ProjectWatcherTest {
+
+  /**
+   * Upper bound on how long the platform's watch service should take to notice anything.
+   */
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  @TempDir
+  Path root;
+
+  /**
+   * Tests that a new file is reported in the next batch.
+   */
+  @Test
+  void testNext_newFile() throws IOException {
+    try (var watcher = new ProjectWatcher(root, d -> true)) {
+      touch("a.rct");
+      assertThat(next(watcher), contains(root.resolve("a.rct")));
+    }
+  }
+
+  /**
+   * Tests that files in new subdirectories are reported, even if written before we could watch.
+   */
+  @Test
+  void testNext_newDirectory() throws IOException {
+    try (var watcher = new ProjectWatcher(root, d -> true)) {
+      touch("robots/arm.rct");
+      assertThat(next(watcher), hasItem(root.resolve("robots/arm.rct")));
+    }
+  }
+
+  /**
+   * Tests that directories rejected by the predicate aren't watched.
+   */
+  @Test
+  void testNext_skipped() throws IOException {
+    Files.createDirectories(root.resolve("csp-gen"));
+    try (var watcher = new ProjectWatcher(root, d -> !d.endsWith("csp-gen"))) {
+      touch("csp-gen/out.csp");
+      touch("a.rct");
+      assertThat(next(watcher), not(hasItem(root.resolve("csp-gen/out.csp"))));
+    }
+  }
+
+  /**
+   * Tests that checking for pending changes neither blocks nor loses them.
+   */
+  @Test
+  void testHasPendingChanges() throws IOException {
+    try (var watcher = new ProjectWatcher(root, d -> true)) {
+      assertThat(watcher.hasPendingChanges(), is(false));
+
+      touch("a.rct");
+      assertTimeoutPreemptively(TIMEOUT, () -> {
+        while (!watcher.hasPendingChanges()) {
+          Thread.sleep(10);
+        }
+      });
+      assertThat(next(watcher), contains(root.resolve("a.rct")));
+    }
+  }
+
+  private Set<Path> next(ProjectWatcher watcher) {
+    return assertTimeoutPreemptively(TIMEOUT, watcher::next);
+  }
+
+  private void touch(String name) throws IOException {
+    final var path = root.resolve(name);
+    Files.createDirectories(path.getParent());
+    Files.writeString(path, "");
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.generator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+import circus.robocalc.robochart.RoboChartFactory;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import java.util.List;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.RoboCertFactory;
+import robostar.robocert.textual.generator.RebuildPlanner;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link RebuildPlanner}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class RebuildPlannerTest {
+  private static final URI MODULE = URI.createURI("file:/project/module.rct");
+  private static final URI SPEC = URI.createURI("file:/project/spec.rcert");
+  private static final URI OTHER = URI.createURI("file:/project/other.rcert");
+
+  @Inject private RoboCertFactory rf;
+  @Inject private RoboChartFactory cf;
+  @Inject private Provider<XtextResourceSet> setProvider;
+
+  private RebuildPlanner planner;
+  private Resource spec;
+
+  @BeforeEach
+  void setUp() {
+    final var set = setProvider.get();
+
+    final var module = cf.createRCModule();
+    module.setName("Mod");
+    final var rct = cf.createRCPackage();
+    rct.getModules().add(module);
+    final var moduleRes = set.createResource(MODULE);
+    moduleRes.getContents().add(rct);
+
+    // spec.rcert targets the module in module.rct.
+    final var target = rf.createModuleTarget();
+    target.setModule(module);
+    final var group = rf.createSpecificationGroup();
+    group.setName("X");
+    group.setTarget(target);
+    final var pkg = rf.createCertPackage();
+    pkg.getGroups().add(group);
+    spec = set.createResource(SPEC);
+    spec.getContents().add(pkg);
+
+    final var other = set.createResource(OTHER);
+    other.getContents().add(rf.createCertPackage());
+
+    planner = new RebuildPlanner();
+    planner.index(moduleRes);
+    planner.index(spec);
+    planner.index(other);
+  }
+
+  /**
+   * Tests that changing a resource also rebuilds the resources depending on it.
+   */
+  @Test
+  void testPlan_dependents() {
+    assertThat(planner.plan(List.of(MODULE)), contains(MODULE, SPEC));
+    assertThat(planner.plan(List.of(SPEC)), contains(SPEC));
+  }
+
+  /**
+   * Tests that failed resources are retried once, alongside whatever changed next.
+   */
+  @Test
+  void testPlan_retry() {
+    planner.retry(OTHER);
+    assertThat(planner.plan(List.of(SPEC)), containsInAnyOrder(SPEC, OTHER));
+    assertThat(planner.plan(List.of(SPEC)), contains(SPEC));
+  }
+
+  /**
+   * Tests that reindexing a resource replaces its old dependencies.
+   */
+  @Test
+  void testIndex_replaces() {
+    spec.getContents().clear();
+    spec.getContents().add(rf.createCertPackage());
+    planner.index(spec);
+
+    assertThat(planner.plan(List.of(MODULE)), contains(MODULE));
+  }
+
+  /**
+   * Tests that forgetting a deleted resource drops its dependencies.
+   */
+  @Test
+  void testForget() {
+    planner.forget(SPEC);
+    assertThat(planner.plan(List.of(MODULE)), contains(MODULE));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.generator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import robostar.robocert.CertPackage;
+import robostar.robocert.textual.generator.ResourceLoader;
+import robostar.robocert.textual.tests.ParseTestHelper;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link ResourceLoader}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class ResourceLoaderTest {
+
+  @TempDir
+  Path root;
+
+  @Inject
+  private ResourceLoader loader;
+
+  @Inject
+  private Provider<ResourceSet> sets;
+
+  @Inject
+  private ParseTestHelper parse;
+
+  /**
+   * Tests that loaded resources end up parsed, in order, in the target resource set.
+   */
+  @Test
+  void testLoad() throws IOException {
+    final var uris = List.of(write("b.rcert", "T->>W: op Z(1)"), write("a.rcert", "W->>T: op Z(2)"));
+    final var set = sets.get();
+
+    final var resources = loader.load(set, uris);
+
+    assertThat(resources.stream().map(Resource::getURI).toList(), is(uris));
+    assertThat(set.getResources(), contains(resources.toArray()));
+    assertThat(resources, everyItem(hasProperty("loaded", is(true))));
+    for (var r : resources) {
+      assertThat(r.getErrors(), is(empty()));
+      assertThat(r.getContents().get(0), instanceOf(CertPackage.class));
+    }
+  }
+
+  /**
+   * Tests that resources already in the target resource set are reused rather than reloaded.
+   */
+  @Test
+  void testLoad_existing() throws IOException {
+    final var uri = write("a.rcert", "T->>W: op Z(1)");
+    final var set = sets.get();
+    final var existing = set.getResource(uri, true);
+
+    final var resources = loader.load(set, List.of(uri));
+
+    assertThat(resources.get(0), sameInstance(existing));
+    assertThat(set.getResources(), contains(existing));
+  }
+
+  private URI write(String name, String body) throws IOException {
+    final var p = root.resolve(name);
+    Files.writeString(p, parse.liftSubsequence(body));
+    return URI.createFileURI(p.toString());
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.generator.svg;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.inject.Inject;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.Actor;
+import robostar.robocert.Interaction;
+import robostar.robocert.InteractionFragment;
+import robostar.robocert.RoboCertFactory;
+import robostar.robocert.Temperature;
+import robostar.robocert.World;
+import robostar.robocert.textual.generator.svg.DiagramGenerator;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+import robostar.robocert.util.MessageFactory;
+
+/**
+ * Tests the layout produced by the SVG {@link DiagramGenerator}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class DiagramGeneratorTest {
+
+  private static final Pattern LINE = Pattern.compile(
+      "<line class=\"([a-z ]+)\" x1=\"(-?\\d+)\" y1=\"(-?\\d+)\" x2=\"(-?\\d+)\" y2=\"(-?\\d+)\"/>");
+  private static final Pattern SIZE = Pattern.compile("width=\"(\\d+)\" height=\"(\\d+)\"");
+
+  @Inject
+  private DiagramGenerator gen;
+  @Inject
+  private RoboCertFactory rf;
+  @Inject
+  private MessageFactory mf;
+  @Inject
+  private robostar.robocert.textual.tests.util.MessageFactory msf;
+
+  private List<Actor> actors;
+  private Actor target;
+  private Actor world;
+
+  @BeforeEach
+  void setUp() {
+    actors = msf.group().getActors();
+    target = actors.stream().filter(x -> !(x instanceof World)).findFirst().orElseThrow();
+    world = actors.stream().filter(x -> x instanceof World).findFirst().orElseThrow();
+  }
+
+  /**
+   * Tests that messages run from their lifeline to the world, top to bottom, inside the document.
+   */
+  @Test
+  void testGenerate_layout() {
+    final var svg = gen.generate(diagram(actors, message(target, world, Temperature.HOT),
+        message(world, target, Temperature.COLD))).toString();
+
+    final var lifelines = lines(svg, "lifeline");
+    assertThat(lifelines, hasSize(1));
+    final var lifeline = lifelines.get(0);
+
+    final var hot = lines(svg, "msg");
+    final var cold = lines(svg, "msg cold");
+    assertThat(hot, hasSize(1));
+    assertThat(cold, hasSize(1));
+
+    // Messages start and end on the lifeline, with the world to its right.
+    assertThat(hot.get(0)[0], is(lifeline[0]));
+    assertThat(hot.get(0)[2], greaterThan(lifeline[0]));
+    assertThat(cold.get(0)[0], is(hot.get(0)[2]));
+    assertThat(cold.get(0)[2], is(lifeline[0]));
+
+    // Both messages lie on the lifeline, in order.
+    assertThat(hot.get(0)[1], greaterThan(lifeline[1]));
+    assertThat(cold.get(0)[1], greaterThan(hot.get(0)[1]));
+    assertThat(lifeline[3], greaterThan(cold.get(0)[1]));
+
+    final var size = SIZE.matcher(svg);
+    assertThat(size.find(), is(true));
+    assertThat(Integer.parseInt(size.group(1)), greaterThan(hot.get(0)[2]));
+    assertThat(Integer.parseInt(size.group(2)), greaterThan(lifeline[3]));
+
+    assertThat(svg, containsString(">sd Y</text>"));
+  }
+
+  /**
+   * Tests that each lifeline gets its own column.
+   */
+  @Test
+  void testGenerate_columns() {
+    final var second = rf.createTargetActor();
+    second.setName("U");
+    final var svg = gen.generate(diagram(List.of(target, second, world),
+        message(target, second, Temperature.HOT))).toString();
+
+    final var lifelines = lines(svg, "lifeline");
+    assertThat(lifelines, hasSize(2));
+    final var msg = lines(svg, "msg").get(0);
+    assertThat(msg[0], is(lifelines.get(0)[0]));
+    assertThat(msg[2], is(lifelines.get(1)[0]));
+  }
+
+  /**
+   * Tests that messages to actors without lifelines are reported rather than drawn somewhere.
+   */
+  @Test
+  void testGenerate_missingLifeline() {
+    final var it = diagram(List.of(world), message(target, world, Temperature.HOT));
+    assertThrows(IllegalArgumentException.class, () -> gen.generate(it));
+  }
+
+  /**
+   * Tests that messages with unresolved topics are reported rather than drawn without a label.
+   */
+  @Test
+  void testGenerate_unresolvedTopic() {
+    final var frag = message(target, world, Temperature.HOT);
+    final var event = msf.intEvent();
+    ((InternalEObject) event).eSetProxyURI(URI.createURI("missing.rct#//@events.0"));
+    final var msg = rf.createMessageOccurrence();
+    msg.setMessage(mf.spec(target, world, mf.eventTopic(event)));
+    final var occ = rf.createOccurrenceFragment();
+    occ.setOccurrence(msg);
+
+    final var it = diagram(actors, frag, occ);
+    assertThrows(IllegalArgumentException.class, () -> gen.generate(it));
+  }
+
+  private Interaction diagram(List<Actor> lifelines, InteractionFragment... fragments) {
+    final var it = rf.createInteraction();
+    it.setName("Y");
+    it.setGroup(msf.group());
+    it.getActors().addAll(lifelines);
+    it.getFragments().addAll(List.of(fragments));
+    return it;
+  }
+
+  private InteractionFragment message(Actor from, Actor to, Temperature temp) {
+    final var occ = rf.createMessageOccurrence();
+    occ.setMessage(mf.spec(from, to, mf.eventTopic(msf.intEvent())));
+    occ.setTemperature(temp);
+    final var frag = rf.createOccurrenceFragment();
+    frag.setOccurrence(occ);
+    return frag;
+  }
+
+  /**
+   * Extracts the coordinates of each line with the given class.
+   *
+   * @param svg the SVG document.
+   * @param cls the class.
+   * @return the {x1, y1, x2, y2} coordinates of each line, in document order.
+   */
+  private List<int[]> lines(String svg, String cls) {
+    return LINE.matcher(svg).results().filter(m -> m.group(1).equals(cls))
+        .map(m -> new int[]{Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)),
+            Integer.parseInt(m.group(4)), Integer.parseInt(m.group(5))}).toList();
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.generator.svg;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+import com.google.inject.Inject;
+import java.util.stream.Stream;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.textual.generator.svg.SvgStructureGenerator;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests the {@link SvgStructureGenerator}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class SvgStructureGeneratorTest {
+
+  @Inject
+  private SvgStructureGenerator ssg;
+
+  /**
+   * Tests that generating a line provides the expected output.
+   */
+  @Test
+  void testLine() {
+    assertThat(ssg.line("msg", 1, 2, 3, 4),
+        is("<line class=\"msg\" x1=\"1\" y1=\"2\" x2=\"3\" y2=\"4\"/>"));
+  }
+
+  /**
+   * Tests that generating a polygon provides the expected output.
+   */
+  @Test
+  void testPolygon() {
+    assertThat(ssg.polygon("head", 0, 0, 10, 5, 0, 10),
+        is("<polygon class=\"head\" points=\"0,0 10,5 0,10\"/>"));
+  }
+
+  /**
+   * Tests that text content is escaped.
+   */
+  @Test
+  void testText_escaped() {
+    assertThat(ssg.text("label", 5, 6, "x < 1 && y > 2"),
+        is("<text class=\"label\" x=\"5\" y=\"6\">x &lt; 1 &amp;&amp; y &gt; 2</text>"));
+  }
+
+  /**
+   * Tests that documents wrap their elements in an appropriately sized SVG element.
+   */
+  @Test
+  void testDocument() {
+    final var doc = ssg.document(100, 50, "", Stream.of(ssg.rect("r", 0, 0, 1, 1)));
+    assertThat(doc, startsWith("<?xml"));
+    assertThat(doc, endsWith("  <rect class=\"r\" x=\"0\" y=\"0\" width=\"1\" height=\"1\"/>\n</svg>\n"));
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.generator.tikz.diagram;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import com.google.inject.Inject;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.Interaction;
+import robostar.robocert.SpecificationGroup;
+import robostar.robocert.textual.generator.tikz.diagram.DiagramContentsGenerator;
+import robostar.robocert.textual.generator.tikz.frame.FrameGenerator;
+import robostar.robocert.textual.generator.tikz.matrix.BranchRow;
+import robostar.robocert.textual.generator.tikz.matrix.CombinedFragmentRow;
+import robostar.robocert.textual.generator.tikz.matrix.DiagramRow;
+import robostar.robocert.textual.generator.tikz.matrix.OccurrenceRow;
+import robostar.robocert.textual.generator.tikz.matrix.RowGenerator;
+import robostar.robocert.textual.generator.tikz.util.InteractionFlattener.EventType;
+import robostar.robocert.textual.tests.ParseTestHelper;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link DiagramContentsGenerator}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class DiagramContentsGeneratorTest {
+
+  @Inject
+  private ParseTestHelper parse;
+
+  /**
+   * Tests that an occurrence directly after a fragment entry shares the entry's row.
+   */
+  @Test
+  void testGenerate_mergesEntry() {
+    final var state = new DiagramContentsGenerator(new FrameGenerator(), new RowGenerator());
+    state.generate(diagram("""
+        alt [always]
+          T->>W: op Z(1)
+        else [otherwise]
+          T->>W: op Z(2)
+        end"""));
+
+    final var cfEntry = new CombinedFragmentRow(EventType.Entered, 1);
+    assertThat(state.matrixRows(),
+        contains(new DiagramRow(EventType.Entered), cfEntry, new BranchRow(4),
+            new OccurrenceRow(5), new CombinedFragmentRow(EventType.Exited, 1),
+            new DiagramRow(EventType.Exited)));
+
+    assertThat(state.canonical(new OccurrenceRow(3)), is(cfEntry));
+    assertThat(state.rowIndex(new OccurrenceRow(3)), is(1));
+    assertThat(state.canonical(new OccurrenceRow(5)), is(new OccurrenceRow(5)));
+  }
+
+  private Interaction diagram(String body) {
+    final var pkg = parse.parse(parse.liftSubsequence(body));
+    return ((SpecificationGroup) pkg.getGroups().get(0)).getInteractions().get(0);
+  }
+}
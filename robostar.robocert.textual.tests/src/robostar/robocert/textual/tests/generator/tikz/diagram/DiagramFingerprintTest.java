@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.generator.tikz.diagram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.inject.Inject;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.Interaction;
+import robostar.robocert.SpecificationGroup;
+import robostar.robocert.textual.generator.tikz.diagram.DiagramFingerprint;
+import robostar.robocert.textual.tests.ParseTestHelper;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link DiagramFingerprint}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class DiagramFingerprintTest {
+
+  @Inject
+  private DiagramFingerprint fp;
+
+  @Inject
+  private ParseTestHelper parse;
+
+  /**
+   * Tests that identical diagrams have identical fingerprints, and different ones differ.
+   */
+  @Test
+  void testFingerprint_content() {
+    final var a1 = fp.fingerprint(diagram("T->>W: op Z(1)"));
+    final var a2 = fp.fingerprint(diagram("T->>W: op Z(1)"));
+    final var b = fp.fingerprint(diagram("T->>W: op Z(2)"));
+
+    assertEquals(a1, a2);
+    assertNotEquals(a1, b);
+  }
+
+  /**
+   * Tests that renaming an actor changes the fingerprint, even though the interaction text is the
+   * same.
+   */
+  @Test
+  void testFingerprint_actors() {
+    final var lifted = parse.liftSubsequence("T->>W: op Z(1)").toString();
+    final var a = fp.fingerprint(parsed(lifted));
+    final var b = fp.fingerprint(parsed(lifted.replace("target as T", "target as U")));
+
+    assertNotEquals(a, b);
+  }
+
+  /**
+   * Tests that headers match only their own fingerprint.
+   */
+  @Test
+  void testMatches() {
+    final var a = fp.fingerprint(diagram("T->>W: op Z(1)"));
+    final var b = fp.fingerprint(diagram("T->>W: op Z(2)"));
+    final var existing = fp.header(a) + "\n% rest of diagram";
+
+    assertTrue(fp.matches(existing, a));
+    assertFalse(fp.matches(existing, b));
+    assertFalse(fp.matches("", a));
+  }
+
+  private Interaction diagram(String body) {
+    return parsed(parse.liftSubsequence(body));
+  }
+
+  private Interaction parsed(CharSequence pkgText) {
+    final var pkg = parse.parse(pkgText);
+    return ((SpecificationGroup) pkg.getGroups().get(0)).getInteractions().get(0);
+  }
+}
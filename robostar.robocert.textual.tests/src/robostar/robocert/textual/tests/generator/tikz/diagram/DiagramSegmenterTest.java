@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.generator.tikz.diagram;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import com.google.inject.Inject;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.Interaction;
+import robostar.robocert.SpecificationGroup;
+import robostar.robocert.textual.generator.tikz.diagram.DiagramSegmenter;
+import robostar.robocert.textual.generator.tikz.diagram.DiagramSegmenter.Segment;
+import robostar.robocert.textual.tests.ParseTestHelper;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link DiagramSegmenter}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class DiagramSegmenterTest {
+
+  private static final String BODY = """
+      T->>W: op Z(1)
+      alt [always]
+        T->>W: op Z(2)
+      else [otherwise]
+        T->>W: op Z(3)
+      end
+      T->>W: op Z(4)""";
+
+  @Inject
+  private DiagramSegmenter segmenter;
+
+  @Inject
+  private ParseTestHelper parse;
+
+  @AfterEach
+  void tearDown() {
+    // The segmenter is a singleton, so don't leak settings into other tests.
+    segmenter.setMaxRows(null);
+  }
+
+  /**
+   * Tests that diagrams aren't split when segmentation is off.
+   */
+  @Test
+  void testSegments_disabled() {
+    assertThat(segmenter.segments(diagram()), contains(new Segment(0, 3, 0, 1)));
+  }
+
+  /**
+   * Tests that diagrams are split at top-level fragment boundaries, and that fragments larger than
+   * the limit are kept whole.
+   */
+  @Test
+  void testSegments_split() {
+    segmenter.setMaxRows(2);
+    assertThat(segmenter.segments(diagram()),
+        contains(new Segment(0, 1, 0, 3), new Segment(1, 2, 1, 3), new Segment(2, 3, 2, 3)));
+  }
+
+  /**
+   * Tests that small fragments are packed together into one segment.
+   */
+  @Test
+  void testSegments_packed() {
+    segmenter.setMaxRows(6);
+    assertThat(segmenter.segments(diagram()),
+        contains(new Segment(0, 2, 0, 2), new Segment(2, 3, 1, 2)));
+  }
+
+  /**
+   * Tests that, without an override, the limit comes from the preference, which is off by default.
+   */
+  @Test
+  void testMaxRows_preferenceDefault() {
+    segmenter.setMaxRows(null);
+    assertThat(segmenter.maxRows(diagram().eResource()), is(0));
+    assertThat(segmenter.maxRows(null), is(0));
+  }
+
+  private Interaction diagram() {
+    final var pkg = parse.parse(parse.liftSubsequence(BODY));
+    return ((SpecificationGroup) pkg.getGroups().get(0)).getInteractions().get(0);
+  }
+}
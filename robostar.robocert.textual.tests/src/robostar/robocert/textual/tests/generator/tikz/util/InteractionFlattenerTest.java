@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.generator.tikz.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import com.google.inject.Inject;
+import java.util.ArrayList;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.Interaction;
+import robostar.robocert.SpecificationGroup;
+import robostar.robocert.textual.generator.tikz.util.InteractionFlattener;
+import robostar.robocert.textual.generator.tikz.util.InteractionFlattener.Event;
+import robostar.robocert.textual.tests.ParseTestHelper;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests the {@link InteractionFlattener}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class InteractionFlattenerTest {
+
+  @Inject
+  private ParseTestHelper parse;
+
+  /**
+   * Tests that flattening a branch assigns IDs, relative IDs, and depths as expected.
+   */
+  @Test
+  void testUnwind_branch() {
+    final var result = new InteractionFlattener(diagram("""
+        alt [always]
+          T->>W: op Z(1)
+        else [otherwise]
+          T->>W: op Z(2)
+        end""")).unwind();
+
+    assertThat(result.maxDepth(), is(2));
+    assertThat(result.events().stream().map(InteractionFlattenerTest::summarise).toList(),
+        contains("enter 0 0 0", "enter 1 0 1", "enter 2 0 2", "enter 3 1 2", "exit 2 0 2",
+            "enter 4 2 2", "enter 5 3 2", "exit 4 2 2", "exit 1 0 1", "exit 0 0 0"));
+    assertThat(result.events().stream().filter(Event::isBranchSplit).map(Event::id).toList(),
+        contains(4));
+  }
+
+  /**
+   * Tests that streaming events to a sink gives the same events as collecting them.
+   */
+  @Test
+  void testUnwind_sink() {
+    final var it = diagram("""
+        T->>W: op Z(1)
+        T->>W: op Z(2)""");
+    final var events = new ArrayList<Event>();
+    final var flattener = new InteractionFlattener(it);
+
+    final var depth = flattener.unwind(events::add);
+    final var result = flattener.unwind();
+
+    assertThat(depth, is(result.maxDepth()));
+    assertThat(events, is(result.events()));
+  }
+
+  private static String summarise(Event e) {
+    return "%s %d %d %d".formatted(e.type(), e.id(), e.relativeId(), e.depth());
+  }
+
+  private Interaction diagram(String body) {
+    final var pkg = parse.parse(parse.liftSubsequence(body));
+    return ((SpecificationGroup) pkg.getGroups().get(0)).getInteractions().get(0);
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.generator.tockcsp;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.generator.GeneratorContext;
+import org.eclipse.xtext.generator.InMemoryFileSystemAccess;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import robostar.robocert.CertPackage;
+import robostar.robocert.textual.generator.ResourceLoader;
+import robostar.robocert.textual.generator.tockcsp.CertPackageGenerator;
+import robostar.robocert.textual.generator.tockcsp.OutputLayout;
+import robostar.robocert.textual.generator.utils.name.GroupNamer;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests the file layouts of the tock-CSP {@link CertPackageGenerator}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class CertPackageGeneratorTest {
+
+  private static final String GROUPS = """
+      specification group X {
+        target = module ModA
+      }
+      specification group Y {
+        target = module ModB
+      }
+      """;
+
+  @TempDir
+  Path root;
+
+  @Inject
+  private CertPackageGenerator gen;
+  @Inject
+  private OutputLayout layout;
+  @Inject
+  private GroupNamer namer;
+  @Inject
+  private ResourceLoader loader;
+  @Inject
+  private Provider<ResourceSet> sets;
+
+  private InMemoryFileSystemAccess fsa;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    write("a.rct", module("ModA"));
+    write("b.rct", module("ModB"));
+    fsa = new InMemoryFileSystemAccess();
+  }
+
+  @AfterEach
+  void tearDown() {
+    layout.setSplit(false);
+  }
+
+  /**
+   * Tests that the split layout produces one file per group, plus the package file.
+   */
+  @Test
+  void testGenerate_splitFiles() throws IOException {
+    layout.setSplit(true);
+    final var pkg = generate(GROUPS + "assertion A: target of X is deadlock-free\n");
+
+    for (var f : List.of("p__X.csp", "p__Y.csp", assertionFile(pkg), "p.csp")) {
+      assertThat(f, fsa.isFile(f), is(true));
+    }
+  }
+
+  /**
+   * Tests that an assertion group file only includes what its assertions need.
+   */
+  @Test
+  void testGenerate_splitImports() throws IOException {
+    layout.setSplit(true);
+    final var pkg = generate(GROUPS + "assertion A: target of X is deadlock-free\n");
+
+    final var assertions = fsa.readTextFile(assertionFile(pkg)).toString();
+    assertThat(assertions, containsString("include \"p__X.csp\""));
+    assertThat(assertions, not(containsString("p__Y.csp")));
+    assertThat(assertions, containsString("a_defs"));
+    assertThat(assertions, not(containsString("b_defs")));
+
+    final var all = fsa.readTextFile("p.csp").toString();
+    assertThat(all, containsString("a_defs"));
+    assertThat(all, containsString("b_defs"));
+  }
+
+  /**
+   * Tests that regenerating a split package deletes the files of groups that no longer exist.
+   */
+  @Test
+  void testGenerate_splitDeletesStale() throws IOException {
+    layout.setSplit(true);
+    generate(GROUPS);
+    generate("""
+        specification group X {
+          target = module ModA
+        }
+        """);
+
+    assertThat(fsa.isFile("p__X.csp"), is(true));
+    assertThat(fsa.isFile("p__Y.csp"), is(false));
+  }
+
+  /**
+   * Tests that switching back to the single-file layout deletes the group files.
+   */
+  @Test
+  void testGenerate_singleDeletesSplit() throws IOException {
+    layout.setSplit(true);
+    generate(GROUPS);
+    layout.setSplit(false);
+    generate(GROUPS);
+
+    assertThat(fsa.isFile("p.csp"), is(true));
+    assertThat(fsa.isFile("p__X.csp"), is(false));
+    assertThat(fsa.isFile("p__Y.csp"), is(false));
+  }
+
+  /**
+   * Tests that files merely mentioned in CSP text aren't taken to be group files.
+   */
+  @Test
+  void testGenerate_keepsMentionedFiles() throws IOException {
+    fsa.generateFile("p__Q.csp", "-- not ours");
+    final var mention = GROUPS + "csp Z <$ -- see \"p__Q.csp\" $>\n";
+    generate(mention);
+    generate(mention);
+
+    assertThat(fsa.isFile("p__Q.csp"), is(true));
+  }
+
+  private CertPackage generate(String source) throws IOException {
+    final var uris = List.of(uri("a.rct"), uri("b.rct"), write("p.rcert", source));
+    final var pkg = (CertPackage) loader.load(sets.get(), uris).get(2).getContents().get(0);
+    gen.generate(fsa, new GeneratorContext(), pkg, null);
+    return pkg;
+  }
+
+  private String assertionFile(CertPackage pkg) {
+    return "p__%s.csp".formatted(namer.getOrSynthesiseName(pkg.getGroups().get(2)));
+  }
+
+  private static String module(String name) {
+    return """
+        module %s {
+          robotic platform RP {
+            event e
+          }
+        }
+        """.formatted(name);
+  }
+
+  private URI write(String name, String contents) throws IOException {
+    Files.writeString(root.resolve(name), contents);
+    return uri(name);
+  }
+
+  private URI uri(String name) {
+    return URI.createFileURI(root.resolve(name).toString());
+  }
+}
@@ -13,7 +13,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static robostar.robocert.textual.tests.util.GeneratesCSPMatcher.generatesCSP;
 
 import circus.robocalc.robochart.Expression;
+import circus.robocalc.robochart.RoboChartFactory;
 import com.google.inject.Inject;
+import java.util.List;
 import org.eclipse.xtext.testing.InjectWith;
 import org.eclipse.xtext.testing.extensions.InjectionExtension;
 import org.hamcrest.Matcher;
@@ -39,6 +41,8 @@ class ExpressionGeneratorTest {
   private ExpressionGenerator eg;
   @Inject
   private DummyVariableFactory vf;
+  @Inject
+  private RoboChartFactory rcf;
 
   /**
    * Tests that generating the Boolean literals works properly.
@@ -99,6 +103,16 @@ class ExpressionGeneratorTest {
     assertThat(ef.le(ef.integer(42), ef.integer(56)), generates("(42) <= (56)"));
   }
 
+  /**
+   * Tests that generating set literals (as used for variable domains) works properly.
+   */
+  @Test
+  void testGenerateSetExprs() {
+    final var set = rcf.createSetExp();
+    set.getValues().addAll(List.of(ef.integer(1), ef.integer(2), ef.ref(vf.constant("x"))));
+    assertThat(set, generates("{1, 2, const_x}"));
+  }
+
   /**
    * Shortcut for building the Hamcrest matcher for expressions.
    *
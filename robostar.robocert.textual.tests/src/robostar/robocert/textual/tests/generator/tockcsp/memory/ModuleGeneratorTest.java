@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.generator.tockcsp.memory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+import circus.robocalc.robochart.Expression;
+import circus.robocalc.robochart.PrimitiveType;
+import circus.robocalc.robochart.RoboChartFactory;
+import circus.robocalc.robochart.Variable;
+import circus.robocalc.robochart.VariableList;
+import circus.robocalc.robochart.generator.csp.comp.timed.CTimedGeneratorUtils;
+import com.google.inject.Inject;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.RoboCertFactory;
+import robostar.robocert.textual.generator.tockcsp.memory.ModuleGenerator;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+import robostar.robocert.util.ExpressionFactory;
+
+/**
+ * Tests the {@link ModuleGenerator}, mainly its handling of narrowed variable domains.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class ModuleGeneratorTest {
+	@Inject
+	private ModuleGenerator mod;
+	@Inject
+	private CTimedGeneratorUtils gu;
+	@Inject
+	private RoboChartFactory rc;
+	@Inject
+	private RoboCertFactory rcert;
+	@Inject
+	private ExpressionFactory ef;
+
+	private PrimitiveType intType;
+
+	@BeforeEach
+	void setUp() {
+		intType = rc.createPrimitiveType();
+		intType.setName("core_int");
+	}
+
+	/**
+	 * Tests that a narrowed interaction variable has its domain as its domain.
+	 */
+	@Test
+	void testGenerateDomain_narrowed() {
+		final var x = var("x", domain());
+		interaction(x);
+
+		assertThat(mod.generateDomain(x).toString(), is("{1, 2}"));
+	}
+
+	/**
+	 * Tests that an interaction variable without a domain has its type as its domain.
+	 */
+	@Test
+	void testGenerateDomain_unnarrowed() {
+		final var x = var("x", null);
+		interaction(x);
+
+		assertThat(mod.generateDomain(x).toString(), is("core_int"));
+	}
+
+	/**
+	 * Tests that the initial value of a variable outside an interaction isn't taken as a domain.
+	 */
+	@Test
+	void testGenerateDomain_notInteraction() {
+		final var x = var("x", domain());
+
+		assertThat(mod.generateDomain(x).toString(), is("core_int"));
+	}
+
+	/**
+	 * Tests that the memory channel of a narrowed variable carries only its domain.
+	 */
+	@Test
+	void testGenerate_channelNarrowed() {
+		final var xs = interaction(var("x", domain()));
+
+		assertThat(mod.generate(xs).toString(), containsString("channel x : MemOp.{1, 2}"));
+	}
+
+	/**
+	 * Tests that the memory of a narrowed variable starts at the type's default value only if that
+	 * value is in the domain.
+	 */
+	@Test
+	void testGenerate_initialNarrowed() {
+		final var x = var("x", domain());
+		final var xs = interaction(x);
+		final var d = gu.typeDefaultValue(x.getType());
+
+		assertThat(mod.generate(xs).toString(),
+				containsString("if member(%s, {1, 2}) then %s else head(seq({1, 2}))".formatted(d, d)));
+	}
+
+	private Variable var(String name, Expression domain) {
+		final var ty = rc.createTypeRef();
+		ty.setRef(intType);
+
+		final var x = rc.createVariable();
+		x.setName(name);
+		x.setType(ty);
+		x.setInitial(domain);
+		return x;
+	}
+
+	private Expression domain() {
+		final var s = rc.createSetExp();
+		s.getValues().add(ef.integer(1));
+		s.getValues().add(ef.integer(2));
+		return s;
+	}
+
+	private VariableList interaction(Variable x) {
+		final var xs = rc.createVariableList();
+		xs.getVars().add(x);
+
+		final var seq = rcert.createInteraction();
+		seq.setName("test");
+		seq.setVariables(xs);
+		return xs;
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.generator.tockcsp.seq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+
+import com.google.inject.Inject;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.Interaction;
+import robostar.robocert.RoboCertFactory;
+import robostar.robocert.SemanticModel;
+import robostar.robocert.SequencePropertyType;
+import robostar.robocert.textual.generator.tockcsp.seq.CompressionStrategy;
+import robostar.robocert.textual.generator.tockcsp.seq.CompressionStrategy.Mode;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link CompressionStrategy}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class CompressionStrategyTest {
+
+  @Inject
+  private CompressionStrategy compression;
+  @Inject
+  private RoboCertFactory rf;
+
+  @AfterEach
+  void tearDown() {
+    compression.setMode(Mode.AUTO);
+    compression.setThreshold(CompressionStrategy.DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Tests that turning compression off leaves processes alone.
+   */
+  @Test
+  void testCompress_none() {
+    compression.setMode(Mode.NONE);
+    assertThat(compression.compress("P", 1000).toString(), is("P"));
+  }
+
+  /**
+   * Tests that automatic compression only kicks in at the threshold.
+   */
+  @Test
+  void testCompress_auto() {
+    compression.setMode(Mode.AUTO);
+    compression.setThreshold(4);
+    assertThat(compression.compress("P", 3).toString(), is("P"));
+    assertThat(compression.compress("P", 4).toString(), is("sbisim(P)"));
+  }
+
+  /**
+   * Tests that explicit modes compress regardless of size.
+   */
+  @Test
+  void testCompress_explicit() {
+    compression.setMode(Mode.DBISIM);
+    assertThat(compression.compress("P", 0).toString(), is("dbisim(P)"));
+  }
+
+  /**
+   * Tests that normal applies to sequences only checked in the timed model.
+   */
+  @Test
+  void testEffectiveMode_normalTimed() {
+    compression.setMode(Mode.NORMAL);
+    final var seq = checked(SemanticModel.TIMED);
+
+    final var mode = compression.effectiveMode(seq);
+    assertThat(mode, is(Mode.NORMAL));
+    assertThat(compression.compress(mode, "P", 0).toString(), is("normal(P)"));
+  }
+
+  /**
+   * Tests that normal falls back to sbisim for sequences checked under tau priority, and for
+   * sequences with no visible checks.
+   */
+  @Test
+  void testEffectiveMode_normalFallback() {
+    compression.setMode(Mode.NORMAL);
+
+    assertThat(compression.effectiveMode(checked(SemanticModel.TIMED, SemanticModel.TRACES)),
+        is(Mode.SBISIM));
+    assertThat(compression.effectiveMode(checked()), is(Mode.SBISIM));
+    assertThat(compression.compress("P", 0).toString(), is("sbisim(P)"));
+  }
+
+  /**
+   * Tests that modes other than normal are unaffected by how sequences are checked.
+   */
+  @Test
+  void testEffectiveMode_other() {
+    compression.setMode(Mode.DBISIM);
+    assertThat(compression.effectiveMode(checked(SemanticModel.TRACES)), is(Mode.DBISIM));
+  }
+
+  /**
+   * Tests that normal only becomes transparent when it is in use.
+   */
+  @Test
+  void testTransparentFunctions() {
+    assertThat(compression.transparentFunctions().toList(), contains("sbisim", "dbisim"));
+    compression.setMode(Mode.NORMAL);
+    assertThat(compression.transparentFunctions().toList(), hasItem("normal"));
+  }
+
+  /**
+   * Builds a sequence in a resource set, with one 'holds' assertion per given model.
+   */
+  private Interaction checked(SemanticModel... models) {
+    final var seq = rf.createInteraction();
+    seq.setName("S");
+    final var group = rf.createSpecificationGroup();
+    group.setName("G");
+    group.getInteractions().add(seq);
+
+    final var assertions = rf.createAssertionGroup();
+    for (var m : models) {
+      final var prop = rf.createSequenceProperty();
+      prop.setInteraction(seq);
+      prop.setType(SequencePropertyType.HOLDS);
+      prop.setModel(m);
+      final var assertion = rf.createAssertion();
+      assertion.setName("A" + assertions.getAssertions().size());
+      assertion.setProperty(prop);
+      assertions.getAssertions().add(assertion);
+    }
+
+    final var pkg = rf.createCertPackage();
+    pkg.getGroups().add(group);
+    pkg.getGroups().add(assertions);
+    final var res = new ResourceImpl(URI.createURI("test.rcert"));
+    res.getContents().add(pkg);
+    new ResourceSetImpl().getResources().add(res);
+    return seq;
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.generator.tockcsp.seq;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.CertPackage;
+import robostar.robocert.textual.generator.tockcsp.CertPackageGenerator;
+import robostar.robocert.textual.generator.tockcsp.seq.CompressionStrategy;
+import robostar.robocert.textual.generator.tockcsp.seq.CompressionStrategy.Mode;
+import robostar.robocert.textual.tests.ParseTestHelper;
+import robostar.robocert.textual.tests.examples.Workload;
+import robostar.robocert.textual.tests.examples.WorkloadGenerator;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests the compression of multi-lifeline interactions by the tock-CSP interaction generator.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class InteractionGeneratorTest {
+
+  /**
+   * Two lifelines, so that the interaction needs a parallel coordinator, and no fragments.
+   */
+  private static final Workload WORKLOAD = new Workload(2, 2, 4, 0, 0);
+
+  @Inject
+  private CertPackageGenerator gen;
+  @Inject
+  private CompressionStrategy compression;
+  @Inject
+  private WorkloadGenerator workloads;
+  @Inject
+  private ParseTestHelper pt;
+  @Inject
+  private Provider<XtextResourceSet> sets;
+
+  @AfterEach
+  void tearDown() {
+    compression.setMode(Mode.AUTO);
+  }
+
+  /**
+   * Tests that the parallel composition of the lifelines is compressed along with the lifelines.
+   */
+  @Test
+  void testGenerate_compressesCoordinator() throws IOException {
+    compression.setMode(Mode.DBISIM);
+    assertThat(generate(), containsString("dbisim(|| x: "));
+  }
+
+  /**
+   * Tests that the parallel composition of the lifelines is left alone when compression is off.
+   */
+  @Test
+  void testGenerate_uncompressedCoordinator() throws IOException {
+    compression.setMode(Mode.NONE);
+    final var out = generate();
+    assertThat(out, not(containsString("dbisim(")));
+    assertThat(out, not(containsString("sbisim(")));
+  }
+
+  private String generate() throws IOException {
+    final var set = sets.get();
+    pt.addCoreTypes(set);
+    load(set, "workload.rct", workloads.robochart(WORKLOAD));
+    final var rcert = load(set, "workload.rcert", workloads.robocert(WORKLOAD));
+    EcoreUtil.resolveAll(set);
+    return gen.generate((CertPackage) rcert.getContents().get(0)).toString();
+  }
+
+  private static Resource load(ResourceSet set, String name, String source) throws IOException {
+    final var res = set.createResource(URI.createURI("workload/" + name));
+    res.load(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)), null);
+    return res;
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.generator.tockcsp.seq.interaction;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import com.google.inject.Inject;
+import java.util.List;
+import java.util.Optional;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.textual.generator.intf.seq.context.ActorContext;
+import robostar.robocert.textual.generator.intf.seq.context.InteractionContext;
+import robostar.robocert.textual.generator.intf.seq.context.Synchronisation;
+import robostar.robocert.textual.generator.tockcsp.seq.interaction.PrefixFlattener;
+import robostar.robocert.Actor;
+import robostar.robocert.InteractionFragment;
+import robostar.robocert.Occurrence;
+import robostar.robocert.ParFragment;
+import robostar.robocert.RoboCertFactory;
+import robostar.robocert.Temperature;
+import robostar.robocert.UntilFragment;
+import robostar.robocert.util.MessageFactory;
+import robostar.robocert.util.ValueSpecificationFactory;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link PrefixFlattener} and the flatness analysis on {@link InteractionContext}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class PrefixFlattenerTest {
+  @Inject private PrefixFlattener flattener;
+  @Inject private RoboCertFactory rc;
+  @Inject private MessageFactory mf;
+  @Inject private robostar.robocert.textual.tests.util.MessageFactory msf;
+  @Inject private ValueSpecificationFactory vf;
+
+  private List<Actor> actors;
+  private InteractionContext ictx;
+  private ActorContext ctx;
+
+  @BeforeEach
+  void setUp() {
+    actors = msf.group().getActors();
+    ictx = context(List.of(actors.get(0)));
+    ctx = new ActorContext(ictx, actors.get(0), "a");
+  }
+
+  /** Tests that hot messages flatten into one prefix chain. */
+  @Test
+  void testFlatten_hot() {
+    final var frags = List.of(message(1, Temperature.HOT), message(2, Temperature.HOT));
+    assertThat(flattener.flatten(frags, ctx).map(CharSequence::toString),
+        is(Optional.of("test::event.out.1 -> test::event.out.2 -> SKIP")));
+  }
+
+  /** Tests that a trailing deadlock ends the chain. */
+  @Test
+  void testFlatten_deadlock() {
+    final var frags = List.of(message(1, Temperature.HOT), fragment(rc.createDeadlockOccurrence()));
+    assertThat(flattener.flatten(frags, ctx).map(CharSequence::toString),
+        is(Optional.of("test::event.out.1 -> STOP")));
+  }
+
+  /** Tests that cold messages are left to the general generator. */
+  @Test
+  void testFlatten_cold() {
+    final var frags = List.of(message(1, Temperature.COLD));
+    assertThat(flattener.flatten(frags, ctx), is(Optional.empty()));
+  }
+
+  /** Tests that only single-lifeline interactions are flat. */
+  @Test
+  void testIsFlat() {
+    assertThat(ictx.isFlat(), is(true));
+    assertThat(context(actors).isFlat(), is(false));
+  }
+
+  private InteractionContext context(List<Actor> lifelines) {
+    final var untils = new Synchronisation<UntilFragment>(List.of(), "until", "until");
+    final var pars = new Synchronisation<ParFragment>(List.of(), "par", "par");
+    return new InteractionContext(rc.createInteraction(), lifelines, untils, pars);
+  }
+
+  private InteractionFragment message(int arg, Temperature temp) {
+    final var occ = rc.createMessageOccurrence();
+    occ.setMessage(
+        mf.spec(actors.get(0), actors.get(1), mf.eventTopic(msf.intEvent()), vf.integer(arg)));
+    occ.setTemperature(temp);
+    return fragment(occ);
+  }
+
+  private InteractionFragment fragment(Occurrence occ) {
+    final var frag = rc.createOccurrenceFragment();
+    frag.setOccurrence(occ);
+    return frag;
+  }
+}
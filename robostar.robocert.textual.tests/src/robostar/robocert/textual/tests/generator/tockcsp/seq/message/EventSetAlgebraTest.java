@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.generator.tockcsp.seq.message;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+import com.google.inject.Inject;
+import java.util.List;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.textual.generator.tockcsp.seq.message.EventSetAlgebra;
+import robostar.robocert.Actor;
+import robostar.robocert.Message;
+import robostar.robocert.ValueSpecification;
+import robostar.robocert.util.MessageFactory;
+import robostar.robocert.util.SetFactory;
+import robostar.robocert.util.ValueSpecificationFactory;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests generation-time set algebra.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class EventSetAlgebraTest {
+  @Inject private EventSetAlgebra algebra;
+  @Inject private MessageFactory mf;
+  @Inject private robostar.robocert.textual.tests.util.MessageFactory msf;
+  @Inject private SetFactory sf;
+  @Inject private ValueSpecificationFactory vf;
+
+  private List<Actor> actors;
+
+  @BeforeEach
+  void setUp() {
+    actors = msf.group().getActors();
+  }
+
+  /** Tests that a difference between concrete messages is worked out during generation. */
+  @Test
+  void testDiff_concrete() {
+    final var set = sf.extensional(List.of(spec(vf.integer(42)), spec(vf.integer(56))));
+    msf.setupAsGap(set);
+
+    assertThat(algebra.diff(set, List.of(spec(vf.integer(42)))).toString(),
+        is("{ test::event.out.56 }"));
+  }
+
+  /** Tests that removing everything from a concrete set leaves the empty set. */
+  @Test
+  void testDiff_concreteToEmpty() {
+    final var set = sf.singleton(spec(vf.integer(42)));
+    msf.setupAsGap(set);
+
+    assertThat(algebra.diff(set, List.of(spec(vf.integer(42)))).toString(), is("{}"));
+  }
+
+  /** Tests that differences involving wildcards are left to FDR. */
+  @Test
+  void testDiff_wildcard() {
+    final var set = sf.singleton(spec(vf.wildcard()));
+    msf.setupAsGap(set);
+
+    final var result = algebra.diff(set, List.of(spec(vf.integer(42)))).toString();
+    assertThat(result, startsWith("diff({ test::event.out.Bnd__0 | Bnd__0 <- "));
+    assertThat(result, endsWith("}, {| test::event.out.42 |})"));
+  }
+
+  /** Tests that subtracting nothing doesn't generate a difference at all. */
+  @Test
+  void testDiff_emptyInitial() {
+    final var set = sf.singleton(spec(vf.integer(42)));
+    msf.setupAsGap(set);
+
+    assertThat(algebra.diff(set, List.of()).toString(), is("{| test::event.out.42 |}"));
+  }
+
+  private Message spec(ValueSpecification arg) {
+    return mf.spec(actors.get(0), actors.get(1), mf.eventTopic(msf.intEvent()), arg);
+  }
+}
@@ -28,6 +28,7 @@ import robostar.robocert.RoboCertFactory;
 import robostar.robocert.TargetActor;
 import robostar.robocert.World;
 import robostar.robocert.util.EventFactory;
+import robostar.robocert.util.ExpressionFactory;
 import robostar.robocert.util.MessageFactory;
 import robostar.robocert.util.TargetFactory;
 import robostar.robocert.util.ValueSpecificationFactory;
@@ -56,6 +57,8 @@ public class MessageGeneratorTest {
   private TargetFactory targetFactory;
   @Inject
   private EventFactory eventFactory;
+  @Inject
+  private ExpressionFactory ef;
 
   private World world;
   private TargetActor target;
@@ -143,6 +146,25 @@ public class MessageGeneratorTest {
         generatesCSPEventSet("{ test::event.in.Bnd__0 | Bnd__0 <- core_int }"));
   }
 
+  /**
+   * Tests event set generation of an arrow message set concerning an integer event against an
+   * argument list containing a wildcard bound to a variable with a narrowed domain.
+   */
+  @Test
+  void generateCSPEventSetIntEventArrowWithNarrowedBinding() {
+    final var x = vf.binding("A");
+    final var domain = rchart.createSetExp();
+    domain.getValues().addAll(List.of(ef.integer(1), ef.integer(2)));
+    x.setInitial(domain);
+
+    final var xs = rchart.createVariableList();
+    xs.getVars().add(x);
+    rcert.createInteraction().setVariables(xs);
+
+    assertThat(mf.spec(world, target, mf.eventTopic(event), vf.bound(x)),
+        generatesCSPEventSet("{ test::event.in.Bnd__A | Bnd__A <- {1, 2} }"));
+  }
+
   /**
    * Tests event set generation of an arrow message set concerning an integer event against an
    * argument list containing an integer argument only.
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.generator.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.Interaction;
+import robostar.robocert.Message;
+import robostar.robocert.RoboCertFactory;
+import robostar.robocert.UntilFragment;
+import robostar.robocert.textual.generator.utils.ContentsIndex;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link ContentsIndex}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class ContentsIndexTest {
+  @Inject private ContentsIndex index;
+  @Inject private RoboCertFactory rf;
+  @Inject private Provider<XtextResourceSet> setProvider;
+
+  /**
+   * Tests that lookups find nested objects, in order, both with and without a resource.
+   */
+  @Test
+  void testAllOfType_nested() {
+    final var seq = rf.createInteraction();
+    final var msg1 = addMessage(seq);
+    final var msg2 = addMessage(seq);
+
+    assertThat(index.allOfType(seq, Message.class), contains(msg1, msg2));
+
+    setProvider.get().createResource(URI.createURI("test.rcert")).getContents().add(seq);
+    assertThat(index.allOfType(seq, Message.class), contains(msg1, msg2));
+    assertThat(index.allOfType(seq, UntilFragment.class), is(empty()));
+  }
+
+  /**
+   * Tests that changing the resource invalidates the index.
+   */
+  @Test
+  void testAllOfType_invalidation() {
+    final var seq = rf.createInteraction();
+    setProvider.get().createResource(URI.createURI("test.rcert")).getContents().add(seq);
+    final var msg1 = addMessage(seq);
+    assertThat(index.allOfType(seq, Message.class), contains(msg1));
+
+    final var msg2 = addMessage(seq);
+    assertThat(index.allOfType(seq, Message.class), contains(msg1, msg2));
+  }
+
+  private Message addMessage(Interaction seq) {
+    final var msg = rf.createMessage();
+    final var occ = rf.createMessageOccurrence();
+    occ.setMessage(msg);
+    final var frag = rf.createOccurrenceFragment();
+    frag.setOccurrence(occ);
+    seq.getFragments().add(frag);
+    return msg;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.generator.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import robostar.robocert.textual.generator.utils.ExecutionStrategy;
+
+/**
+ * Tests {@link ExecutionStrategy}.
+ *
+ * @author Matt Windsor
+ */
+class ExecutionStrategyTest {
+  private static final List<Integer> INPUT = IntStream.range(0, 100).boxed().toList();
+
+  private ExecutionStrategy exec;
+
+  @BeforeEach
+  void setUp() {
+    exec = new ExecutionStrategy();
+    exec.setParallelism(4);
+    exec.setThreshold(8);
+  }
+
+  /**
+   * Tests that parallel maps keep the input order.
+   */
+  @Test
+  void testMap_order() {
+    assertThat(exec.map(INPUT, x -> x * 2), is(INPUT.stream().map(x -> x * 2).toList()));
+  }
+
+  /**
+   * Tests that lists below the threshold are mapped on the calling thread.
+   */
+  @Test
+  void testMap_belowThreshold() {
+    final var caller = Thread.currentThread();
+    assertThat(exec.map(INPUT.subList(0, 7), x -> Thread.currentThread()),
+        everyItem(sameInstance(caller)));
+  }
+
+  /**
+   * Tests that a sequential strategy maps everything on the calling thread.
+   */
+  @Test
+  void testMap_sequential() {
+    exec.setParallelism(1);
+
+    final var caller = Thread.currentThread();
+    assertThat(exec.map(INPUT, x -> Thread.currentThread()), everyItem(sameInstance(caller)));
+  }
+
+  /**
+   * Tests that changing the parallelism lets work already on the old pool finish, and that new
+   * work then goes to a new pool.
+   */
+  @Test
+  void testSetParallelism_inFlight() throws Exception {
+    final var expected = INPUT.stream().map(x -> x * 2).toList();
+    final var started = new CountDownLatch(1);
+    final var swapped = new CountDownLatch(1);
+
+    final var caller = Executors.newSingleThreadExecutor();
+    try {
+      final var result = caller.submit(() -> exec.map(INPUT, x -> {
+        started.countDown();
+        await(swapped);
+        return x * 2;
+      }));
+
+      started.await();
+      exec.setParallelism(2);
+      swapped.countDown();
+
+      assertThat(result.get(10, TimeUnit.SECONDS), is(expected));
+      assertThat(exec.map(INPUT, x -> x * 2), is(expected));
+    } finally {
+      caller.shutdownNow();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.generator.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.inject.Inject;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.xtext.generator.GeneratorContext;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.RoboCertFactory;
+import robostar.robocert.textual.generator.tockcsp.core.group.CSPGroupGenerator;
+import robostar.robocert.textual.generator.utils.GeneratorUtil;
+import robostar.robocert.textual.generator.utils.ProgressGeneratorContext;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link GeneratorUtil}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class GeneratorUtilTest {
+  @Inject private CSPGroupGenerator cg;
+  @Inject private RoboCertFactory rf;
+
+  /**
+   * Tests that the monitor for a plain context follows its cancel indicator.
+   */
+  @Test
+  void testMonitor_cancelIndicator() {
+    final var cancelled = new AtomicBoolean(false);
+    final var ctx = new GeneratorContext();
+    ctx.setCancelIndicator(cancelled::get);
+
+    final var monitor = GeneratorUtil.monitor(ctx);
+    assertFalse(monitor.isCanceled());
+
+    cancelled.set(true);
+    assertTrue(monitor.isCanceled());
+  }
+
+  /**
+   * Tests that the monitor for a progress context also follows the context's own monitor.
+   */
+  @Test
+  void testMonitor_progressContext() {
+    final var inner = new NullProgressMonitor();
+    final var ctx = new ProgressGeneratorContext();
+    ctx.setCancelIndicator(() -> false);
+    ctx.setProgressMonitor(inner);
+
+    final var monitor = GeneratorUtil.monitor(ctx);
+    assertFalse(monitor.isCanceled());
+
+    inner.setCanceled(true);
+    assertTrue(monitor.isCanceled());
+  }
+
+  /**
+   * Tests that cancelling a progress context partway through a group stops generating it.
+   */
+  @Test
+  void testMonitor_cancelMidGroup() {
+    final var group = rf.createCSPGroup();
+    group.setCsp("P = STOP");
+
+    // Cancels as soon as the first piece of work in the group is reported.
+    final var inner = new NullProgressMonitor() {
+      @Override
+      public void worked(int work) {
+        setCanceled(true);
+      }
+
+      @Override
+      public void internalWorked(double work) {
+        setCanceled(true);
+      }
+    };
+    final var ctx = new ProgressGeneratorContext();
+    ctx.setCancelIndicator(() -> false);
+    ctx.setProgressMonitor(inner);
+
+    final var monitor = GeneratorUtil.monitor(ctx);
+    assertThrows(OperationCanceledException.class, () -> cg.generate(group, monitor));
+    assertTrue(monitor.isCanceled());
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.generator.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import com.google.inject.Inject;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.CertPackage;
+import robostar.robocert.Group;
+import robostar.robocert.textual.generator.utils.GroupDependencies;
+import robostar.robocert.textual.tests.ParseTestHelper;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link GroupDependencies}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class GroupDependenciesTest {
+
+  private static final String GROUPS = """
+      specification group X {
+        target = module Mod
+      }
+      specification group Y {
+        target = module Mod
+      }
+      """;
+
+  @Inject
+  private GroupDependencies deps;
+
+  @Inject
+  private ParseTestHelper parse;
+
+  /**
+   * Tests that an assertion group only needs the groups its assertions mention.
+   */
+  @Test
+  void testClosure_referenced() {
+    final var pkg = parse.parse(GROUPS + "assertion A: target of X is deadlock-free\n");
+    assertThat(deps.closure(group(pkg, 2)), contains(group(pkg, 0), group(pkg, 2)));
+  }
+
+  /**
+   * Tests that a CSP property forces its group to need the whole package.
+   */
+  @Test
+  void testClosure_csp() {
+    final var pkg = parse.parse(
+        GROUPS + "assertion A: csp negated <$ assert STOP [T= STOP $>\n");
+    assertThat(deps.closure(group(pkg, 2)),
+        contains(group(pkg, 0), group(pkg, 1), group(pkg, 2)));
+  }
+
+  /**
+   * Tests that unreferenced groups only need themselves.
+   */
+  @Test
+  void testClosure_alone() {
+    final var pkg = parse.parse(GROUPS);
+    assertThat(deps.closure(group(pkg, 1)), contains(group(pkg, 1)));
+  }
+
+  /**
+   * Tests that only groups with CSP text in them are opaque.
+   */
+  @Test
+  void testIsOpaque() {
+    final var pkg = parse.parse(GROUPS + """
+        assertion A: target of X is deadlock-free
+        assertion B: csp negated <$ assert STOP [T= STOP $>
+        """);
+    assertThat(deps.isOpaque(group(pkg, 0)), is(false));
+    assertThat(deps.isOpaque(group(pkg, 2)), is(false));
+    assertThat(deps.isOpaque(group(pkg, 3)), is(true));
+  }
+
+  private Group group(CertPackage pkg, int index) {
+    return pkg.getGroups().get(index);
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.generator.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import circus.robocalc.robochart.RCPackage;
+import circus.robocalc.robochart.RoboChartFactory;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.CertPackage;
+import robostar.robocert.RoboCertFactory;
+import robostar.robocert.textual.generator.utils.PackageIndex;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link PackageIndex}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class PackageIndexTest {
+  @Inject private RoboCertFactory rf;
+  @Inject private RoboChartFactory cf;
+  @Inject private Provider<XtextResourceSet> setProvider;
+
+  /**
+   * Tests that the index is attached once per resource set.
+   */
+  @Test
+  void testOf_sameInstance() {
+    final var set = setProvider.get();
+    assertThat(PackageIndex.of(set), is(sameInstance(PackageIndex.of(set))));
+  }
+
+  /**
+   * Tests that packages are found by type and anonymity.
+   */
+  @Test
+  void testPackages_byTypeAndAnonymity() {
+    final var set = setProvider.get();
+
+    final var named = cf.createRCPackage();
+    named.setName("named");
+    final var anon = cf.createRCPackage();
+    final var cert = rf.createCertPackage();
+
+    set.createResource(URI.createURI("named.rct")).getContents().add(named);
+    set.createResource(URI.createURI("anon.rct")).getContents().add(anon);
+    set.createResource(URI.createURI("cert.rcert")).getContents().add(cert);
+
+    final var idx = PackageIndex.of(set);
+    assertThat(idx.packages(RCPackage.class), contains(named, anon));
+    assertThat(idx.anonymousPackages(RCPackage.class), contains(anon));
+    assertThat(idx.packages(CertPackage.class), contains(cert));
+  }
+
+  /**
+   * Tests that the index notices resources being added and their contents changing.
+   */
+  @Test
+  void testPackages_invalidation() {
+    final var set = setProvider.get();
+    final var idx = PackageIndex.of(set);
+    assertThat(idx.packages(CertPackage.class), is(empty()));
+
+    final var res = set.createResource(URI.createURI("cert.rcert"));
+    assertThat(idx.packages(CertPackage.class), is(empty()));
+
+    final var cert = rf.createCertPackage();
+    res.getContents().add(cert);
+    assertThat(idx.packages(CertPackage.class), contains(cert));
+
+    res.getContents().clear();
+    assertThat(idx.packages(CertPackage.class), is(empty()));
+  }
+
+  /**
+   * Tests that each indexed resource gets a listener of its own, and that the listener is detached
+   * once the resource leaves the set.
+   */
+  @Test
+  void testPackages_listenerPerResource() {
+    final var set = setProvider.get();
+    final var a = set.createResource(URI.createURI("a.rcert"));
+    final var b = set.createResource(URI.createURI("b.rcert"));
+    a.getContents().add(rf.createCertPackage());
+    b.getContents().add(rf.createCertPackage());
+
+    final var idx = PackageIndex.of(set);
+    assertThat(idx.packages(CertPackage.class), hasSize(2));
+    assertThat(a.eAdapters(), hasSize(1));
+    assertThat(b.eAdapters(), hasSize(1));
+    assertThat(a.eAdapters().get(0).getTarget(), is(sameInstance(a)));
+    assertThat(b.eAdapters().get(0).getTarget(), is(sameInstance(b)));
+
+    set.getResources().remove(a);
+    assertThat(a.eAdapters(), is(empty()));
+    assertThat(b.eAdapters(), hasSize(1));
+    assertThat(idx.packages(CertPackage.class), contains(b.getContents().get(0)));
+
+    // Changes to a resource that has left the set no longer reach the index.
+    a.getContents().clear();
+    assertThat(idx.packages(CertPackage.class), contains(b.getContents().get(0)));
+  }
+
+  /**
+   * Tests that a resource notifying the index while it is being indexed doesn't break the index.
+   */
+  @Test
+  void testPackages_notifyDuringIndexing() {
+    final var set = setProvider.get();
+    final var res = new LoadOnReadResource(URI.createURI("cert.rcert"));
+    final var cert = rf.createCertPackage();
+    res.getContents().add(cert);
+    res.reset();
+    set.getResources().add(res);
+
+    final var idx = PackageIndex.of(set);
+    assertThat(idx.packages(CertPackage.class), contains(cert));
+    assertThat(idx.packages(CertPackage.class), contains(cert));
+  }
+
+  /**
+   * Resource that announces it has been loaded the first time its contents are read, much like a
+   * resource being demand-loaded.
+   */
+  private static class LoadOnReadResource extends ResourceImpl {
+    private boolean announced = true;
+
+    LoadOnReadResource(URI uri) {
+      super(uri);
+    }
+
+    void reset() {
+      announced = false;
+    }
+
+    @Override
+    public EList<EObject> getContents() {
+      if (!announced) {
+        announced = true;
+        isLoaded = false;
+        final var n = setLoaded(true);
+        if (n != null) {
+          eNotify(n);
+        }
+      }
+      return super.getContents();
+    }
+  }
+}
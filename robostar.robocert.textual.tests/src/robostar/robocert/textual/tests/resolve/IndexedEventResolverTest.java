@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.resolve;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import circus.robocalc.robochart.Connection;
+import circus.robocalc.robochart.Event;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import java.util.List;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.Actor;
+import robostar.robocert.RoboCertFactory;
+import robostar.robocert.TargetActor;
+import robostar.robocert.World;
+import robostar.robocert.textual.resolve.IndexedEventResolver;
+import robostar.robocert.textual.tests.RoboCertInjectorProvider;
+import robostar.robocert.textual.tests.util.resolvers.ForagingExample;
+import robostar.robocert.util.MessageFactory;
+import robostar.robocert.util.TargetFactory;
+
+/**
+ * Tests that {@link IndexedEventResolver} agrees with the underlying resolver when its lookup
+ * table is in use.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertInjectorProvider.class)
+class IndexedEventResolverTest {
+
+  @Inject
+  private IndexedEventResolver resolver;
+  @Inject
+  private ForagingExample example;
+  @Inject
+  private RoboCertFactory certFactory;
+  @Inject
+  private MessageFactory msgFactory;
+  @Inject
+  private TargetFactory targetFactory;
+  @Inject
+  private Provider<XtextResourceSet> setProvider;
+
+  private World world;
+  private TargetActor target;
+
+  @BeforeEach
+  void setUp() {
+    world = certFactory.createWorld();
+    target = certFactory.createTargetActor();
+
+    final var group = certFactory.createSpecificationGroup();
+    group.setName("Grp");
+    group.setTarget(targetFactory.module(example.foraging));
+    group.getActors().add(world);
+    group.getActors().add(target);
+
+    final var res = setProvider.get().createResource(URI.createURI("test.rcert"));
+    res.getContents().add(group);
+  }
+
+  /**
+   * Tests that repeated lookups of the same key give the same connections.
+   */
+  @Test
+  void testResolve_repeated() {
+    final var expected = List.of(example.obstaclePlatformToObstacleAvoidance);
+
+    assertThat(resolve(example.platformObstacle, example.obstacleAvoidanceObstacle, world, target),
+        contains(expected.toArray()));
+    assertThat(resolve(example.platformObstacle, example.obstacleAvoidanceObstacle, world, target),
+        contains(expected.toArray()));
+  }
+
+  /**
+   * Tests that keys differing only in direction are not conflated.
+   */
+  @Test
+  void testResolve_direction() {
+    assertThat(resolve(example.platformObstacle, example.obstacleAvoidanceObstacle, world, target),
+        contains(example.obstaclePlatformToObstacleAvoidance));
+    assertThat(resolve(example.obstacleAvoidanceObstacle, example.platformObstacle, target, world),
+        is(empty()));
+  }
+
+  private List<Connection> resolve(Event efrom, Event eto, Actor from, Actor to) {
+    final var topic = msgFactory.eventTopic(efrom, eto);
+    return resolver.resolve(topic, from, to).toList();
+  }
+}
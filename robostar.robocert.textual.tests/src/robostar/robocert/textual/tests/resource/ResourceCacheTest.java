@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.tests.resource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.diagnostics.Severity;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.validation.CheckMode;
+import org.eclipse.xtext.validation.IResourceValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import robostar.robocert.CertPackage;
+import robostar.robocert.ModuleTarget;
+import robostar.robocert.textual.generator.ResourceLoader;
+import robostar.robocert.textual.resource.CachingResource;
+import robostar.robocert.textual.resource.ResourceCache;
+import robostar.robocert.textual.tests.ParseTestHelper;
+import robostar.robocert.textual.tests.util.RoboCertCustomInjectorProvider;
+
+/**
+ * Tests {@link ResourceCache} and {@link CachingResource}.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertCustomInjectorProvider.class)
+class ResourceCacheTest {
+
+  @TempDir
+  Path root;
+
+  @Inject
+  private ResourceCache cache;
+
+  @Inject
+  private Provider<ResourceSet> sets;
+
+  @Inject
+  private ParseTestHelper parse;
+
+  @Inject
+  private ResourceLoader loader;
+
+  @Inject
+  private IResourceValidator validator;
+
+  @BeforeEach
+  void setUp() {
+    cache.setDirectory(root.resolve("cache"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    // The cache is a singleton, so don't leak its settings into other tests.
+    cache.setDirectory(null);
+    cache.setLimit(ResourceCache.DEFAULT_LIMIT);
+  }
+
+  /**
+   * Tests that the second load of an unchanged file comes from the cache.
+   */
+  @Test
+  void testLoad_hit() throws IOException {
+    final var uri = write("a.rcert", parse.liftSubsequence("T->>W: op Z(1)"));
+
+    assertThat(load(uri).isLoadedFromStorage(), is(false));
+    assertThat(entries(), hasSize(1));
+
+    final var cached = load(uri);
+    assertThat(cached.isLoadedFromStorage(), is(true));
+    assertThat(cached.getErrors(), is(empty()));
+    assertThat(cached.getContents().get(0), instanceOf(CertPackage.class));
+    assertThat(((CertPackage) cached.getContents().get(0)).getGroups(), hasSize(1));
+  }
+
+  /**
+   * Tests that changing a file misses the cache.
+   */
+  @Test
+  void testLoad_changed() throws IOException {
+    final var uri = write("a.rcert", parse.liftSubsequence("T->>W: op Z(1)"));
+    load(uri);
+
+    write("a.rcert", parse.liftSubsequence("T->>W: op Z(2)"));
+    assertThat(load(uri).isLoadedFromStorage(), is(false));
+    assertThat(entries(), hasSize(2));
+  }
+
+  /**
+   * Tests that moving a file misses the cache, as its entry holds proxies relative to the old
+   * location.
+   */
+  @Test
+  void testLoad_moved() throws IOException {
+    final var body = parse.liftSubsequence("T->>W: op Z(1)");
+    load(write("a.rcert", body));
+
+    assertThat(load(write("b.rcert", body)).isLoadedFromStorage(), is(false));
+    assertThat(entries(), hasSize(2));
+  }
+
+  /**
+   * Tests that a file links against other files, and validates, both when it misses the cache (and
+   * so is stored) and when it is restored from the cache.
+   */
+  @Test
+  void testLoad_crossResource() throws IOException {
+    final var rct = write("module.rct", """
+        module Mod {
+          robotic platform RP {
+            event e
+          }
+        }
+        """);
+    final var rcert = write("spec.rcert", """
+        specification group X {
+          target = module Mod
+          actors = {target as T, world as W}
+          sequence Y {
+            actors T and W
+            W->>T: event e
+          }
+        }
+        """);
+    final var uris = List.of(rct, rcert);
+
+    final var cold = loader.load(sets.get(), uris);
+    assertThat(((StorageAwareResource) cold.get(1)).isLoadedFromStorage(), is(false));
+    assertLinksAndValidates(cold);
+
+    final var warm = loader.load(sets.get(), uris);
+    assertThat(warm.get(1), instanceOf(CachingResource.class));
+    assertThat(((StorageAwareResource) warm.get(1)).isLoadedFromStorage(), is(true));
+    assertLinksAndValidates(warm);
+  }
+
+  /**
+   * Asserts that a loaded RoboCert resource links against a loaded RoboChart resource, and has no
+   * errors.
+   *
+   * @param resources the RoboChart resource, then the RoboCert resource.
+   */
+  private void assertLinksAndValidates(List<Resource> resources) {
+    final var rcert = resources.get(1);
+    assertThat(rcert.getErrors(), is(empty()));
+
+    final var pkg = (CertPackage) rcert.getContents().get(0);
+    final var target = (ModuleTarget) pkg.getGroups().get(0).getTarget();
+    assertThat(target.getModule().eIsProxy(), is(false));
+    assertThat(target.getModule().eResource(), is(resources.get(0)));
+
+    final var issues = validator.validate(rcert, CheckMode.ALL, CancelIndicator.NullImpl);
+    assertThat(issues.stream().filter(i -> i.getSeverity() == Severity.ERROR).toList(),
+        is(empty()));
+  }
+
+  /**
+   * Tests that pruning evicts the least recently used entries first.
+   */
+  @Test
+  void testPrune() throws IOException {
+    load(write("a.rcert", parse.liftSubsequence("T->>W: op Z(1)")));
+    final var old = entries().get(0);
+    load(write("b.rcert", parse.liftSubsequence("T->>W: op Z(2)")));
+    final var recent = entries().stream().filter(p -> !p.equals(old)).findFirst().orElseThrow();
+    Files.setLastModifiedTime(old, FileTime.fromMillis(0));
+
+    cache.setLimit(Files.size(recent));
+    cache.prune();
+    assertThat(entries(), contains(recent));
+  }
+
+  /**
+   * Tests that files with syntax errors are not cached.
+   */
+  @Test
+  void testLoad_errors() throws IOException {
+    final var uri = write("a.rcert", "specification group {");
+
+    assertThat(load(uri).getErrors().isEmpty(), is(false));
+    assertThat(entries(), is(empty()));
+  }
+
+  private StorageAwareResource load(URI uri) {
+    final var r = sets.get().getResource(uri, true);
+    assertThat(r, instanceOf(CachingResource.class));
+    return (StorageAwareResource) r;
+  }
+
+  private List<Path> entries() throws IOException {
+    final var dir = root.resolve("cache");
+    if (!Files.isDirectory(dir)) {
+      return List.of();
+    }
+    try (var files = Files.list(dir)) {
+      return files.toList();
+    }
+  }
+
+  private URI write(String name, CharSequence body) throws IOException {
+    final var p = root.resolve(name);
+    Files.writeString(p, body);
+    return URI.createFileURI(p.toString());
+  }
+}
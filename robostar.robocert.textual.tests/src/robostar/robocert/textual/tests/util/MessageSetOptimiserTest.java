@@ -10,6 +10,7 @@
 package robostar.robocert.textual.tests.util;
 
 import java.util.List;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.xtext.testing.InjectWith;
 import org.eclipse.xtext.testing.extensions.InjectionExtension;
 
@@ -99,6 +100,18 @@ class MessageSetOptimiserTest {
 		assertThat(sf.diff(sf.universe(), single()), optimisesTo(sf.diff(sf.universe(), single())));
 	}
 
+	/**
+	 * Tests that optimisation leaves the original set alone, even when it restructures the set.
+	 */
+	@Test
+	void testOptimise_DoesNotMutate() {
+		final var set = sf.diff(sf.diff(single(), single()), sf.union(single(), single()));
+		final var before = EcoreUtil.copy(set);
+
+		opt.optimise(set);
+		assertTrue(EcoreUtil.equals(before, set));
+	}
+
 	private ExtensionalMessageSet single() {
 		return sf.extensional(List.of(rf.createMessage()));
 	}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package robostar.robocert.textual.tests.validation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+
+import circus.robocalc.robochart.RoboChartPackage.Literals;
+import circus.robocalc.robochart.Variable;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.EcoreUtil2;
+import org.eclipse.xtext.diagnostics.Severity;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.extensions.InjectionExtension;
+import org.eclipse.xtext.testing.validation.ValidationTestHelper;
+import org.eclipse.xtext.validation.Issue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import robostar.robocert.CertPackage;
+import robostar.robocert.textual.tests.ParseTestHelper;
+import robostar.robocert.textual.tests.RoboCertInjectorProvider;
+import robostar.robocert.textual.validation.seq.InteractionVariableValidator;
+
+/**
+ * Tests the validation of interaction variable domains.
+ *
+ * @author Matt Windsor
+ */
+@ExtendWith(InjectionExtension.class)
+@InjectWith(RoboCertInjectorProvider.class)
+class InteractionVariableValidatorTest {
+
+  @Inject
+  private ParseTestHelper pt;
+  @Inject
+  private ValidationTestHelper validation;
+  @Inject
+  private Provider<XtextResourceSet> sets;
+
+  /**
+   * Tests that a set literal domain whose elements fit the variable's type is accepted.
+   */
+  @Test
+  void testCheckDomain_valid() {
+    final var pkg = parse("int in {0, 1, 2}");
+    validation.assertNoError(pkg, InteractionVariableValidator.DOMAIN_IS_SET_LITERAL);
+    validation.assertNoError(pkg, InteractionVariableValidator.DOMAIN_TYPE_COMPATIBLE);
+  }
+
+  /**
+   * Tests that a variable without a domain is accepted.
+   */
+  @Test
+  void testCheckDomain_none() {
+    final var pkg = parse("int");
+    validation.assertNoError(pkg, InteractionVariableValidator.DOMAIN_IS_SET_LITERAL);
+    validation.assertNoError(pkg, InteractionVariableValidator.DOMAIN_TYPE_COMPATIBLE);
+  }
+
+  /**
+   * Tests that a domain that isn't a set literal is rejected.
+   */
+  @Test
+  void testCheckDomain_notSet() {
+    validation.assertError(parse("int in 3"), Literals.VARIABLE,
+        InteractionVariableValidator.DOMAIN_IS_SET_LITERAL);
+  }
+
+  /**
+   * Tests that a reference to a constant is rejected as a domain.
+   */
+  @Test
+  void testCheckDomain_constant() {
+    validation.assertError(parse("int in K"), Literals.VARIABLE,
+        InteractionVariableValidator.DOMAIN_IS_SET_LITERAL);
+  }
+
+  /**
+   * Tests that an empty domain is rejected.
+   */
+  @Test
+  void testCheckDomain_emptySet() {
+    validation.assertError(parse("int in {}"), Literals.VARIABLE,
+        InteractionVariableValidator.DOMAIN_IS_SET_LITERAL);
+  }
+
+  /**
+   * Tests that a domain containing elements of the wrong type is rejected.
+   */
+  @Test
+  void testCheckDomain_wrongType() {
+    validation.assertError(parse("int in {0, true}"), Literals.VARIABLE,
+        InteractionVariableValidator.DOMAIN_TYPE_COMPATIBLE);
+  }
+
+  /**
+   * Tests that no other validator (in particular RoboChart's own checks on initial values) objects
+   * to a domain sitting in the variable's initial value slot.
+   */
+  @Test
+  void testCheckDomain_noForeignErrors() {
+    final var pkg = parse("int in {0, 1, 2}");
+    final var x = EcoreUtil2.getAllContentsOfType(pkg, Variable.class).get(0);
+    final var uri = EcoreUtil.getURI(x).fragment();
+
+    final var errors = validation.validate(pkg).stream()
+        .filter(i -> i.getSeverity() == Severity.ERROR && i.getUriToProblem() != null
+            && i.getUriToProblem().fragment().startsWith(uri)).map(Issue::getMessage).toList();
+    assertThat(errors, empty());
+  }
+
+  private CertPackage parse(String varType) {
+    final var set = sets.get();
+    pt.addCoreTypes(set);
+    return pt.parse("""
+        specification group S {
+          target = module Mod
+          actors = {target as T, world as W}
+          sequence Test {
+            var x: %s
+            actors T and W
+            anything until deadlock (on T) end
+          }
+        }
+        """.formatted(varType), set);
+  }
+}
@@ -3,7 +3,11 @@
  */
 package robostar.robocert.textual.ui;
 
+import com.google.inject.Binder;
+import com.google.inject.name.Names;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
+import org.eclipse.xtext.ui.editor.preferences.IPreferenceStoreInitializer;
+import robostar.robocert.textual.ui.preferences.RoboCertPreferenceInitializer;
 
 /**
  * Use this class to register components to be used within the Eclipse IDE.
@@ -13,4 +17,15 @@ public class RoboCertUiModule extends AbstractRoboCertUiModule {
 	public RoboCertUiModule(AbstractUIPlugin plugin) {
 		super(plugin);
 	}
+
+	/**
+	 * Registers the defaults for RoboCert's own preferences.
+	 *
+	 * @param binder the binder to which we are adding the initialiser.
+	 */
+	public void configureRoboCertPreferenceInitializer(Binder binder) {
+		binder.bind(IPreferenceStoreInitializer.class)
+				.annotatedWith(Names.named("robocertPreferenceInitializer"))
+				.to(RoboCertPreferenceInitializer.class);
+	}
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.ui.preferences;
+
+import org.eclipse.xtext.ui.editor.preferences.IPreferenceStoreAccess;
+import org.eclipse.xtext.ui.editor.preferences.IPreferenceStoreInitializer;
+import org.eclipse.xtext.preferences.PreferenceKey;
+import robostar.robocert.textual.generator.BackendRegistry;
+import robostar.robocert.textual.generator.tikz.diagram.DiagramSegmenter;
+
+/**
+ * Seeds the Eclipse preference store with the defaults of RoboCert's own preferences, so that
+ * preference pages can show and restore them.
+ *
+ * @author Matt Windsor
+ */
+public class RoboCertPreferenceInitializer implements IPreferenceStoreInitializer {
+
+  @Override
+  public void initialize(IPreferenceStoreAccess access) {
+    final var store = access.getWritablePreferenceStore();
+    for (var key : new PreferenceKey[]{BackendRegistry.BACKENDS, DiagramSegmenter.MAX_ROWS}) {
+      store.setDefault(key.getId(), key.getDefaultValue());
+    }
+  }
+}
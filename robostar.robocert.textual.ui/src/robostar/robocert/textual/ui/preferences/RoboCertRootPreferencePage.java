@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.ui.preferences;
+
+import com.google.inject.Inject;
+import org.eclipse.jface.preference.IntegerFieldEditor;
+import org.eclipse.jface.preference.StringFieldEditor;
+import org.eclipse.xtext.ui.editor.preferences.LanguageRootPreferencePage;
+import robostar.robocert.textual.generator.BackendRegistry;
+import robostar.robocert.textual.generator.tikz.diagram.DiagramSegmenter;
+
+/**
+ * Root RoboCert preference (and project property) page.
+ * <p>
+ * This adds the generator settings to Xtext's root page.
+ *
+ * @author Matt Windsor
+ */
+public class RoboCertRootPreferencePage extends LanguageRootPreferencePage {
+
+  @Inject
+  private BackendRegistry backends;
+
+  @Override
+  protected void createFieldEditors() {
+    super.createFieldEditors();
+
+    final var editor = new StringFieldEditor(BackendRegistry.BACKENDS.getId(),
+        "Generator backends:", getFieldEditorParent());
+    editor.getTextControl(getFieldEditorParent()).setToolTipText(
+        "Comma-separated list of the backends to run; available backends are %s.".formatted(
+            String.join(", ", backends.names())));
+    addField(editor);
+
+    final var rows = new IntegerFieldEditor(DiagramSegmenter.MAX_ROWS.getId(),
+        "Maximum rows per TikZ diagram segment:", getFieldEditorParent());
+    rows.setValidRange(0, Integer.MAX_VALUE);
+    rows.getTextControl(getFieldEditorParent()).setToolTipText(
+        "Long diagrams are split into segments of at most this many rows; 0 disables splitting.");
+    addField(rows);
+  }
+}
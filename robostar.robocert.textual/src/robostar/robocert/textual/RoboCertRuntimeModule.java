@@ -17,11 +17,18 @@ import circus.robocalc.robochart.textual.scoping.RoboChartImportURIGlobalScopePr
 import circus.robocalc.robochart.textual.scoping.RoboChartImportedNamespaceAwareLocalScopeProvider;
 import com.google.inject.Binder;
 import com.google.inject.TypeLiteral;
+import com.google.inject.multibindings.MapBinder;
 
+import org.eclipse.xtext.generator.IGenerator2;
 import org.eclipse.xtext.generator.IOutputConfigurationProvider;
+import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.scoping.IGlobalScopeProvider;
 import org.eclipse.xtext.scoping.impl.AbstractDeclarativeScopeProvider;
+import robostar.robocert.textual.generator.BackendRegistry;
 import robostar.robocert.textual.generator.RoboCertOutputConfigurationProvider;
+import robostar.robocert.textual.generator.svg.SvgGenerator;
+import robostar.robocert.textual.generator.tikz.TikzGenerator;
+import robostar.robocert.textual.generator.tockcsp.TockCspGenerator;
 import org.eclipse.xtext.naming.IQualifiedNameConverter;
 import circus.robocalc.robochart.textual.RoboChartQualifiedNameConverter;
 import circus.robocalc.robochart.impl.RoboChartFactoryImplCustom;
@@ -42,7 +49,8 @@ import robostar.robocert.textual.generator.tockcsp.seq.SubsequenceGeneratorImpl;
 import robostar.robocert.textual.generator.tockcsp.seq.fragment.InteractionFragmentGeneratorImpl;
 import robostar.robocert.impl.RoboCertFactoryImpl;
 import robostar.robocert.util.resolve.EventResolver;
-import robostar.robocert.util.resolve.EventResolverImpl;
+import robostar.robocert.textual.resolve.IndexedEventResolver;
+import robostar.robocert.textual.resource.CachingResource;
 
 /**
  * Use this class to register components to be used at runtime / without the
@@ -52,10 +60,30 @@ import robostar.robocert.util.resolve.EventResolverImpl;
 public class RoboCertRuntimeModule extends AbstractRoboCertRuntimeModule {
 	@Override
 	public void configure(Binder binder) {
-		binder.bind(new TypeLiteral<EventResolver>() {}).to(EventResolverImpl.class); 
+		binder.bind(new TypeLiteral<EventResolver>() {}).to(IndexedEventResolver.class);
+		configureBackends(binder);
 		super.configure(binder);
 	}
+
+	/**
+	 * Registers the generator backends, in the order in which they run.
+	 *
+	 * @param binder the binder to which we are adding backends.
+	 */
+	public void configureBackends(Binder binder) {
+		final var backends = MapBinder.newMapBinder(binder, String.class, IGenerator2.class);
+		backends.addBinding(BackendRegistry.CSP).to(TockCspGenerator.class);
+		backends.addBinding(BackendRegistry.TIKZ).to(TikzGenerator.class);
+		backends.addBinding(BackendRegistry.SVG).to(SvgGenerator.class);
+	}
 	
+	/**
+	 * Binds the RoboCert resource, which can load itself from the on-disk resource cache.
+	 */
+	public Class<? extends XtextResource> bindXtextResource() {
+		return CachingResource.class;
+	}
+
 	public Class<? extends IOutputConfigurationProvider> bindIOutputConfigurationProvider() {
 		return RoboCertOutputConfigurationProvider.class;
 	}
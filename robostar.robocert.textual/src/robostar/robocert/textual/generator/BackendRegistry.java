@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.generator.IGenerator2;
+import org.eclipse.xtext.preferences.IPreferenceValuesProvider;
+import org.eclipse.xtext.preferences.PreferenceKey;
+
+/**
+ * Keeps track of the generator backends available to RoboCert, and which of them should run.
+ * <p>
+ * Backends are registered by name in the runtime module (through a Guice map binder), and are
+ * resolved through their providers every time they are selected, so each build gets backends with
+ * the same scope as their bindings rather than instances kept alive by this registry.  The
+ * selection comes from the command line if one was given, and from the {@link #BACKENDS}
+ * preference otherwise.
+ *
+ * @author Matt Windsor
+ */
+@Singleton
+public class BackendRegistry {
+
+  /**
+   * Name of the tock-CSP backend.
+   */
+  public static final String CSP = "csp";
+
+  /**
+   * Name of the TikZ backend.
+   */
+  public static final String TIKZ = "tikz";
+
+  /**
+   * Name of the SVG backend.
+   */
+  public static final String SVG = "svg";
+
+  /**
+   * Preference holding a comma-separated list of the backends to run.
+   * <p>
+   * By default, only the core backends run; others, such as {@link #SVG}, must be opted into.
+   */
+  public static final PreferenceKey BACKENDS = new PreferenceKey("robocert.backends",
+      String.join(",", CSP, TIKZ));
+
+  private final Map<String, Provider<IGenerator2>> providers;
+  private final IPreferenceValuesProvider preferences;
+  private volatile Set<String> override = null;
+
+  /**
+   * Constructs a backend registry.
+   *
+   * @param providers   providers for each backend, in registration order.
+   * @param preferences provider of preference values, used to find the default selection.
+   */
+  @Inject
+  public BackendRegistry(Map<String, Provider<IGenerator2>> providers,
+      IPreferenceValuesProvider preferences) {
+    this.providers = providers;
+    this.preferences = preferences;
+  }
+
+  /**
+   * @return the names of all registered backends, in registration order.
+   */
+  public Set<String> names() {
+    return providers.keySet();
+  }
+
+  /**
+   * Overrides the backend selection, for instance from the command line.
+   *
+   * @param names names of the backends to run, or null to fall back to preferences.
+   * @throws IllegalArgumentException if any of the names is not a registered backend.
+   */
+  public void select(Collection<String> names) {
+    if (names == null) {
+      override = null;
+      return;
+    }
+
+    final var unknown = names.stream().filter(n -> !providers.containsKey(n)).toList();
+    if (!unknown.isEmpty()) {
+      throw new IllegalArgumentException(
+          "unknown backend(s) %s; expected some of %s".formatted(unknown, names()));
+    }
+    override = Set.copyOf(names);
+  }
+
+  /**
+   * Parses and applies a comma-separated backend selection.
+   *
+   * @param names comma-separated names of the backends to run.
+   * @throws IllegalArgumentException if any of the names is not a registered backend.
+   */
+  public void selectNames(String names) {
+    select(parse(names));
+  }
+
+  /**
+   * Gets the backends that should run on a resource, resolving them through their providers.
+   *
+   * @param input the resource being generated.
+   * @return the selected backends, in registration order.
+   */
+  public List<IGenerator2> selected(Resource input) {
+    final var names = selectedNames(input);
+
+    final var result = new ArrayList<IGenerator2>(names.size());
+    for (var name : providers.keySet()) {
+      if (names.contains(name)) {
+        result.add(providers.get(name).get());
+      }
+    }
+    return result;
+  }
+
+  private Set<String> selectedNames(Resource input) {
+    final var names = override;
+    if (names != null) {
+      return names;
+    }
+    // Unknown names in preferences are ignored, as we can't usefully complain about them here.
+    final var pref = preferences.getPreferenceValues(input).getPreference(BACKENDS);
+    return Set.copyOf(parse(pref));
+  }
+
+  private static List<String> parse(String names) {
+    if (names == null) {
+      return List.of();
+    }
+    return Arrays.stream(names.split(",")).map(String::strip).filter(s -> !s.isEmpty())
+        .collect(Collectors.toUnmodifiableList());
+  }
+}
@@ -18,11 +18,16 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
@@ -30,14 +35,18 @@ import org.eclipse.xtext.diagnostics.Severity;
 import org.eclipse.xtext.generator.GeneratorContext;
 import org.eclipse.xtext.generator.GeneratorDelegate;
 import org.eclipse.xtext.generator.IOutputConfigurationProvider;
-import org.eclipse.xtext.generator.JavaIoFileSystemAccess;
 import org.eclipse.xtext.generator.OutputConfiguration;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.validation.CheckMode;
 import org.eclipse.xtext.validation.IResourceValidator;
 import org.eclipse.xtext.validation.Issue;
 import robostar.robocert.textual.RoboCertStandaloneSetup;
-import robostar.robocert.textual.generator.utils.FilenameHelper;
+import robostar.robocert.textual.generator.tikz.diagram.DiagramSegmenter;
+import robostar.robocert.textual.generator.tockcsp.OutputLayout;
+import robostar.robocert.textual.generator.utils.ExecutionStrategy;
+import robostar.robocert.textual.generator.utils.GeneratorUtil;
+import robostar.robocert.textual.generator.utils.ProgressGeneratorContext;
+import robostar.robocert.textual.resource.ResourceCache;
 
 /**
  * Command-line interface for the RoboCert generator.
@@ -57,30 +66,147 @@ public class Main {
   @Inject
   private GeneratorDelegate generator;
   @Inject
-  private JavaIoFileSystemAccess fileAccess;
-  @Inject
-  private FilenameHelper filename;
+  private MeteredFileSystemAccess fileAccess;
   @Inject
   private IOutputConfigurationProvider outputConfigurationProvider;
+  @Inject
+  private BackendRegistry backends;
+  @Inject
+  private ProjectScanner scanner;
+  @Inject
+  private ResourceLoader loader;
+  @Inject
+  private ResourceCache cache;
+  @Inject
+  private ExecutionStrategy exec;
+  @Inject
+  private Metrics metrics;
+  @Inject
+  private OutputLayout layout;
+  @Inject
+  private RebuildPlanner planner;
+  @Inject
+  private DiagramSegmenter segmenter;
+
+  private static final String USAGE = "Usage: robocert [OPTION]... PATH_TO_ROBOCHART_PROJECT\n"
+      + "Options (in any order, before or after the path): [--backends=NAME,...] [--watch] "
+      + "[--include=GLOB]... [--exclude=GLOB]... [--cache=DIR | --no-cache] [--jobs=N] "
+      + "[--metrics=FILE] [--split-csp] [--max-rows=N]";
+  private static final String BACKENDS_OPTION = "--backends=";
+  private static final String WATCH_OPTION = "--watch";
+  private static final String INCLUDE_OPTION = "--include=";
+  private static final String EXCLUDE_OPTION = "--exclude=";
+  private static final String CACHE_OPTION = "--cache=";
+  private static final String NO_CACHE_OPTION = "--no-cache";
+  private static final String JOBS_OPTION = "--jobs=";
+  private static final String METRICS_OPTION = "--metrics=";
+  private static final String SPLIT_OPTION = "--split-csp";
+  private static final String MAX_ROWS_OPTION = "--max-rows=";
+
+  private boolean watch = false;
+  private Path metricsPath = null;
 
   /**
    * Runs the command-line interface.
    *
-   * @param args the arguments (only one, the path to the project, should be given).
+   * @param args the arguments (options and the path to the project, in any order).
    */
   public static void main(String[] args) {
-    if (args.length != 1) {
-      System.err.println("Usage: robocert PATH_TO_ROBOCHART_PROJECT");
+    final var options = Arrays.stream(args).filter(Main::isOption).toList();
+    final var paths = Arrays.stream(args).filter(x -> !isOption(x)).toList();
+    if (paths.size() != 1) {
+      System.err.println(USAGE);
       System.exit(2);
     }
     final var injector = new RoboCertStandaloneSetup().createInjectorAndDoEMFRegistration();
 
     final var main = injector.getInstance(Main.class);
-    System.exit(main.runGenerator(args[0]));
+    if (!main.applyOptions(options)) {
+      System.err.println(USAGE);
+      System.exit(2);
+    }
+    System.exit(main.runGenerator(paths.get(0)));
   }
 
-  private static Resource loadResource(ResourceSet set, Path p) {
-    return set.getResource(URI.createFileURI(p.toString()), true);
+  /**
+   * All options take the form {@code --name} or {@code --name=value}, so anything else is a path.
+   *
+   * @param arg the argument to check.
+   * @return whether {@code arg} is an option.
+   */
+  private static boolean isOption(String arg) {
+    return arg.startsWith("--");
+  }
+
+  /**
+   * Applies command-line options.
+   *
+   * @param options the options, not including the project path.
+   * @return whether the options were valid.
+   */
+  protected boolean applyOptions(List<String> options) {
+    for (var option : options) {
+      if (WATCH_OPTION.equals(option)) {
+        watch = true;
+        continue;
+      }
+      if (option.startsWith(INCLUDE_OPTION)) {
+        scanner.addInclude(option.substring(INCLUDE_OPTION.length()));
+        continue;
+      }
+      if (option.startsWith(EXCLUDE_OPTION)) {
+        scanner.addExclude(option.substring(EXCLUDE_OPTION.length()));
+        continue;
+      }
+      if (option.startsWith(CACHE_OPTION)) {
+        cache.setDirectory(Path.of(option.substring(CACHE_OPTION.length())));
+        continue;
+      }
+      if (NO_CACHE_OPTION.equals(option)) {
+        cache.setDirectory(null);
+        continue;
+      }
+      if (option.startsWith(METRICS_OPTION)) {
+        metricsPath = Path.of(option.substring(METRICS_OPTION.length()));
+        metrics.setEnabled(true);
+        continue;
+      }
+      if (SPLIT_OPTION.equals(option)) {
+        layout.setSplit(true);
+        continue;
+      }
+      if (option.startsWith(MAX_ROWS_OPTION)) {
+        try {
+          segmenter.setMaxRows(Integer.parseInt(option.substring(MAX_ROWS_OPTION.length())));
+        } catch (NumberFormatException e) {
+          System.err.printf("Bad row count: %s%n", e.getMessage());
+          return false;
+        }
+        continue;
+      }
+      if (option.startsWith(JOBS_OPTION)) {
+        try {
+          exec.setParallelism(Integer.parseInt(option.substring(JOBS_OPTION.length())));
+        } catch (NumberFormatException e) {
+          System.err.printf("Bad job count: %s%n", e.getMessage());
+          return false;
+        }
+        continue;
+      }
+
+      if (!option.startsWith(BACKENDS_OPTION)) {
+        System.err.printf("Unknown option: %s%n", option);
+        return false;
+      }
+
+      try {
+        backends.selectNames(option.substring(BACKENDS_OPTION.length()));
+      } catch (IllegalArgumentException e) {
+        System.err.printf("Bad backend selection: %s%n", e.getMessage());
+        return false;
+      }
+    }
+    return true;
   }
 
   //
@@ -91,7 +217,8 @@ public class Main {
    * Runs the generator.
    *
    * @param string unparsed path to the project to generate.
-   * @return exit code (0 for success, 1 for failure).
+   * @return exit code (0 for success, 1 for failure).  In watch mode, this only returns once
+   *     watching stops.
    */
   protected int runGenerator(String string) {
     setupOutputConfigurations(string);
@@ -101,10 +228,13 @@ public class Main {
       System.err.printf("%s is not a path to a RoboChart project%n", project);
       return 1;
     }
+    // Cache entries are keyed by resource URI, so projects can share the per-user cache without
+    // littering their own directories.
+    cache.setDefaultDirectory(ResourceCache.userDirectory());
 
     final List<Path> paths;
-    try {
-      paths = findFiles(project);
+    try (var ignored = metrics.start("scan", project)) {
+      paths = scanner.scan(project);
     } catch (IOException e) {
       System.err.printf("I/O error while reading project %s%n", project);
       e.printStackTrace();
@@ -112,7 +242,7 @@ public class Main {
     }
 
     final ResourceSet set;
-    try {
+    try (var ignored = metrics.start("library", null)) {
       set = baseResourceSet();
     } catch (IOException e) {
       System.err.println("I/O error while getting RoboChart resource set");
@@ -129,18 +259,33 @@ public class Main {
     final var numErrors = validateResources(resources);
     if (0 < numErrors) {
       System.err.printf("%d validation error(s), stopping.%n", numErrors);
+    } else {
+      generateResources(resources, plainContext());
+    }
+    if (watch) {
+      resources.forEach(planner::index);
+      if (0 < numErrors) {
+        resources.forEach(r -> planner.retry(r.getURI()));
+      }
+    }
+    writeMetrics();
+    if (0 < numErrors && !watch) {
       return 1;
     }
 
-    generateResources(resources);
-    return 0;
+    return watch ? watch(project, set) : 0;
   }
 
   private void setupOutputConfigurations(String string) {
     fileAccess.setOutputConfigurations(
-        outputConfigurationProvider.getOutputConfigurations().parallelStream()
+        outputConfigurationProvider.getOutputConfigurations().stream()
             .peek(x -> expandRelativeDir(string, x))
             .collect(Collectors.toUnmodifiableMap(OutputConfiguration::getName, x -> x)));
+
+    // Scanning (or watching) our own output is wasted effort at best.
+    for (var config : fileAccess.getOutputConfigurations().values()) {
+      scanner.skipDirectory(Path.of(config.getOutputDirectory()));
+    }
   }
 
   //
@@ -151,32 +296,139 @@ public class Main {
     x.setOutputDirectory(x.getOutputDirectory().replaceFirst("^.", string));
   }
 
-  @SuppressWarnings("LocalCanBeFinal")
-  private List<Path> findFiles(Path project) throws IOException {
-    try (var files = Files.walk(project)) {
-      return files.filter(this::shouldConsider).toList();
-    }
-  }
-
   //
   // Resource loading
   //
 
-  private boolean shouldConsider(Path p) {
-    // NOTE(@MattWindsor91): we generate CSP for RoboChart here too.
-    // Should we?
-    final var isFile = Files.isRegularFile(p);
-    return isFile && (filename.isRoboChartFile(p) || filename.isRoboCertFile(p));
+  private List<Resource> loadResources(ResourceSet set, List<Path> paths) {
+    final var uris = paths.stream().map(p -> URI.createFileURI(p.toString())).toList();
+    return loadUris(set, uris);
   }
 
-  private List<Resource> loadResources(ResourceSet set, List<Path> paths) {
-    return paths.stream().map(p -> loadResource(set, p)).peek(this::printResource).toList();
+  private List<Resource> loadUris(ResourceSet set, List<URI> uris) {
+    final List<Resource> resources;
+    try (var ignored = metrics.start("load", null)) {
+      resources = loader.load(set, uris);
+    }
+    resources.forEach(this::printResource);
+    return resources;
   }
 
   private void printResource(Resource r) {
     System.out.printf("Loaded: %s%n", r.getURI().toString());
   }
 
+  //
+  // Watch mode
+  //
+
+  /**
+   * Watches the project, reloading and regenerating changed files until interrupted.
+   *
+   * @param project the project directory.
+   * @param set     the warm resource set holding the project's resources.
+   * @return exit code (0 for interruption, 1 for failure).
+   */
+  private int watch(Path project, ResourceSet set) {
+    System.out.println("Watching for changes (interrupt to stop).");
+
+    try (var watcher = new ProjectWatcher(project, d -> scanner.shouldDescend(project, d))) {
+      while (true) {
+        final var changed = watcher.next().stream().filter(p -> scanner.shouldConsider(project, p))
+            .toList();
+        if (!changed.isEmpty()) {
+          rebuild(set, changed, watcher);
+        }
+      }
+    } catch (IOException e) {
+      System.err.printf("I/O error while watching project %s%n", project);
+      e.printStackTrace();
+      return 1;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return 0;
+    }
+  }
+
+  /**
+   * Reloads changed files, and anything depending on them, then validates and regenerates them.
+   * <p>
+   * Failures are reported rather than thrown, so that they don't end watch mode; the resources
+   * involved are retried on the next rebuild.
+   *
+   * @param set     the warm resource set.
+   * @param changed paths of changed (possibly deleted) source files.
+   * @param watcher the watcher, used to abandon generation if more changes arrive.
+   */
+  private void rebuild(ResourceSet set, List<Path> changed, ProjectWatcher watcher) {
+    final var start = System.nanoTime();
+
+    // Unloading a resource turns references into it into proxies, and Xtext's fragments may not
+    // survive an edit, so dependents are reparsed along with the changed files.
+    final var stale = planner.plan(changed.stream().map(p -> URI.createFileURI(p.toString()))
+        .toList());
+    try {
+      rebuild(set, stale, watcher, start);
+    } catch (RuntimeException e) {
+      System.err.println("Error while rebuilding, waiting for changes.");
+      e.printStackTrace();
+      stale.forEach(planner::retry);
+    }
+    writeMetrics();
+  }
+
+  private void rebuild(ResourceSet set, Set<URI> stale, ProjectWatcher watcher, long start) {
+    final var toLoad = new ArrayList<URI>();
+    for (var uri : stale) {
+      final var r = set.getResource(uri, false);
+      if (r != null) {
+        r.unload();
+        set.getResources().remove(r);
+      }
+      if (Files.isRegularFile(Path.of(uri.toFileString()))) {
+        toLoad.add(uri);
+      } else {
+        planner.forget(uri);
+        System.out.printf("Removed: %s%n", uri);
+      }
+    }
+
+    final var resources = loadUris(set, toLoad);
+
+    final var numErrors = validateResources(resources);
+    resources.forEach(planner::index);
+    if (0 < numErrors) {
+      System.err.printf("%d validation error(s), waiting for changes.%n", numErrors);
+      resources.forEach(r -> planner.retry(r.getURI()));
+    } else if (generateResources(resources, watchContext(watcher))) {
+      System.out.printf("Regenerated in %d ms.%n",
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    } else {
+      System.out.println("More changes arrived, restarting.");
+      resources.forEach(r -> planner.retry(r.getURI()));
+    }
+  }
+
+  /**
+   * Makes a generator context that is cancelled as soon as the watcher sees more changes.
+   *
+   * @param watcher the project watcher.
+   * @return the generator context.
+   */
+  private ProgressGeneratorContext watchContext(ProjectWatcher watcher) {
+    final var context = new ProgressGeneratorContext();
+    final var monitor = new NullProgressMonitor() {
+      @Override
+      public boolean isCanceled() {
+        return super.isCanceled() || watcher.hasPendingChanges();
+      }
+    };
+    context.setProgressMonitor(monitor);
+    // Not everything that checks for cancellation looks at the monitor.
+    context.setCancelIndicator(monitor::isCanceled);
+    return context;
+  }
+
   //
   // RoboChart library loading
   //
@@ -240,7 +492,9 @@ public class Main {
   }
 
   private Stream<Issue> validate(Resource r) {
-    return validator.validate(r, CheckMode.ALL, CancelIndicator.NullImpl).stream();
+    try (var ignored = metrics.start("validate", r.getURI())) {
+      return validator.validate(r, CheckMode.ALL, CancelIndicator.NullImpl).stream();
+    }
   }
 
   private boolean isError(Issue i) {
@@ -255,10 +509,29 @@ public class Main {
   // Generation
   //
 
-  private void generateResources(List<Resource> resources) {
+  private GeneratorContext plainContext() {
     final var context = new GeneratorContext();
     context.setCancelIndicator(CancelIndicator.NullImpl);
-    resources.stream().peek(this::printGenerate).forEach(r -> generate(r, context));
+    return context;
+  }
+
+  /**
+   * Generates the given resources, stopping early if the context is cancelled.
+   *
+   * @param resources the resources to generate.
+   * @param context   the generator context.
+   * @return whether generation ran to completion.
+   */
+  private boolean generateResources(List<Resource> resources, GeneratorContext context) {
+    final var monitor = GeneratorUtil.monitor(context);
+    for (var r : resources) {
+      if (monitor.isCanceled()) {
+        return false;
+      }
+      printGenerate(r);
+      generate(r, context);
+    }
+    return !monitor.isCanceled();
   }
 
   private void printGenerate(Resource r) {
@@ -266,6 +539,28 @@ public class Main {
   }
 
   private void generate(Resource r, GeneratorContext ctx) {
-    generator.doGenerate(r, fileAccess, ctx);
+    try (var ignored = metrics.start("generate", r.getURI())) {
+      generator.doGenerate(r, fileAccess, ctx);
+    }
+  }
+
+  //
+  // Metrics
+  //
+
+  /**
+   * Writes out, then discards, any metrics collected since the last write.
+   */
+  private void writeMetrics() {
+    if (metricsPath == null) {
+      return;
+    }
+    try (var out = Files.newBufferedWriter(metricsPath)) {
+      metrics.writeJson(out);
+    } catch (IOException e) {
+      System.err.printf("I/O error while writing metrics to %s: %s%n", metricsPath,
+          e.getMessage());
+    }
+    metrics.reset();
   }
 }
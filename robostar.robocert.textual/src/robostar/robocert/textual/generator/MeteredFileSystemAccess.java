@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator;
+
+import com.google.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import org.eclipse.xtext.generator.JavaIoFileSystemAccess;
+
+/**
+ * Plain filesystem access that reports write times and output sizes to {@link Metrics}.
+ *
+ * @author Matt Windsor
+ */
+public class MeteredFileSystemAccess extends JavaIoFileSystemAccess {
+
+  @Inject
+  private Metrics metrics;
+
+  @Override
+  public void generateFile(String fileName, String outputConfigName, CharSequence contents) {
+    try (var ignored = metrics.start("write", fileName)) {
+      super.generateFile(fileName, outputConfigName, contents);
+    }
+    if (metrics.isEnabled()) {
+      metrics.recordOutput("output/" + outputConfigName, fileName,
+          contents.toString().getBytes(StandardCharsets.UTF_8).length);
+    }
+  }
+}
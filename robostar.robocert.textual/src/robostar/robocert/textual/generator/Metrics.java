@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator;
+
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Collects timings, allocation counts, and output sizes for the phases of a generator run.
+ * <p>
+ * Collection is off by default.  While it is off, {@link #start(String, Object)} hands back a
+ * shared no-op span, so instrumented code pays for little more than a volatile read.  Subjects are
+ * only turned into strings when a sample is actually taken, and phase names that need building can
+ * be passed through {@link #start(Supplier, Object)} so that they are only built likewise.
+ * <p>
+ * Allocation counts cover the thread that opened the span only, and are -1 where the JVM can't
+ * report them.
+ *
+ * @author Matt Windsor
+ */
+@Singleton
+public class Metrics {
+
+  private static final Method ALLOCATED_BYTES = allocatedBytesMethod();
+
+  private final Queue<Sample> samples = new ConcurrentLinkedQueue<>();
+  private volatile boolean enabled = false;
+
+  /**
+   * @return whether metrics are being collected.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Switches metrics collection on or off.
+   *
+   * @param enabled whether to collect metrics.
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Starts timing a phase.
+   *
+   * @param phase   name of the phase.
+   * @param subject what the phase is working on (such as a resource or package); may be null.
+   * @return a span that records a sample when closed.
+   */
+  public Span start(String phase, Object subject) {
+    if (!enabled) {
+      return Span.NONE;
+    }
+    return new ActiveSpan(phase, subject, System.nanoTime(), allocatedBytes());
+  }
+
+  /**
+   * Starts timing a phase whose name is built on demand.
+   *
+   * @param phase   supplies the name of the phase; only called if metrics are being collected.
+   * @param subject what the phase is working on (such as a resource or package); may be null.
+   * @return a span that records a sample when closed.
+   */
+  public Span start(Supplier<String> phase, Object subject) {
+    if (!enabled) {
+      return Span.NONE;
+    }
+    return start(phase.get(), subject);
+  }
+
+  /**
+   * Records the size of some output.
+   *
+   * @param phase   name of the phase producing the output.
+   * @param subject what the output is (such as a file name).
+   * @param bytes   size of the output.
+   */
+  public void recordOutput(String phase, Object subject, long bytes) {
+    if (enabled) {
+      samples.add(new Sample(phase, String.valueOf(subject), Thread.currentThread().getName(), 0,
+          0, bytes));
+    }
+  }
+
+  /**
+   * @return the samples collected so far, in the order in which they finished.
+   */
+  public List<Sample> samples() {
+    return List.copyOf(samples);
+  }
+
+  /**
+   * Discards all samples collected so far.
+   */
+  public void reset() {
+    samples.clear();
+  }
+
+  /**
+   * Writes the samples collected so far, and per-phase totals, as a JSON object.
+   *
+   * @param out where to write the JSON.
+   * @throws IOException if the output can't be written.
+   */
+  public void writeJson(Appendable out) throws IOException {
+    final var all = samples();
+
+    final var totals = new TreeMap<String, Total>();
+    for (var s : all) {
+      totals.computeIfAbsent(s.phase(), p -> new Total()).add(s);
+    }
+
+    out.append("{\n  \"phases\": {");
+    var first = true;
+    for (var e : totals.entrySet()) {
+      out.append(first ? "\n" : ",\n");
+      first = false;
+      final var t = e.getValue();
+      out.append("    ").append(quote(e.getKey())).append(": ")
+          .append("{\"count\": %d, \"nanos\": %d, \"allocatedBytes\": %d, \"outputBytes\": %d}"
+              .formatted(t.count, t.nanos, t.allocatedBytes, t.outputBytes));
+    }
+    out.append("\n  },\n  \"samples\": [");
+
+    first = true;
+    for (var s : all) {
+      out.append(first ? "\n" : ",\n");
+      first = false;
+      out.append("    {\"phase\": %s, \"subject\": %s, \"thread\": %s, \"nanos\": %d, ".formatted(
+          quote(s.phase()), quote(s.subject()), quote(s.thread()), s.nanos()));
+      out.append("\"allocatedBytes\": %d, \"outputBytes\": %d}".formatted(s.allocatedBytes(),
+          s.outputBytes()));
+    }
+    out.append("\n  ]\n}\n");
+  }
+
+  private static String quote(String s) {
+    final var sb = new StringBuilder(s.length() + 2).append('"');
+    for (var i = 0; i < s.length(); i++) {
+      final var c = s.charAt(i);
+      switch (c) {
+        case '"' -> sb.append("\\\"");
+        case '\\' -> sb.append("\\\\");
+        case '\n' -> sb.append("\\n");
+        case '\r' -> sb.append("\\r");
+        case '\t' -> sb.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            sb.append("\\u%04x".formatted((int) c));
+          } else {
+            sb.append(c);
+          }
+        }
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+  private static Method allocatedBytesMethod() {
+    // This is a HotSpot extension, so we look it up reflectively rather than linking against it.
+    try {
+      final var intf = Class.forName("com.sun.management.ThreadMXBean");
+      final var bean = ManagementFactory.getThreadMXBean();
+      if (!intf.isInstance(bean)) {
+        return null;
+      }
+      final var method = intf.getMethod("getCurrentThreadAllocatedBytes");
+      method.invoke(bean);
+      return method;
+    } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+      return null;
+    }
+  }
+
+  private static long allocatedBytes() {
+    if (ALLOCATED_BYTES == null) {
+      return -1;
+    }
+    try {
+      return (long) ALLOCATED_BYTES.invoke(ManagementFactory.getThreadMXBean());
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * A phase being timed; closing it records a sample.
+   */
+  @FunctionalInterface
+  public interface Span extends AutoCloseable {
+
+    /**
+     * Span that records nothing, used when metrics are off.
+     */
+    Span NONE = () -> {
+    };
+
+    @Override
+    void close();
+  }
+
+  /**
+   * One measurement.
+   *
+   * @param phase          name of the phase.
+   * @param subject        what the phase was working on.
+   * @param thread         name of the thread on which the phase ran.
+   * @param nanos          wall-clock duration of the phase.
+   * @param allocatedBytes bytes allocated by the thread during the phase (-1 if unknown).
+   * @param outputBytes    size of any output produced.
+   */
+  public record Sample(String phase, String subject, String thread, long nanos,
+                       long allocatedBytes, long outputBytes) {
+
+  }
+
+  private class ActiveSpan implements Span {
+
+    private final String phase;
+    private final Object subject;
+    private final long startNanos;
+    private final long startAllocated;
+
+    private ActiveSpan(String phase, Object subject, long startNanos, long startAllocated) {
+      this.phase = phase;
+      this.subject = subject;
+      this.startNanos = startNanos;
+      this.startAllocated = startAllocated;
+    }
+
+    @Override
+    public void close() {
+      final var nanos = System.nanoTime() - startNanos;
+      final var allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+      samples.add(new Sample(phase, String.valueOf(subject), Thread.currentThread().getName(),
+          nanos, allocated, 0));
+    }
+  }
+
+  private static class Total {
+
+    private long count;
+    private long nanos;
+    private long allocatedBytes;
+    private long outputBytes;
+
+    private void add(Sample s) {
+      count++;
+      nanos += s.nanos();
+      allocatedBytes += Math.max(0, s.allocatedBytes());
+      outputBytes += s.outputBytes();
+    }
+  }
+}
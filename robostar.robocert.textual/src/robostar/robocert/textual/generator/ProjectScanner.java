@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator;
+
+import com.google.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+import robostar.robocert.textual.generator.utils.ExecutionStrategy;
+import robostar.robocert.textual.generator.utils.FilenameHelper;
+
+/**
+ * Finds the RoboChart and RoboCert source files in a project.
+ * <p>
+ * Paths are filtered by include and exclude globs, matched against the path relative to the project
+ * root.  If there are no include globs, every source file is included; exclude globs also prune
+ * whole directories.  Hidden directories and any directories marked as skipped (such as our own
+ * output directories) are never entered.  Directories are listed in parallel, unless the execution
+ * strategy is sequential.
+ *
+ * @author Matt Windsor
+ */
+public class ProjectScanner {
+
+  private final FilenameHelper filename;
+  private final ExecutionStrategy exec;
+  private final List<PathMatcher> includes = new ArrayList<>();
+  private final List<PathMatcher> excludes = new ArrayList<>();
+  private final Set<Path> skipped = new HashSet<>();
+
+  /**
+   * Constructs a project scanner.
+   *
+   * @param filename used to recognise source files.
+   * @param exec     strategy for listing directories in parallel.
+   */
+  @Inject
+  public ProjectScanner(FilenameHelper filename, ExecutionStrategy exec) {
+    this.filename = filename;
+    this.exec = exec;
+  }
+
+  /**
+   * Adds a glob that source files must match (if there are any such globs).
+   *
+   * @param glob the glob, relative to the project root.
+   */
+  public void addInclude(String glob) {
+    includes.add(matcher(glob));
+  }
+
+  /**
+   * Adds a glob that source files and directories must not match.
+   *
+   * @param glob the glob, relative to the project root.
+   */
+  public void addExclude(String glob) {
+    excludes.add(matcher(glob));
+  }
+
+  /**
+   * Marks a directory as never to be entered.
+   *
+   * @param dir the directory.
+   */
+  public void skipDirectory(Path dir) {
+    skipped.add(normalise(dir));
+  }
+
+  /**
+   * Finds all source files in a project.
+   *
+   * @param root the project root.
+   * @return the source files, sorted by path.
+   * @throws IOException if a directory can't be read.
+   */
+  public List<Path> scan(Path root) throws IOException {
+    final List<Path> result;
+    try {
+      result = exec.invoke(new ScanTask(root, root));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return result.stream().sorted(Comparator.naturalOrder()).toList();
+  }
+
+  /**
+   * Checks whether the scanner would enter a directory.
+   *
+   * @param root the project root.
+   * @param dir  the directory.
+   * @return whether the directory is neither hidden, skipped, nor excluded.
+   */
+  public boolean shouldDescend(Path root, Path dir) {
+    if (dir.equals(root)) {
+      return true;
+    }
+    final var name = dir.getFileName();
+    if (name != null && name.toString().startsWith(".")) {
+      return false;
+    }
+    if (skipped.contains(normalise(dir))) {
+      return false;
+    }
+    final var rel = root.relativize(dir);
+    return excludes.stream().noneMatch(m -> m.matches(rel));
+  }
+
+  /**
+   * Checks whether a path names a source file that the scanner would pick up.
+   * <p>
+   * This doesn't check that the file exists, so it can be used for deleted files.
+   *
+   * @param root the project root.
+   * @param file the file.
+   * @return whether the file has a source extension, is included, and is not excluded.
+   */
+  public boolean shouldConsider(Path root, Path file) {
+    // NOTE(@MattWindsor91): we generate CSP for RoboChart here too.
+    // Should we?
+    if (!(filename.isRoboChartFile(file) || filename.isRoboCertFile(file))) {
+      return false;
+    }
+    final var rel = root.relativize(file);
+    if (excludes.stream().anyMatch(m -> m.matches(rel))) {
+      return false;
+    }
+    return includes.isEmpty() || includes.stream().anyMatch(m -> m.matches(rel));
+  }
+
+  private static Path normalise(Path p) {
+    return p.toAbsolutePath().normalize();
+  }
+
+  private static PathMatcher matcher(String glob) {
+    return Path.of("").getFileSystem().getPathMatcher("glob:" + glob);
+  }
+
+  /**
+   * Scans one directory, forking off scans of its subdirectories.
+   */
+  private class ScanTask extends RecursiveTask<List<Path>> {
+
+    private final Path root;
+    private final Path dir;
+
+    ScanTask(Path root, Path dir) {
+      this.root = root;
+      this.dir = dir;
+    }
+
+    @Override
+    protected List<Path> compute() {
+      final var files = new ArrayList<Path>();
+      final var subtasks = new ArrayList<ScanTask>();
+
+      try (var entries = Files.newDirectoryStream(dir)) {
+        for (var entry : entries) {
+          // As with Files.walk, we don't follow links to directories.
+          final var attrs = Files.readAttributes(entry, BasicFileAttributes.class,
+              LinkOption.NOFOLLOW_LINKS);
+          if (attrs.isDirectory()) {
+            if (shouldDescend(root, entry)) {
+              subtasks.add(new ScanTask(root, entry));
+            }
+          } else if ((attrs.isRegularFile() || Files.isRegularFile(entry)) && shouldConsider(root,
+              entry)) {
+            files.add(entry);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      if (exec.isSequential()) {
+        for (var task : subtasks) {
+          files.addAll(task.compute());
+        }
+        return files;
+      }
+
+      for (var task : subtasks) {
+        task.fork();
+      }
+      for (var task : subtasks) {
+        files.addAll(task.join());
+      }
+      return files;
+    }
+  }
+}
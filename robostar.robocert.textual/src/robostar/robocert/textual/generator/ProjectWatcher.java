@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Watches a project directory tree for changes, grouping bursts of changes together.
+ * <p>
+ * Editors tend to touch a file several times per save (and sometimes write temporary files
+ * alongside it), so {@link #next()} waits until the tree has been quiet for a short while before
+ * reporting everything that changed.
+ *
+ * @author Matt Windsor
+ */
+public class ProjectWatcher implements Closeable {
+
+  /**
+   * How long the tree must be quiet before a batch of changes is reported.
+   */
+  public static final Duration DEBOUNCE = Duration.ofMillis(150);
+
+  private final WatchService service;
+  private final Predicate<Path> shouldWatch;
+  private final Map<WatchKey, Path> dirs = new HashMap<>();
+
+  /**
+   * A key taken from the service by {@link #hasPendingChanges()}, but not yet drained.
+   */
+  private WatchKey pending;
+
+  /**
+   * Starts watching a directory tree.
+   *
+   * @param root        root of the tree to watch.
+   * @param shouldWatch decides whether a directory (and its subtree) should be watched.
+   * @throws IOException if the tree cannot be registered with the watch service.
+   */
+  public ProjectWatcher(Path root, Predicate<Path> shouldWatch) throws IOException {
+    this.service = root.getFileSystem().newWatchService();
+    this.shouldWatch = shouldWatch;
+    registerTree(root);
+  }
+
+  /**
+   * Waits for the next batch of changes.
+   *
+   * @return the paths created, modified, or deleted in the batch (never empty).
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public synchronized Set<Path> next() throws InterruptedException {
+    final var changed = new LinkedHashSet<Path>();
+
+    var key = pending == null ? service.take() : pending;
+    pending = null;
+    while (key != null) {
+      drain(key, changed);
+      key = service.poll(DEBOUNCE.toMillis(), TimeUnit.MILLISECONDS);
+
+      // Some events (such as those for directories) don't give us anything to report, so we
+      // keep waiting if the batch turned out to be empty.
+      if (key == null && changed.isEmpty()) {
+        key = service.take();
+      }
+    }
+
+    return changed;
+  }
+
+  /**
+   * Checks, without blocking, whether anything has changed since the last batch.
+   * <p>
+   * This is useful for abandoning work that newer changes are about to supersede.
+   *
+   * @return whether there are changes that the next call to {@link #next()} will report.
+   */
+  public synchronized boolean hasPendingChanges() {
+    if (pending == null) {
+      pending = service.poll();
+    }
+    return pending != null;
+  }
+
+  private void drain(WatchKey key, Set<Path> changed) {
+    final var dir = dirs.get(key);
+
+    for (var event : key.pollEvents()) {
+      if (dir == null || event.kind() == OVERFLOW) {
+        continue;
+      }
+      final var path = dir.resolve((Path) event.context());
+
+      if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+        // New directories may already have files in them by the time we register them.
+        try {
+          registerTree(path);
+          try (var files = Files.walk(path)) {
+            files.filter(Files::isRegularFile).forEach(changed::add);
+          }
+        } catch (IOException e) {
+          System.err.printf("Couldn't watch new directory %s: %s%n", path, e.getMessage());
+        }
+        continue;
+      }
+
+      changed.add(path);
+    }
+
+    if (!key.reset()) {
+      dirs.remove(key);
+    }
+  }
+
+  private void registerTree(Path root) throws IOException {
+    Files.walkFileTree(root, new SimpleFileVisitor<>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+          throws IOException {
+        if (!shouldWatch.test(dir)) {
+          return FileVisitResult.SKIP_SUBTREE;
+        }
+        dirs.put(dir.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  @Override
+  public void close() throws IOException {
+    service.close();
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * Decides which resources a watch-mode rebuild needs to reload.
+ * <p>
+ * This keeps a reverse-dependency index of the project's resources, which is updated one resource
+ * at a time as resources are (re)loaded, so finding the dependents of a change doesn't need a scan
+ * of the whole resource set.  It also remembers resources whose last build failed or was abandoned,
+ * so that they are retried on the next rebuild even if they haven't themselves changed.
+ *
+ * @author Matt Windsor
+ */
+public class RebuildPlanner {
+
+  private final Map<URI, Set<URI>> dependencies = new HashMap<>();
+  private final Map<URI, Set<URI>> dependents = new HashMap<>();
+  private final Set<URI> retries = new LinkedHashSet<>();
+
+  /**
+   * Records the resources that a freshly loaded resource refers to, replacing any earlier record.
+   * <p>
+   * This resolves the resource's cross-references, so it should be called once the resource set is
+   * fully loaded.
+   *
+   * @param r the resource.
+   */
+  public void index(Resource r) {
+    final var uri = r.getURI();
+    final var targets = new HashSet<URI>();
+    for (var target : EcoreUtil.ExternalCrossReferencer.find(r).keySet()) {
+      final var t = EcoreUtil.getURI(target).trimFragment();
+      if (!t.equals(uri)) {
+        targets.add(t);
+      }
+    }
+
+    forget(uri);
+    dependencies.put(uri, targets);
+    for (var t : targets) {
+      dependents.computeIfAbsent(t, x -> new HashSet<>()).add(uri);
+    }
+  }
+
+  /**
+   * Forgets what a resource refers to, for instance because it has been deleted.
+   * <p>
+   * Resources referring to it stay recorded as its dependents, so that they are rebuilt if it comes
+   * back.
+   *
+   * @param uri URI of the resource.
+   */
+  public void forget(URI uri) {
+    final var old = dependencies.remove(uri);
+    if (old == null) {
+      return;
+    }
+    for (var t : old) {
+      final var ds = dependents.get(t);
+      if (ds != null) {
+        ds.remove(uri);
+        if (ds.isEmpty()) {
+          dependents.remove(t);
+        }
+      }
+    }
+  }
+
+  /**
+   * Marks a resource as needing another attempt on the next rebuild.
+   *
+   * @param uri URI of the resource that failed to build.
+   */
+  public void retry(URI uri) {
+    retries.add(uri);
+  }
+
+  /**
+   * Plans a rebuild, consuming any pending retries.
+   *
+   * @param changed URIs of the resources that changed on disk.
+   * @return URIs of the changed resources, followed by everything transitively depending on them,
+   *     and anything due a retry.
+   */
+  public Set<URI> plan(Collection<URI> changed) {
+    final var result = new LinkedHashSet<>(changed);
+    result.addAll(retries);
+    retries.clear();
+
+    final var frontier = new ArrayDeque<>(result);
+    while (!frontier.isEmpty()) {
+      for (var d : dependents.getOrDefault(frontier.pop(), Set.of())) {
+        if (result.add(d)) {
+          frontier.push(d);
+        }
+      }
+    }
+    return result;
+  }
+}
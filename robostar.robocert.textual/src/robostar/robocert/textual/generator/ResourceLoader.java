@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import robostar.robocert.textual.generator.utils.ExecutionStrategy;
+import robostar.robocert.textual.resource.CachingResource;
+import robostar.robocert.textual.resource.ResourceCache;
+
+/**
+ * Loads source files into a resource set, parsing them in parallel.
+ * <p>
+ * Resource sets aren't thread-safe, so each file is parsed into its own scratch resource set.
+ * Parsing only installs proxies for cross-references (linking is lazy), so the parsed resources
+ * can then be moved into the target resource set, where those proxies resolve as usual.
+ * <p>
+ * If the resource cache is enabled, unchanged files are loaded from it rather than parsed.  This
+ * only applies to files whose registered resource class is storage-aware: we never swap out another
+ * language's resource class (such as RoboChart's), as it may carry behaviour that language relies
+ * on.  Writing a cache entry links the resource, so files that miss the cache are only stored once
+ * every file has moved into the target set.
+ *
+ * @param sets    provides scratch resource sets.
+ * @param cache   the on-disk cache of parsed resources.
+ * @param exec    strategy for parsing in parallel.
+ * @param metrics records how long each resource takes to load.
+ * @author Matt Windsor
+ */
+public record ResourceLoader(Provider<ResourceSet> sets, ResourceCache cache,
+                             ExecutionStrategy exec, Metrics metrics) {
+
+  /**
+   * Constructs a resource loader.
+   *
+   * @param sets    provides scratch resource sets.
+   * @param cache   the on-disk cache of parsed resources.
+   * @param exec    strategy for parsing in parallel.
+   * @param metrics records how long each resource takes to load.
+   */
+  @Inject
+  public ResourceLoader {
+    Objects.requireNonNull(sets);
+    Objects.requireNonNull(cache);
+    Objects.requireNonNull(exec);
+    Objects.requireNonNull(metrics);
+  }
+
+  /**
+   * Loads resources into a resource set.
+   * <p>
+   * Resources already in the target set are not reloaded.
+   *
+   * @param target the resource set into which the resources go.
+   * @param uris   URIs of the resources to load.
+   * @return the loaded resources, in the same order as their URIs.
+   * @throws WrappedException if a resource can't be read (as with {@link ResourceSet#getResource}).
+   */
+  public List<Resource> load(ResourceSet target, List<URI> uris) {
+    // The target set is only ever touched on the calling thread.
+    final var resources = new ArrayList<Resource>(uris.size());
+    final var missing = new ArrayList<URI>();
+    for (var uri : uris) {
+      final var r = target.getResource(uri, false);
+      resources.add(r);
+      if (r == null) {
+        missing.add(uri);
+      }
+    }
+
+    final var parsed = exec.map(missing, u -> {
+      try (var ignored = metrics.start("parse", u)) {
+        return parse(target, u);
+      }
+    });
+    final var it = parsed.iterator();
+    for (var i = 0; i < resources.size(); i++) {
+      if (resources.get(i) == null) {
+        final var r = it.next();
+        target.getResources().add(r);
+        resources.set(i, r);
+      }
+    }
+
+    for (var r : parsed) {
+      if (r instanceof StorageAwareResource s) {
+        cache.storeDeferred(s);
+      }
+    }
+    return List.copyOf(resources);
+  }
+
+  private Resource parse(ResourceSet target, URI uri) {
+    final var scratch = sets.get();
+    scratch.getLoadOptions().putAll(target.getLoadOptions());
+    scratch.getLoadOptions().put(ResourceCache.OPTION_DEFER_STORE, true);
+    if (target instanceof XtextResourceSet t && scratch instanceof XtextResourceSet s) {
+      s.setClasspathURIContext(t.getClasspathURIContext());
+    }
+
+    // This goes through the resource factory registered for the URI, so each language gets its own
+    // resource class.
+    final var r = scratch.createResource(uri);
+    try {
+      // CachingResources go through the cache by themselves.
+      if (r instanceof CachingResource || cache.directory().isEmpty()
+          || !(r instanceof StorageAwareResource s)) {
+        r.load(scratch.getLoadOptions());
+        return r;
+      }
+      return loadCached(scratch, s);
+    } catch (IOException e) {
+      throw new WrappedException(e);
+    }
+  }
+
+  private Resource loadCached(ResourceSet scratch, StorageAwareResource s) throws IOException {
+    final var options = scratch.getLoadOptions();
+    try (var in = scratch.getURIConverter().createInputStream(s.getURI(), options)) {
+      cache.load(s, in, options);
+    }
+    return s;
+  }
+}
@@ -13,10 +13,10 @@
  */
 package robostar.robocert.textual.generator;
 
-import java.util.List;
 import java.util.function.Consumer;
 
 import org.eclipse.core.runtime.ISafeRunnable;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.util.EcoreUtil;
@@ -27,43 +27,53 @@ import org.eclipse.xtext.generator.IGeneratorContext;
 
 import com.google.inject.Inject;
 
-import robostar.robocert.textual.generator.tikz.TikzGenerator;
-import robostar.robocert.textual.generator.tockcsp.TockCspGenerator;
+import robostar.robocert.textual.generator.utils.GeneratorUtil;
 
 /**
  * Generates code from model files on save.
  * <p>
  * See
  * https://www.eclipse.org/Xtext/documentation/303_runtime_concepts.html#code-generation
+ * <p>
+ * The actual generation is done by whichever backends the {@link BackendRegistry} selects.
+ * Each backend's run on each resource is timed through {@link Metrics}.
  */
 public class RoboCertGenerator extends AbstractGenerator {
-	// TODO(@MattWindsor91): make this open-ended in the same way that the RoboChart generator is.
-
-	private final TockCspGenerator csp;
-	private final TikzGenerator tikz;
+	private final BackendRegistry backends;
+	private final Metrics metrics;
 
 	@Inject
-	public RoboCertGenerator(TockCspGenerator csp, TikzGenerator tikz) {
-			this.csp = csp;
-			this.tikz = tikz;
+	public RoboCertGenerator(BackendRegistry backends, Metrics metrics) {
+			this.backends = backends;
+			this.metrics = metrics;
 	}
 
 	@Override
 	public void beforeGenerate(Resource input, IFileSystemAccess2 fsa, IGeneratorContext context) {
 		// Workaround for resolution errors.
-		EcoreUtil.resolveAll(input.getResourceSet());
+		try (var ignored = metrics.start("resolve", input.getURI())) {
+			EcoreUtil.resolveAll(input.getResourceSet());
+		}
 
-		forEachGenerator(gen -> gen.beforeGenerate(input, fsa, context), context);
+		forEachGenerator(input, gen -> gen.beforeGenerate(input, fsa, context), context);
 	}
 
 	@Override
 	public void doGenerate(Resource input, IFileSystemAccess2 fsa, IGeneratorContext context) {
 		// Workaround for resolution errors.
-		EcoreUtil.resolveAll(input.getResourceSet());
+		try (var ignored = metrics.start("resolve", input.getURI())) {
+			EcoreUtil.resolveAll(input.getResourceSet());
+		}
 
-		forEachGenerator(gen -> SafeRunner.run(new ISafeRunnable() {
+		forEachGenerator(input, gen -> SafeRunner.run(new ISafeRunnable() {
 			@Override
 			public void handleException(Throwable e) {
+				// Cancellation checkpoints inside the backends surface as exceptions; these aren't bugs,
+				// and forEachGenerator will notice the cancellation and stop.
+				if (e instanceof OperationCanceledException) {
+					return;
+				}
+
 				// TODO(@MattWindsor91): is there a log this should be sent to?
 				System.err.println("ERROR: RoboCert generator threw an exception.");
 				System.err.println("Please file this as a bug at github.com/UoY-RoboStar/robocert-textual.");
@@ -80,19 +90,24 @@ public class RoboCertGenerator extends AbstractGenerator {
 
 	@Override
 	public void afterGenerate(Resource input, IFileSystemAccess2 fsa, IGeneratorContext context) {
-		forEachGenerator(gen -> gen.afterGenerate(input, fsa, context), context);
+		forEachGenerator(input, gen -> gen.afterGenerate(input, fsa, context), context);
 	}
 
 	/**
-	 * Applies the consumer to each registered generator, returning early on cancellation.
+	 * Applies the consumer to each selected generator, returning early on cancellation.
+	 * @param input resource being generated, used to look up the backend selection.
 	 * @param f function to apply to each generator.
-	 * @param context context used to check cancellation.
+	 * @param context context used to check cancellation, through both its cancel indicator and its
+	 *                progress monitor (see {@link GeneratorUtil#monitor}).
 	 */
-	private void forEachGenerator(Consumer<IGenerator2> f, IGeneratorContext context) {
-		for (IGenerator2 gen: List.of(csp, tikz)) {
-			if (context.getCancelIndicator().isCanceled())
+	private void forEachGenerator(Resource input, Consumer<IGenerator2> f, IGeneratorContext context) {
+		final var monitor = GeneratorUtil.monitor(context);
+		for (IGenerator2 gen: backends.selected(input)) {
+			if (monitor.isCanceled())
 				return;
-			f.accept(gen);
+			try (var ignored = metrics.start(() -> "backend/" + gen.getClass().getSimpleName(), input.getURI())) {
+				f.accept(gen);
+			}
 		}
 	}
 }
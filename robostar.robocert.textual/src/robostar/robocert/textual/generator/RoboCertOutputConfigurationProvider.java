@@ -18,6 +18,7 @@ import org.eclipse.xtext.generator.OutputConfiguration;
 
 import com.google.inject.Inject;
 
+import robostar.robocert.textual.generator.svg.SvgPathSet;
 import robostar.robocert.textual.generator.tikz.TikzPathSet;
 import robostar.robocert.textual.generator.tockcsp.core.TockCspPathSet;
 
@@ -33,18 +34,23 @@ public class RoboCertOutputConfigurationProvider implements IOutputConfiguration
 	@Inject
 	private TikzPathSet tikzPathSet;
 
+	@Inject
+	private SvgPathSet svgPathSet;
+
 	@Override
 	public Set<OutputConfiguration> getOutputConfigurations() {
 		// TODO: is this the right thing to do?
 		// TODO: PRISM gen
 
-		final var set = new HashSet<OutputConfiguration>(4);
+		final var set = new HashSet<OutputConfiguration>(5);
 
 		set.add(buildConfig(IFileSystemAccess.DEFAULT_OUTPUT, "tock-CSP folder", tockCspPathSet.PACKAGE_PATH));
 		set.add(buildConfig(CSP_LIBRARY_OUTPUT, "tock-CSP standard library", tockCspPathSet.LIBRARY_PATH));
 
 		set.add(buildConfig(TIKZ_OUTPUT, "TikZ folder", tikzPathSet.DIAGRAM_PATH));
 		set.add(buildConfig(TIKZ_LIBRARY_OUTPUT, "TikZ standard library", tikzPathSet.LIBRARY_PATH));
+
+		set.add(buildConfig(SVG_OUTPUT, "SVG folder", svgPathSet.DIAGRAM_PATH));
 		return set;
 	}
 
@@ -63,6 +69,11 @@ public class RoboCertOutputConfigurationProvider implements IOutputConfiguration
 	 */
 	public static final String TIKZ_LIBRARY_OUTPUT = "TIKZ_LIBRARY_OUTPUT";
 
+	/**
+	 * Key of the SVG output configuration.
+	 */
+	public static final String SVG_OUTPUT = "SVG_OUTPUT";
+
 	private OutputConfiguration buildConfig(String name, String descr, String dir) {
 		final var result = new OutputConfiguration(name);
 		result.setDescription(descr);
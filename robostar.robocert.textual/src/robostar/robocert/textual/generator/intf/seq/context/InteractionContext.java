@@ -56,6 +56,22 @@ public record InteractionContext(Interaction seq,
     return lifelines.size();
   }
 
+  /**
+   * Checks whether the interaction is flat.
+   *
+   * <p>A flat interaction has at most one lifeline and no variables, so it needs no cross-lifeline
+   * synchronisation, control set, until or par channel, or memory.  We can generate it as a single
+   * lifeline process with no hiding or parallel composition.
+   *
+   * @return whether the interaction is flat.
+   */
+  public boolean isFlat() {
+    final var vars = seq.getVariables();
+    final var hasVars = vars != null && !vars.getVars().isEmpty();
+    return numLifelines() <= 1 && !hasVars && untilChannelIfNeeded().isEmpty()
+        && parChannelIfNeeded().isEmpty();
+  }
+
   /**
    * Gets the until channel of this process, but only if it will actually be generated.
    *
@@ -97,7 +113,7 @@ public record InteractionContext(Interaction seq,
    * @return the list of actor contexts.
    */
   public List<ActorContext> actors(ActorGenerator actorGen) {
-    return lifelines().parallelStream()
+    return lifelines().stream()
         .map(a -> new ActorContext(this, a, actorGen.dataConstructor(a))).toList();
   }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.svg;
+
+import com.google.inject.Inject;
+import java.util.ArrayList;
+import java.util.Objects;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.xtext.generator.IFileSystemAccess2;
+import org.eclipse.xtext.generator.IGeneratorContext;
+import robostar.robocert.CertPackage;
+import robostar.robocert.SpecificationGroup;
+import robostar.robocert.textual.generator.RoboCertOutputConfigurationProvider;
+import robostar.robocert.textual.generator.utils.PackageGenerator;
+import robostar.robocert.textual.generator.utils.name.GroupNamer;
+
+/**
+ * Generates SVG diagrams for a single {@link CertPackage}.
+ * <p>
+ * A diagram that can't be drawn doesn't stop the others from being drawn; once they have been, we
+ * throw an exception naming every failed diagram, which reaches the generator's usual error
+ * reporting.
+ *
+ * @param gn   synthesises names for CertPackages.
+ * @param dGen generates SVG for diagrams.
+ * @author Matt Windsor
+ */
+public record CertPackageGenerator(GroupNamer gn, DiagramGenerator dGen) implements
+    PackageGenerator {
+
+  /**
+   * Constructs an SVG package generator.
+   *
+   * @param gn   synthesises names for CertPackages.
+   * @param dGen generates SVG for diagrams.
+   */
+  @Inject
+  public CertPackageGenerator {
+    Objects.requireNonNull(gn);
+    Objects.requireNonNull(dGen);
+  }
+
+  @Override
+  public void generate(IFileSystemAccess2 fsa, IGeneratorContext context, CertPackage pkg,
+      IProgressMonitor monitor) {
+    final var pkgName = gn.getPackageName(pkg);
+    final var sub = SubMonitor.convert(monitor, pkg.getGroups().size());
+    final var failures = new ArrayList<String>();
+
+    for (var cgroup : pkg.getGroups()) {
+      final var groupMonitor = sub.split(1);
+      if (!(cgroup instanceof SpecificationGroup group)) {
+        continue;
+      }
+
+      final var groupName = gn.getOrSynthesiseName(group);
+      groupMonitor.setWorkRemaining(group.getInteractions().size());
+
+      for (var diagram : group.getInteractions()) {
+        groupMonitor.split(1);
+        final var path = "%s/%s/%s.svg".formatted(pkgName, groupName, diagram.getName());
+        try {
+          fsa.generateFile(path, RoboCertOutputConfigurationProvider.SVG_OUTPUT,
+              dGen.generate(diagram));
+        } catch (IllegalArgumentException e) {
+          failures.add("%s: %s".formatted(path, e.getMessage()));
+        }
+      }
+    }
+
+    if (!failures.isEmpty()) {
+      throw new IllegalArgumentException(
+          "couldn't draw some diagrams:%n  %s".formatted(String.join("\n  ", failures)));
+    }
+  }
+}
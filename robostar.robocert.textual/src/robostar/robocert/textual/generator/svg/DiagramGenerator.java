@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.svg;
+
+import circus.robocalc.robochart.NamedElement;
+import com.google.common.base.Strings;
+import com.google.common.collect.Streams;
+import com.google.inject.Inject;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.eclipse.xtext.serializer.ISerializer;
+import robostar.robocert.Actor;
+import robostar.robocert.ComponentActor;
+import robostar.robocert.Interaction;
+import robostar.robocert.Message;
+import robostar.robocert.TargetActor;
+import robostar.robocert.Temperature;
+import robostar.robocert.World;
+import robostar.robocert.textual.generator.tikz.diagram.BranchSplit;
+import robostar.robocert.textual.generator.tikz.diagram.DiagramContentsGenerator;
+import robostar.robocert.textual.generator.tikz.diagram.Lifeline;
+import robostar.robocert.textual.generator.tikz.frame.BasicFrame;
+import robostar.robocert.textual.generator.tikz.frame.DiagramFrame;
+import robostar.robocert.textual.generator.tikz.frame.Frame;
+import robostar.robocert.textual.generator.tikz.frame.FrameGenerator;
+import robostar.robocert.textual.generator.tikz.frame.LoopFrame;
+import robostar.robocert.textual.generator.tikz.frame.NestedFrame;
+import robostar.robocert.textual.generator.tikz.frame.UntilFrame;
+import robostar.robocert.textual.generator.tikz.matrix.BranchRow;
+import robostar.robocert.textual.generator.tikz.matrix.DiagramRow;
+import robostar.robocert.textual.generator.tikz.matrix.OccurrenceRow;
+import robostar.robocert.textual.generator.tikz.matrix.Row;
+import robostar.robocert.textual.generator.tikz.matrix.RowGenerator;
+import robostar.robocert.textual.generator.tikz.message.LifelineMessage;
+import robostar.robocert.textual.generator.tikz.message.Topic;
+import robostar.robocert.textual.generator.tikz.util.InteractionFlattener.EventType;
+
+/**
+ * Generates SVG for one diagram.
+ * <p>
+ * This shares its layout model with the TikZ generator: the diagram is flattened into the same
+ * matrix of rows and columns, frames, branch splits and messages.  Where TikZ leaves placing the
+ * matrix to LaTeX, though, here we compute the coordinates ourselves.
+ *
+ * @param svg      SVG structure generator.
+ * @param ser      Xtext serializer (used for expression languages).
+ * @param frameGen generates frames for the layout model.
+ * @param rowGen   generates rows for the layout model.
+ * @author Matt Windsor
+ */
+public record DiagramGenerator(SvgStructureGenerator svg, ISerializer ser, FrameGenerator frameGen,
+                               RowGenerator rowGen) {
+
+  private static final int MARGIN = 10;
+  private static final int STEP = 10;
+  private static final int COLUMN_WIDTH = 160;
+  private static final int ROW_HEIGHT = 36;
+  private static final int LABEL_HEIGHT = 20;
+  private static final int HEAD_HEIGHT = 36;
+  private static final int ARROW_SIZE = 6;
+
+  private static final String STYLE = """
+      text { font-family: sans-serif; font-size: 12px; }
+      .frame, .tag, .head { fill: none; stroke: black; }
+      .tag, .head { fill: white; }
+      .lifeline { stroke: black; stroke-dasharray: 4 4; }
+      .split { stroke: black; stroke-dasharray: 6 3; }
+      .msg { stroke: black; }
+      .msg.cold { stroke-dasharray: 2 2; }
+      .arrow { fill: black; }
+      .start { text-anchor: start; }
+      .middle { text-anchor: middle; }
+      """;
+
+  /**
+   * Constructs an SVG diagram generator.
+   *
+   * @param svg      SVG structure generator.
+   * @param ser      Xtext serializer (used for expression languages).
+   * @param frameGen generates frames for the layout model.
+   * @param rowGen   generates rows for the layout model.
+   */
+  @Inject
+  public DiagramGenerator {
+    Objects.requireNonNull(svg);
+    Objects.requireNonNull(ser);
+    Objects.requireNonNull(frameGen);
+    Objects.requireNonNull(rowGen);
+  }
+
+  /**
+   * Generates SVG for a diagram.
+   *
+   * @param it interaction diagram to generate.
+   * @return the generated SVG document.
+   */
+  public CharSequence generate(Interaction it) {
+    final var state = new DiagramContentsGenerator(frameGen, rowGen);
+    state.generate(it);
+
+    final var layout = new Layout(state);
+
+    final var elements = Streams.concat(state.frames().stream().flatMap(f -> frame(layout, f)),
+        state.lifelines().stream().flatMap(l -> lifeline(layout, l)),
+        state.branchSplits().stream().map(s -> branchSplit(layout, s)),
+        state.messages().stream().flatMap(m -> message(layout, m)));
+
+    return svg.document(layout.width(), layout.height(), STYLE, elements);
+  }
+
+  private Stream<String> frame(Layout layout, NestedFrame f) {
+    final var inset = layout.inset(f.depth());
+    final var left = layout.gutterX() - inset;
+    final var right = layout.worldX() + inset;
+    final var top = layout.y(f.frame().row(EventType.Entered)) - inset / 2;
+    final var bottom = layout.y(f.frame().row(EventType.Exited)) + inset / 2;
+
+    final var label = frameLabel(f.frame());
+    final var tagRight = left + svg.textWidth(label) + 2 * STEP;
+    final var tagBottom = top + LABEL_HEIGHT;
+
+    return Stream.of(svg.rect("frame", left, top, right - left, bottom - top),
+        svg.polygon("tag", left, top, tagRight, top, tagRight, tagBottom - STEP / 2,
+            tagRight - STEP / 2, tagBottom, left, tagBottom),
+        svg.text("start", left + STEP / 2, tagBottom - STEP / 2, label));
+  }
+
+  private String frameLabel(Frame f) {
+    if (f instanceof DiagramFrame d) {
+      return "sd " + d.diagram().getName();
+    }
+    if (f instanceof BasicFrame b) {
+      return b.type().toString();
+    }
+    if (f instanceof LoopFrame l) {
+      final var name = l.loop().getName();
+      final var prefix = Strings.isNullOrEmpty(name) ? "loop" : "loop " + name;
+      return prefix + l.bound(ser, l.loop().getBound());
+    }
+    if (f instanceof UntilFrame) {
+      return "until";
+    }
+    throw new IllegalArgumentException("unsupported frame: %s".formatted(f));
+  }
+
+  private Stream<String> lifeline(Layout layout, Lifeline l) {
+    final var actor = l.actor();
+    final var x = layout.x(actor);
+    final var top = layout.y(new DiagramRow(EventType.Entered)) + LABEL_HEIGHT;
+    final var bottom = layout.y(new DiagramRow(EventType.Exited));
+    final var left = x - (COLUMN_WIDTH - 2 * STEP) / 2;
+
+    return Stream.of(svg.line("lifeline", x, top + HEAD_HEIGHT, x, bottom),
+        svg.rect("head", left, top, COLUMN_WIDTH - 2 * STEP, HEAD_HEIGHT),
+        svg.text("middle", x, top + HEAD_HEIGHT / 2 - 2, stereotype(actor)),
+        svg.text("middle", x, top + HEAD_HEIGHT - STEP / 2, actor.getName()));
+  }
+
+  private String stereotype(Actor actor) {
+    if (actor instanceof TargetActor) {
+      return "«target»";
+    }
+    if (actor instanceof ComponentActor c && c.getNode() instanceof NamedElement n) {
+      return "«component %s»".formatted(n.getName());
+    }
+    return "«actor»";
+  }
+
+  private String branchSplit(Layout layout, BranchSplit s) {
+    final var inset = layout.inset(s.depth() - 1);
+    final var y = layout.y(new BranchRow(s.id()));
+    return svg.line("split", layout.gutterX() - inset, y, layout.worldX() + inset, y);
+  }
+
+  private Stream<String> message(Layout layout, LifelineMessage m) {
+    final var occ = m.msgOcc();
+    final var msg = occ.getMessage();
+    checkResolved(msg);
+    final var y = layout.y(new OccurrenceRow(m.id()));
+    final var x1 = layout.x(msg.getFrom());
+    final var x2 = layout.x(msg.getTo());
+    final var dir = Integer.signum(x2 - x1);
+
+    final var args = msg.getArguments().stream().map(a -> ser.serialize(a).trim())
+        .collect(Collectors.joining(", "));
+    final var label = new Topic(msg.getTopic()).topicName() + (args.isEmpty() ? ""
+        : "(%s)".formatted(args));
+    final var cls = occ.getTemperature() == Temperature.COLD ? "msg cold" : "msg";
+
+    return Stream.of(svg.line(cls, x1, y, x2, y),
+        svg.polygon("arrow", x2, y, x2 - dir * ARROW_SIZE, y - ARROW_SIZE / 2,
+            x2 - dir * ARROW_SIZE, y + ARROW_SIZE / 2),
+        svg.text("middle", (x1 + x2) / 2, y - STEP / 2, label));
+  }
+
+  /**
+   * Checks that a message refers only to resolved elements.
+   * <p>
+   * Unlike TikZ, we bake labels into the output, so an unresolved topic would otherwise silently
+   * become a nameless arrow.
+   *
+   * @param msg the message to check.
+   * @throws IllegalArgumentException if the message has unresolved references.
+   */
+  private void checkResolved(Message msg) {
+    if (msg.getTopic() == null) {
+      throw new IllegalArgumentException("message %s has no topic".formatted(msg));
+    }
+    final var refs = Stream.concat(Stream.of(msg.getFrom(), msg.getTo()),
+        msg.getTopic().eCrossReferences().stream());
+    refs.filter(x -> x == null || x.eIsProxy()).findFirst().ifPresent(x -> {
+      throw new IllegalArgumentException(
+          "message %s has unresolved reference: %s".formatted(msg, x));
+    });
+  }
+
+  /**
+   * Coordinates for the rows and columns of a diagram's matrix.
+   */
+  private static class Layout {
+
+    private final DiagramContentsGenerator state;
+    private final Map<Actor, Integer> columns = new HashMap<>();
+    private final int maxDepth;
+
+    Layout(DiagramContentsGenerator state) {
+      this.state = state;
+      this.maxDepth = state.outerDepthScale();
+
+      final var lifelines = state.lifelines();
+      for (var i = 0; i < lifelines.size(); i++) {
+        columns.put(lifelines.get(i).actor(), i);
+      }
+    }
+
+    /**
+     * @param depth nesting depth of a frame or split.
+     * @return how far outside the matrix the frame or split should be drawn.
+     */
+    int inset(int depth) {
+      return (maxDepth - depth) * STEP;
+    }
+
+    int gutterX() {
+      return MARGIN + (maxDepth + 1) * STEP;
+    }
+
+    int worldX() {
+      return gutterX() + Math.max(1, columns.size()) * COLUMN_WIDTH;
+    }
+
+    int x(Actor actor) {
+      if (actor instanceof World) {
+        // World endpoints sit on the outermost frame.
+        return worldX() + inset(0);
+      }
+      final var col = columns.get(actor);
+      if (col == null) {
+        throw new IllegalArgumentException(
+            "actor %s has no lifeline in this diagram".formatted(actor));
+      }
+      return gutterX() + col * COLUMN_WIDTH + COLUMN_WIDTH / 2;
+    }
+
+    int y(Row row) {
+      return y(Math.max(0, state.rowIndex(row)));
+    }
+
+    private int y(int index) {
+      final var top = MARGIN + maxDepth * STEP;
+      return index == 0 ? top : top + LABEL_HEIGHT + HEAD_HEIGHT + index * ROW_HEIGHT;
+    }
+
+    int width() {
+      return worldX() + inset(0) + MARGIN;
+    }
+
+    int height() {
+      return y(Math.max(0, state.matrixRows().size() - 1)) + inset(0) + MARGIN;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.svg;
+
+import com.google.inject.Inject;
+import robostar.robocert.textual.generator.RoboCertOutputConfigurationProvider;
+import robostar.robocert.textual.generator.utils.PackageGenerator;
+import robostar.robocert.textual.generator.utils.StandardLibraryGenerator;
+import robostar.robocert.textual.generator.utils.param.AbstractRoboCertGenerator;
+
+/**
+ * Generates SVG diagrams from RoboCert interaction diagrams.
+ * <p>
+ * Unlike the TikZ generator, the output is self-contained, so there is no standard library to
+ * copy over.
+ *
+ * @author Matt Windsor
+ */
+public class SvgGenerator extends AbstractRoboCertGenerator {
+
+  private final StandardLibraryGenerator libGen;
+  private final CertPackageGenerator pkgGen;
+
+  /**
+   * Constructs an SVG generator.
+   *
+   * @param libGen empty standard library generator.
+   * @param pkgGen generates SVG for the packages in a resource.
+   */
+  @Inject
+  public SvgGenerator(StandardLibraryGenerator libGen, CertPackageGenerator pkgGen) {
+    super();
+
+    libGen.setOutputConfiguration(RoboCertOutputConfigurationProvider.SVG_OUTPUT);
+
+    this.libGen = libGen;
+    this.pkgGen = pkgGen;
+  }
+
+  @Override
+  protected PackageGenerator pkgGenerator() {
+    return pkgGen;
+  }
+
+  @Override
+  protected StandardLibraryGenerator libGenerator() {
+    return libGen;
+  }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.svg;
+
+/**
+ * Contains the paths into which SVG files will be generated.
+ *
+ * @author Matt Windsor
+ */
+public class SvgPathSet {
+
+  /**
+   * Directory, relative to the RoboStar modelling project, in which we make the SVG development.
+   */
+  public final String BASE_PATH = "./svg-gen";
+
+  /**
+   * Directory, relative to the RoboStar modelling project, in which we generate SVG diagrams.
+   */
+  public final String DIAGRAM_PATH = BASE_PATH + "/diagrams";
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.svg;
+
+import com.google.common.xml.XmlEscapers;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Handles generation of pieces of low-level SVG code.
+ *
+ * @author Matt Windsor
+ */
+public class SvgStructureGenerator {
+
+  /**
+   * Emits a complete SVG document.
+   *
+   * @param width    width of the drawing, in pixels.
+   * @param height   height of the drawing, in pixels.
+   * @param style    CSS stylesheet for the drawing.
+   * @param elements elements of the drawing.
+   * @return a string representing the SVG document.
+   */
+  public String document(int width, int height, String style, Stream<String> elements) {
+    final var header = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <svg xmlns="http://www.w3.org/2000/svg" width="%d" height="%d" viewBox="0 0 %d %d">
+        <style>
+        %s</style>""".formatted(width, height, width, height, style);
+    return elements.map("  %s"::formatted)
+        .collect(Collectors.joining("\n", header + "\n", "\n</svg>\n"));
+  }
+
+  /**
+   * Emits SVG code for a straight line.
+   *
+   * @param cls CSS class of the line.
+   * @param x1  x-coordinate of the start of the line.
+   * @param y1  y-coordinate of the start of the line.
+   * @param x2  x-coordinate of the end of the line.
+   * @param y2  y-coordinate of the end of the line.
+   * @return a string representing the SVG line.
+   */
+  public String line(String cls, int x1, int y1, int x2, int y2) {
+    return "<line class=\"%s\" x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\"/>".formatted(cls, x1, y1, x2,
+        y2);
+  }
+
+  /**
+   * Emits SVG code for a rectangle.
+   *
+   * @param cls    CSS class of the rectangle.
+   * @param x      x-coordinate of the top-left corner.
+   * @param y      y-coordinate of the top-left corner.
+   * @param width  width of the rectangle.
+   * @param height height of the rectangle.
+   * @return a string representing the SVG rectangle.
+   */
+  public String rect(String cls, int x, int y, int width, int height) {
+    return "<rect class=\"%s\" x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\"/>".formatted(cls, x, y,
+        width, height);
+  }
+
+  /**
+   * Emits SVG code for a closed polygon.
+   *
+   * @param cls    CSS class of the polygon.
+   * @param points alternating x- and y-coordinates of the polygon's points.
+   * @return a string representing the SVG polygon.
+   */
+  public String polygon(String cls, int... points) {
+    final var sb = new StringBuilder();
+    for (var i = 0; i + 1 < points.length; i += 2) {
+      if (0 < i) {
+        sb.append(' ');
+      }
+      sb.append(points[i]).append(',').append(points[i + 1]);
+    }
+    return "<polygon class=\"%s\" points=\"%s\"/>".formatted(cls, sb);
+  }
+
+  /**
+   * Emits SVG code for a piece of text.
+   *
+   * @param cls     CSS class of the text (which should set its anchoring).
+   * @param x       x-coordinate of the text anchor.
+   * @param y       y-coordinate of the text baseline.
+   * @param content the text, which will be escaped.
+   * @return a string representing the SVG text.
+   */
+  public String text(String cls, int x, int y, String content) {
+    return "<text class=\"%s\" x=\"%d\" y=\"%d\">%s</text>".formatted(cls, x, y,
+        XmlEscapers.xmlContentEscaper().escape(content));
+  }
+
+  /**
+   * Estimates the width of a piece of text.
+   * <p>
+   * We don't have font metrics to hand, so this assumes the average character width of the
+   * diagram font.
+   *
+   * @param content the text to measure.
+   * @return an estimate of its width, in pixels.
+   */
+  public int textWidth(String content) {
+    return content.length() * 7;
+  }
+}
@@ -11,44 +11,134 @@
 package robostar.robocert.textual.generator.tikz;
 
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.xtext.generator.IFileSystemAccess2;
 import org.eclipse.xtext.generator.IGeneratorContext;
+import org.eclipse.xtext.generator.JavaIoFileSystemAccess;
+import org.eclipse.xtext.util.RuntimeIOException;
 
 import com.google.inject.Inject;
 
 import robostar.robocert.CertPackage;
+import robostar.robocert.Interaction;
 import robostar.robocert.SpecificationGroup;
 import robostar.robocert.textual.generator.RoboCertOutputConfigurationProvider;
+import robostar.robocert.textual.generator.tikz.diagram.DiagramFingerprint;
 import robostar.robocert.textual.generator.tikz.diagram.DiagramGenerator;
 import robostar.robocert.textual.generator.utils.PackageGenerator;
 import robostar.robocert.textual.generator.utils.name.GroupNamer;
 
 /**
  * Generates TikZ diagrams for a single {@link CertPackage}.
+ * <p>
+ * Diagrams whose fingerprint matches that recorded in their existing output are skipped, along with
+ * their standalone harnesses.  The remaining diagrams are rendered one at a time on the calling
+ * thread: rendering goes through the Xtext serialiser and attaches adapters to the model, neither
+ * of which is thread-safe.
+ * <p>
+ * If the diagram segmenter splits a diagram, each segment goes into its own numbered TikZ file, and
+ * the main TikZ file instead holds one externalisable picture per segment.  Segmented diagrams
+ * are therefore included with a plain {@code \input} rather than inside a {@code tikzpicture}.
+ * LaTeX resolves {@code \input} against its working directory rather than against the including
+ * file, so the main file names its segments relative to {@code \robocertdiagramdir}, which
+ * documents should set to the location of the diagram output directory.
  *
  * @param gn   synthesises names for CertPackages.
  * @param dGen generates TikZ for diagrams.
+ * @param fp   computes diagram fingerprints.
  * @author Matt Windsor
  */
-public record CertPackageGenerator(GroupNamer gn, DiagramGenerator dGen) implements
-    PackageGenerator {
+public record CertPackageGenerator(GroupNamer gn, DiagramGenerator dGen,
+                                   DiagramFingerprint fp) implements PackageGenerator {
+
+  private static final Pattern SEGMENT_INPUT = Pattern.compile(
+      "\\\\input\\{\\\\robocertdiagramdir/([^}]+\\.tikz)}");
 
   /**
    * Constructs a tock-CSP generator.
    *
-   * @param gn synthesises names for CertPackages.
+   * @param gn   synthesises names for CertPackages.
+   * @param dGen generates TikZ for diagrams.
+   * @param fp   computes diagram fingerprints.
    */
   @Inject
   public CertPackageGenerator {
     Objects.requireNonNull(gn);
     Objects.requireNonNull(dGen);
+    Objects.requireNonNull(fp);
   }
 
   @Override
-  public void generate(IFileSystemAccess2 fsa, IGeneratorContext context, CertPackage pkg) {
+  public void generate(IFileSystemAccess2 fsa, IGeneratorContext context, CertPackage pkg,
+      IProgressMonitor monitor) {
+    final var jobs = jobs(pkg);
+    final var sub = SubMonitor.convert(monitor, jobs.size());
+
+    for (var job : jobs) {
+      sub.split(1);
+      if (isUpToDate(fsa, job)) {
+        retain(fsa, job);
+      } else {
+        write(fsa, job, dGen.generateSegments(job.diagram()));
+      }
+    }
+  }
+
+  private void write(IFileSystemAccess2 fsa, Job job, List<CharSequence> segments) {
+    final var out = RoboCertOutputConfigurationProvider.TIKZ_OUTPUT;
+    final var name = job.diagram().getName();
+    final var header = fp.header(job.fingerprint());
+
+    if (segments.size() == 1) {
+      fsa.generateFile(job.stem() + ".tikz", out, String.join("\n", header, segments.get(0)));
+      fsa.generateFile(job.stem() + ".tex", out, standalone(name, false));
+      return;
+    }
+
+    for (var i = 0; i < segments.size(); i++) {
+      fsa.generateFile(segmentStem(job.stem(), i) + ".tikz", out, segments.get(i));
+    }
+    fsa.generateFile(job.stem() + ".tikz", out,
+        String.join("\n", header, segmentIndex(job.stem(), segments.size())));
+    fsa.generateFile(job.stem() + ".tex", out, standalone(name, true));
+  }
+
+  private static String segmentStem(String stem, int index) {
+    return "%s-%d".formatted(stem, index + 1);
+  }
+
+  /**
+   * Emits the main file of a segmented diagram, which draws each segment as its own picture.
+   *
+   * @param stem  the output path of the diagram, without extension.
+   * @param count number of segments.
+   * @return LaTeX code for the main file.
+   */
+  private static String segmentIndex(String stem, int count) {
+    // Externalised pictures need names that are unique across the whole document.
+    final var external = stem.replace('/', '-');
+
+    final var sb = new StringBuilder();
+    for (var i = 0; i < count; i++) {
+      sb.append("""
+          \\tikzsetnextfilename{%s}
+          \\begin{tikzpicture}
+            \\input{\\robocertdiagramdir/%s.tikz}
+          \\end{tikzpicture}
+          """.formatted(segmentStem(external, i), segmentStem(stem, i)));
+    }
+    return sb.toString();
+  }
+
+  private List<Job> jobs(CertPackage pkg) {
     final var pkgName = gn.getPackageName(pkg);
+    final var result = new ArrayList<Job>();
 
     for (var cgroup : pkg.getGroups()) {
       if (!(cgroup instanceof SpecificationGroup group)) {
@@ -58,25 +148,95 @@ public record CertPackageGenerator(GroupNamer gn, DiagramGenerator dGen) impleme
       final var groupName = gn.getOrSynthesiseName(group);
 
       for (var diagram : group.getInteractions()) {
-        final var diagramName = diagram.getName();
+        final var stem = "%s/%s/%s".formatted(pkgName, groupName, diagram.getName());
+        result.add(new Job(stem, diagram, fp.fingerprint(diagram)));
+      }
+    }
 
-        final var stem = "%s/%s/%s".formatted(pkgName, groupName, diagramName);
+    return result;
+  }
 
-        fsa.generateFile(stem + ".tikz", RoboCertOutputConfigurationProvider.TIKZ_OUTPUT,
-            dGen.generate(diagram));
-        fsa.generateFile(stem + ".tex", RoboCertOutputConfigurationProvider.TIKZ_OUTPUT,
-            standalone(diagramName));
+  private boolean isUpToDate(IFileSystemAccess2 fsa, Job job) {
+    final var out = RoboCertOutputConfigurationProvider.TIKZ_OUTPUT;
+    final var tikz = job.stem() + ".tikz";
+    try {
+      if (!(fsa.isFile(tikz, out) && fsa.isFile(job.stem() + ".tex", out))) {
+        return false;
       }
+      final var existing = fsa.readTextFile(tikz, out);
+      return fp.matches(existing, job.fingerprint()) && segmentPaths(existing).stream()
+          .allMatch(p -> fsa.isFile(p, out));
+    } catch (RuntimeIOException e) {
+      return false;
+    }
+  }
+
+  private void retain(IFileSystemAccess2 fsa, Job job) {
+    // Plain filesystem access rewrites files unconditionally, so we leave them be.  The Eclipse
+    // builder deletes derived files that a build doesn't regenerate, but skips writing files whose
+    // contents are unchanged; there, we re-emit the existing output so that it survives.
+    if (fsa instanceof JavaIoFileSystemAccess) {
+      return;
+    }
+
+    final var out = RoboCertOutputConfigurationProvider.TIKZ_OUTPUT;
+    final var tikz = job.stem() + ".tikz";
+    final var paths = new ArrayList<String>(List.of(tikz, job.stem() + ".tex"));
+    paths.addAll(segmentPaths(fsa.readTextFile(tikz, out)));
+
+    for (var path : paths) {
+      fsa.generateFile(path, out, fsa.readTextFile(path, out));
+    }
+  }
+
+  /**
+   * Finds the segment files named by the main file of a diagram.
+   *
+   * @param tikz the contents of the diagram's main TikZ file.
+   * @return the output paths of the diagram's segments (empty if it isn't segmented).
+   */
+  private static List<String> segmentPaths(CharSequence tikz) {
+    final var inputs = SEGMENT_INPUT.matcher(tikz);
+
+    final var result = new ArrayList<String>();
+    while (inputs.find()) {
+      result.add(inputs.group(1));
     }
+    return result;
+  }
+
+  /**
+   * A diagram awaiting generation.
+   *
+   * @param stem        the output path, without extension.
+   * @param diagram     the interaction to draw.
+   * @param fingerprint the fingerprint of the interaction.
+   */
+  private record Job(String stem, Interaction diagram, String fingerprint) {
+
   }
 
   /**
    * Emits a standalone diagram harness.
    *
-   * @param name name of the diagram TikZ file to include into the document.
+   * @param name      name of the diagram TikZ file to include into the document.
+   * @param segmented whether the diagram was split into segments (each of which becomes a page).
    * @return a standalone diagram harness, in LaTeX.
    */
-  private CharSequence standalone(String name) {
+  private CharSequence standalone(String name, boolean segmented) {
+    if (segmented) {
+      // The harness sits two levels below the diagram output directory.
+      return """
+          \\documentclass[tikz]{standalone}
+          \\usepackage{xparse}
+          \\newcommand{\\robocertdiagramdir}{../..}
+          \\input{../../../lib/defs}
+
+          \\begin{document}
+            \\input{%s.tikz}
+          \\end{document}""".formatted(name);
+    }
+
     return """
         \\documentclass[tikz]{standalone}
         \\usepackage{xparse}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.tikz.diagram;
+
+import java.util.Objects;
+import robostar.robocert.textual.generator.tikz.matrix.DiagramRow;
+import robostar.robocert.textual.generator.tikz.matrix.EdgeColumn;
+import robostar.robocert.textual.generator.tikz.util.InteractionFlattener.EventType;
+import robostar.robocert.textual.generator.tikz.util.Renderable;
+
+/**
+ * A marker showing that a segmented diagram continues from, or onto, another segment.
+ *
+ * @param position whether this marker sits at the top (entry) or bottom (exit) of the segment.
+ * @param part     the number of this segment, starting from 1.
+ * @param parts    the total number of segments.
+ * @author Matt Windsor
+ */
+public record ContinuationMarker(EventType position, int part, int parts) implements Renderable {
+
+  public ContinuationMarker {
+    Objects.requireNonNull(position);
+  }
+
+  @Override
+  public String render(Renderable.Context ctx) {
+    final var cell = ctx.cellName(new DiagramRow(position), EdgeColumn.Gutter);
+    final var name = position == EventType.Entered ? "rccontinued" : "rccontinues";
+    return ctx.tikz().command(name).argument(cell).argument(Integer.toString(part))
+        .argument(Integer.toString(parts)).render();
+  }
+}
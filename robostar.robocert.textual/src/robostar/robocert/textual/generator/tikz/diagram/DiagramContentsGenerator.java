@@ -11,8 +11,9 @@
 package robostar.robocert.textual.generator.tikz.diagram;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Stream;
 import robostar.robocert.Interaction;
 import robostar.robocert.MessageOccurrence;
@@ -20,30 +21,41 @@ import robostar.robocert.OccurrenceFragment;
 import robostar.robocert.World;
 import robostar.robocert.textual.generator.tikz.frame.FrameGenerator;
 import robostar.robocert.textual.generator.tikz.frame.NestedFrame;
-import robostar.robocert.textual.generator.tikz.matrix.Cell;
-import robostar.robocert.textual.generator.tikz.matrix.CellAlias;
+import robostar.robocert.textual.generator.tikz.matrix.Column;
 import robostar.robocert.textual.generator.tikz.matrix.CombinedFragmentRow;
 import robostar.robocert.textual.generator.tikz.matrix.OccurrenceRow;
 import robostar.robocert.textual.generator.tikz.matrix.Row;
 import robostar.robocert.textual.generator.tikz.matrix.RowGenerator;
 import robostar.robocert.textual.generator.tikz.message.LifelineMessage;
+import robostar.robocert.textual.generator.tikz.diagram.DiagramSegmenter.Segment;
 import robostar.robocert.textual.generator.tikz.util.InteractionFlattener;
+import robostar.robocert.textual.generator.tikz.util.InteractionFlattener.Event;
 import robostar.robocert.textual.generator.tikz.util.InteractionFlattener.EventType;
 import robostar.robocert.textual.generator.tikz.util.Renderable;
 
 /**
  * Assembles an intermediate form of the TikZ diagram, ready to be turned into code.
+ * <p>
+ * This consumes the flattened interaction in one pass: each event is turned into its row, frame,
+ * branch split and message as it arrives, and redundant rows are merged as they are produced.
+ * <p>
+ * Merging is structural: a merged row never reaches the matrix, and instead shares the coordinates
+ * of the row into which it was merged (see {@link #canonical(Row)}).
  *
  * @author Matt Windsor
  */
 public class DiagramContentsGenerator {
 
   private List<Lifeline> lifelines = new ArrayList<>();
-  private List<List<Cell>> matrixRows = new ArrayList<>();
+  private List<Column> columns = new ArrayList<>();
+  private final List<Row> matrixRows = new ArrayList<>();
   private final List<NestedFrame> frames = new ArrayList<>();
   private final List<BranchSplit> branchSplits = new ArrayList<>();
   private final List<LifelineMessage> messages = new ArrayList<>();
-  private final List<CellAlias> aliases = new ArrayList<>();
+  private final List<ContinuationMarker> markers = new ArrayList<>();
+  private final Map<Row, Row> merged = new HashMap<>();
+  private final Map<Row, Integer> rowIndices = new HashMap<>();
+  private Row lastRow = null;
   private int outerDepthScale = 0;
 
   private final FrameGenerator frameGen;
@@ -60,28 +72,45 @@ public class DiagramContentsGenerator {
    * @param it interaction from which we are populating the state.
    */
   public void generate(Interaction it) {
+    generate(it, new Segment(0, it.getFragments().size(), 0, 1));
+  }
+
+  /**
+   * Populates intermediate diagram state for one segment of a diagram.
+   *
+   * @param it      interaction from which we are populating the state.
+   * @param segment the segment of the interaction to populate.
+   */
+  public void generate(Interaction it, Segment segment) {
     lifelines = it.getActors().stream().filter(x -> !(x instanceof World))
         .map(Lifeline::new).toList();
+    columns = rowGen.columns(lifelines);
 
-    final var unwound = new InteractionFlattener(it).unwind();
-    outerDepthScale = unwound.maxDepth();
+    outerDepthScale = new InteractionFlattener(it).unwind(this::accept, segment.from(),
+        segment.to());
 
-    for (var entry : unwound.events()) {
-      // TODO(@MattWindsor91): normalise these generators, possibly.
-      rowGen.generate(entry, lifelines).ifPresent(matrixRows::add);
-      frameGen.generate(entry).ifPresent(frames::add);
+    final var part = segment.index() + 1;
+    if (segment.isContinuation()) {
+      markers.add(new ContinuationMarker(EventType.Entered, part, segment.count()));
+    }
+    if (segment.isContinued()) {
+      markers.add(new ContinuationMarker(EventType.Exited, part, segment.count()));
+    }
+  }
 
-      if (entry.isBranchSplit()) {
-        branchSplits.add(new BranchSplit(entry.id(), entry.depth()));
-      }
-      if (entry.subject() instanceof OccurrenceFragment o) {
-        if (o.getOccurrence() instanceof MessageOccurrence m) {
-          messages.add(new LifelineMessage(m, entry.id()));
-        }
+  private void accept(Event entry) {
+    // TODO(@MattWindsor91): normalise these generators, possibly.
+    rowGen.generate(entry).ifPresent(this::addRow);
+    frameGen.generate(entry).ifPresent(frames::add);
+
+    if (entry.isBranchSplit()) {
+      branchSplits.add(new BranchSplit(entry.id(), entry.depth()));
+    }
+    if (entry.subject() instanceof OccurrenceFragment o) {
+      if (o.getOccurrence() instanceof MessageOccurrence m) {
+        messages.add(new LifelineMessage(m, entry.id()));
       }
     }
-
-    flattenRows();
   }
 
   /**
@@ -91,39 +120,22 @@ public class DiagramContentsGenerator {
    */
   public Stream<Stream<Renderable>> contents() {
     // the x -> x is used for type upcasting
-    return Stream.of(aliases.stream().map(x -> x), lifelines.stream().map(x -> x), frames.stream().map(x -> x),
-        branchSplits.stream().map(x -> x), messages.stream().map(x -> x));
-  }
-
-  private void flattenRows() {
-    final var newRows = new ArrayList<List<Cell>>(matrixRows.size());
-
-    // TODO(@MattWindsor91): clean this up!!
-    List<Cell> lastRlist = null;
-    Optional<Row> lastRow = Optional.empty();
-    for (var rlist : matrixRows) {
-      final var row = extractRow(rlist);
-      var skipped = false;
-
-      if (lastRow.isPresent()) {
-        if (row.isPresent()) {
-          if (shouldMerge(lastRow.get(), row.get())) {
-            for (var i = 0; i < rlist.size(); i++) {
-              aliases.add(new CellAlias(lastRlist.get(i), rlist.get(i)));
-            }
-            skipped = true;
-          }
-        }
-      }
+    return Stream.of(lifelines.stream().map(x -> x), frames.stream().map(x -> x),
+        branchSplits.stream().map(x -> x), messages.stream().map(x -> x),
+        markers.stream().map(x -> x));
+  }
 
-      if (!skipped) {
-        newRows.add(rlist);
-      }
-      lastRlist = rlist;
-      lastRow = row;
+  private void addRow(Row row) {
+    if (lastRow != null && shouldMerge(lastRow, row)) {
+      // Merged rows sit wherever the row they were merged into sits.
+      final var target = canonical(lastRow);
+      merged.put(row, target);
+      rowIndices.put(row, rowIndices.get(target));
+    } else {
+      rowIndices.put(row, matrixRows.size());
+      matrixRows.add(row);
     }
-
-    matrixRows = newRows;
+    lastRow = row;
   }
 
   private static boolean shouldMerge(Row last, Row current) {
@@ -147,13 +159,6 @@ public class DiagramContentsGenerator {
     return isEntryMerger || isDoubleExit;
   }
 
-  private Optional<Row> extractRow(List<Cell> rlist) {
-    if (rlist.isEmpty()) {
-      return Optional.empty();
-    }
-    return Optional.of(rlist.get(0).row());
-  }
-
   /**
    * @return the outer depth scale.
    */
@@ -164,7 +169,65 @@ public class DiagramContentsGenerator {
   /**
    * @return the matrix rows.
    */
-  public List<List<Cell>> matrixRows() {
+  public List<Row> matrixRows() {
     return matrixRows;
   }
+
+  /**
+   * @return the matrix columns, shared by every row.
+   */
+  public List<Column> columns() {
+    return columns;
+  }
+
+  /**
+   * Gets the row whose coordinates a row shares.
+   *
+   * @param row the row to look up.
+   * @return the row into which {@code row} was merged, or {@code row} itself if it was not merged.
+   */
+  public Row canonical(Row row) {
+    return merged.getOrDefault(row, row);
+  }
+
+  /**
+   * Gets the index of the matrix row on which a row is drawn.
+   * <p>
+   * Rows that have been merged into their predecessors report the index of the row into which
+   * they were merged.
+   *
+   * @param row the row to look up.
+   * @return the index of the row in {@link #matrixRows()}, or -1 if the row is not in the matrix.
+   */
+  public int rowIndex(Row row) {
+    return rowIndices.getOrDefault(row, -1);
+  }
+
+  /**
+   * @return the lifelines.
+   */
+  public List<Lifeline> lifelines() {
+    return lifelines;
+  }
+
+  /**
+   * @return the frames, outermost first.
+   */
+  public List<NestedFrame> frames() {
+    return frames;
+  }
+
+  /**
+   * @return the branch splits.
+   */
+  public List<BranchSplit> branchSplits() {
+    return branchSplits;
+  }
+
+  /**
+   * @return the messages.
+   */
+  public List<LifelineMessage> messages() {
+    return messages;
+  }
 }
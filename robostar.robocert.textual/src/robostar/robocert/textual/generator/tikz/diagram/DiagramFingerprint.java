@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.tikz.diagram;
+
+import circus.robocalc.robochart.NamedElement;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.serializer.ISerializer;
+import robostar.robocert.Interaction;
+import robostar.robocert.SpecificationGroup;
+import robostar.robocert.util.resolve.TargetElementResolver;
+
+/**
+ * Computes content fingerprints for diagrams, so that unchanged diagrams need not be regenerated.
+ * <p>
+ * The fingerprint covers everything that goes into a diagram: the source text of the interaction,
+ * of its group's actors and target, and of the RoboChart resources holding the target element and
+ * anything it refers to (as these decide lifelines and message labels).  It also covers a format
+ * version, which should be bumped whenever the TikZ output changes shape, and the segmentation
+ * limit.  Fingerprints are stored in the first line of the generated TikZ file.
+ *
+ * @param ser       Xtext serializer, used for elements without a node model.
+ * @param segmenter diagram segmenter, whose settings affect the output.
+ * @param ter       resolves the RoboChart elements named by targets.
+ * @author Matt Windsor
+ */
+public record DiagramFingerprint(ISerializer ser, DiagramSegmenter segmenter,
+                                 TargetElementResolver ter) {
+
+  /**
+   * Version of the TikZ output format, mixed into every fingerprint.
+   */
+  public static final int FORMAT_VERSION = 4;
+
+  private static final String PREFIX = "% robocert-fingerprint: ";
+
+  /**
+   * Constructs a diagram fingerprinter.
+   *
+   * @param ser       Xtext serializer, used for elements without a node model.
+   * @param segmenter diagram segmenter, whose settings affect the output.
+   * @param ter       resolves the RoboChart elements named by targets.
+   */
+  @Inject
+  public DiagramFingerprint {
+    Objects.requireNonNull(ser);
+    Objects.requireNonNull(segmenter);
+    Objects.requireNonNull(ter);
+  }
+
+  /**
+   * Computes the fingerprint of an interaction.
+   *
+   * @param it the interaction to fingerprint.
+   * @return the fingerprint, as a hex string.
+   */
+  public String fingerprint(Interaction it) {
+    final var group = it.getGroup();
+    final var target = group == null ? null : group.getTarget();
+
+    final var hasher = Hashing.sha256().newHasher();
+    hasher.putInt(FORMAT_VERSION);
+    hasher.putInt(Math.max(0, segmenter.maxRows(it.eResource())));
+    hasher.putString(text(it), StandardCharsets.UTF_8);
+    if (group != null) {
+      for (var actor : group.getActors()) {
+        hasher.putString(text(actor), StandardCharsets.UTF_8);
+      }
+    }
+    hasher.putString(text(target), StandardCharsets.UTF_8);
+    for (var r : targetResources(group).values()) {
+      hasher.putString(r.getURI().toString(), StandardCharsets.UTF_8);
+      hasher.putBytes(contents(r));
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Gets the resources holding a group's target element and anything it refers to directly.
+   *
+   * @param group the group (may be null).
+   * @return the resources, keyed and ordered by URI so that the fingerprint is stable.
+   */
+  private TreeMap<String, Resource> targetResources(SpecificationGroup group) {
+    final var result = new TreeMap<String, Resource>(Comparator.naturalOrder());
+    if (group == null || group.getTarget() == null) {
+      return result;
+    }
+    final NamedElement elt;
+    try {
+      elt = ter.resolve(group.getTarget());
+    } catch (RuntimeException e) {
+      // Broken targets fail generation anyway, so there is nothing to keep up to date.
+      return result;
+    }
+    if (elt == null || elt.eIsProxy() || elt.eResource() == null) {
+      return result;
+    }
+
+    result.put(elt.eResource().getURI().toString(), elt.eResource());
+    for (var ref : EcoreUtil.ExternalCrossReferencer.find(elt).keySet()) {
+      final var r = ref.eResource();
+      if (r != null) {
+        result.putIfAbsent(r.getURI().toString(), r);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets the source of a resource, preferring its parse tree to the file on disk.
+   * <p>
+   * Resources restored from the binary cache have no parse tree, so we read those back in; if that
+   * fails, the fingerprint just won't match, and the diagram is regenerated.
+   */
+  private byte[] contents(Resource r) {
+    if (r instanceof XtextResource x && x.getParseResult() != null) {
+      return x.getParseResult().getRootNode().getText().getBytes(StandardCharsets.UTF_8);
+    }
+    final var set = r.getResourceSet();
+    final var conv = set == null ? URIConverter.INSTANCE : set.getURIConverter();
+    try (var in = conv.createInputStream(r.getURI())) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      return UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Produces the header line recording a fingerprint in a TikZ file.
+   *
+   * @param fingerprint the fingerprint.
+   * @return a TikZ comment line (without trailing newline).
+   */
+  public String header(String fingerprint) {
+    return PREFIX + fingerprint;
+  }
+
+  /**
+   * Checks whether existing TikZ output was generated from content with the given fingerprint.
+   *
+   * @param existing    the existing TikZ file contents.
+   * @param fingerprint the fingerprint of the current content.
+   * @return true if the existing output starts with the header for {@code fingerprint}.
+   */
+  public boolean matches(CharSequence existing, String fingerprint) {
+    return existing.toString().startsWith(header(fingerprint));
+  }
+
+  private String text(EObject obj) {
+    if (obj == null) {
+      return "";
+    }
+    final var node = NodeModelUtils.findActualNodeFor(obj);
+    return node == null ? ser.serialize(obj) : node.getText();
+  }
+}
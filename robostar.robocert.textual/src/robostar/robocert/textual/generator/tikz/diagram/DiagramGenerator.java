@@ -15,13 +15,18 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 
 import java.util.stream.Stream;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.xtext.serializer.ISerializer;
 
 import com.google.inject.Inject;
 
 import robostar.robocert.Interaction;
+import robostar.robocert.textual.generator.tikz.diagram.DiagramSegmenter.Segment;
 import robostar.robocert.textual.generator.tikz.frame.FrameGenerator;
 import robostar.robocert.textual.generator.tikz.matrix.Cell;
+import robostar.robocert.textual.generator.tikz.matrix.Column;
+import robostar.robocert.textual.generator.tikz.matrix.Row;
 import robostar.robocert.textual.generator.tikz.matrix.RowGenerator;
 import robostar.robocert.textual.generator.tikz.util.Renderable;
 import robostar.robocert.textual.generator.tikz.util.TikzStructureGenerator;
@@ -31,12 +36,14 @@ import robostar.robocert.textual.generator.tikz.util.TikzStructureGenerator;
  *
  * @param tikz        TikZ structure generator.
  * @param ser         Xtext serializer (used for expression languages).
- * @param contentsGen diagram contents generator.
+ * @param frameGen    generates frames for the diagram contents.
+ * @param rowGen      generates rows for the diagram contents.
+ * @param segmenter   splits long diagrams into segments.
  * @author Matt Windsor
  */
 public record DiagramGenerator(TikzStructureGenerator tikz, ISerializer ser,
-                               FrameGenerator frameGen, RowGenerator rowGen
-                               ) {
+                               FrameGenerator frameGen, RowGenerator rowGen,
+                               DiagramSegmenter segmenter) {
 
   @Inject
   public DiagramGenerator {
@@ -44,6 +51,7 @@ public record DiagramGenerator(TikzStructureGenerator tikz, ISerializer ser,
     Objects.requireNonNull(ser);
     Objects.requireNonNull(frameGen);
     Objects.requireNonNull(rowGen);
+    Objects.requireNonNull(segmenter);
   }
 
   public static final String HEADING = """
@@ -59,22 +67,58 @@ public record DiagramGenerator(TikzStructureGenerator tikz, ISerializer ser,
    * @return the generated TikZ code (to include within TeX).
    */
   public CharSequence generate(Interaction it) {
+    return generate(it, null);
+  }
+
+  /**
+   * Generates TikZ for a diagram, reporting progress and checking for cancellation.
+   * <p>
+   * The monitor is advanced after layout, after the matrix, and after each content group.
+   *
+   * @param it      interaction diagram to generate.
+   * @param monitor the progress monitor (may be null).
+   * @return the generated TikZ code (to include within TeX).
+   */
+  public CharSequence generate(Interaction it, IProgressMonitor monitor) {
+    return generate(it, new Segment(0, it.getFragments().size(), 0, 1), monitor);
+  }
+
+  /**
+   * Generates TikZ for each segment of a diagram.
+   * <p>
+   * Unless the segmenter is configured to split diagrams, this yields exactly one segment holding
+   * the whole diagram.
+   *
+   * @param it interaction diagram to generate.
+   * @return the generated TikZ code for each segment, in order.
+   */
+  public List<CharSequence> generateSegments(Interaction it) {
+    return segmenter.segments(it).stream().map(s -> generate(it, s, null)).toList();
+  }
+
+  private CharSequence generate(Interaction it, Segment segment, IProgressMonitor monitor) {
     // We treat the World separately -- it always appears at the end of a row.
+    final var sub = SubMonitor.convert(monitor, 3);
 
     final var state = new DiagramContentsGenerator(frameGen, rowGen);
-    state.generate(it);
+    state.generate(it, segment);
+    sub.split(1);
 
     final String matrix = renderMatrix(state);
+    sub.split(1);
 
-    final var contents = state.contents()
-        .map(grp -> renderContentGroup(grp, state.outerDepthScale()))
-        .collect(Collectors.joining("\n\n"));
+    final var groups = state.contents().toList();
+    final var groupMonitor = sub.split(1).setWorkRemaining(groups.size());
+    final var contents = groups.stream().map(grp -> {
+      groupMonitor.split(1);
+      return renderContentGroup(grp, state);
+    }).collect(Collectors.joining("\n\n"));
 
     return String.join("\n\n", HEADING, matrix, contents);
   }
 
-  private String renderContentGroup(Stream<Renderable> grp, int topLevel) {
-    final var ctx = new Renderable.Context(tikz, ser, topLevel);
+  private String renderContentGroup(Stream<Renderable> grp, DiagramContentsGenerator state) {
+    final var ctx = new Renderable.Context(tikz, ser, state.outerDepthScale(), state::canonical);
     return grp.map(s -> s.render(ctx)).collect(Collectors.joining("\n"));
   }
 
@@ -83,12 +127,24 @@ public record DiagramGenerator(TikzStructureGenerator tikz, ISerializer ser,
         state.outerDepthScale());
     final var prefix = "\\matrix[%s]{\n".formatted(style);
 
-    return state.matrixRows().stream().map(this::renderMatrixRow)
-        .collect(Collectors.joining("\n", prefix, "\n};"));
+    final var columns = state.columns();
+    final var sb = new StringBuilder(prefix);
+    for (var row : state.matrixRows()) {
+      renderMatrixRow(sb, row, columns);
+    }
+    return sb.append("};").toString();
   }
 
-  private String renderMatrixRow(List<Cell> row) {
-    return row.stream().map(x -> x.render(tikz))
-        .collect(Collectors.joining(" & ", "  ", " \\\\"));
+  private void renderMatrixRow(StringBuilder sb, Row row, List<Column> columns) {
+    sb.append("  ");
+    var first = true;
+    for (var column : columns) {
+      if (!first) {
+        sb.append(" & ");
+      }
+      first = false;
+      sb.append(new Cell(row, column).render(tikz));
+    }
+    sb.append(" \\\\\n");
   }
 }
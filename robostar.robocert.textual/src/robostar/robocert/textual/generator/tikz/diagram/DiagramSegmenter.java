@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.tikz.diagram;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.preferences.IPreferenceValuesProvider;
+import org.eclipse.xtext.preferences.PreferenceKey;
+import robostar.robocert.Interaction;
+import robostar.robocert.textual.generator.tikz.matrix.RowGenerator;
+import robostar.robocert.textual.generator.tikz.util.InteractionFlattener;
+import robostar.robocert.textual.generator.tikz.util.InteractionFlattener.EventType;
+
+/**
+ * Splits long diagrams into page-sized segments at top-level fragment boundaries.
+ * <p>
+ * Segmentation is off by default; it is switched on by setting a positive maximum number of matrix
+ * rows per segment.  The maximum comes from {@link #setMaxRows(Integer)} (which the command line
+ * uses) or the {@value #MAX_ROWS_PROPERTY} system property if either was given, and from the
+ * {@link #MAX_ROWS} preference otherwise.  Top-level fragments are never split, so a single
+ * fragment larger than the limit gets a segment of its own.
+ *
+ * @author Matt Windsor
+ */
+@Singleton
+public class DiagramSegmenter {
+
+  /**
+   * System property from which the initial maximum number of rows is taken.
+   */
+  public static final String MAX_ROWS_PROPERTY = "robocert.tikz.maxRows";
+
+  /**
+   * Preference holding the maximum number of matrix rows per segment.
+   */
+  public static final PreferenceKey MAX_ROWS = new PreferenceKey("robocert.tikz.maxRows", "0");
+
+  private final RowGenerator rowGen;
+  private final IPreferenceValuesProvider preferences;
+  private volatile Integer override = Integer.getInteger(MAX_ROWS_PROPERTY);
+
+  /**
+   * Constructs a diagram segmenter.
+   *
+   * @param rowGen      used to count the rows each fragment will produce.
+   * @param preferences provider of preference values, used to find the default maximum.
+   */
+  @Inject
+  public DiagramSegmenter(RowGenerator rowGen, IPreferenceValuesProvider preferences) {
+    this.rowGen = rowGen;
+    this.preferences = preferences;
+  }
+
+  /**
+   * Gets the maximum number of matrix rows per segment for diagrams in a resource.
+   *
+   * @param r the resource holding the diagrams (may be null, in which case only an override or
+   *          the preference default applies).
+   * @return the maximum (0 or less disables segmentation).
+   */
+  public int maxRows(Resource r) {
+    final var rows = override;
+    if (rows != null) {
+      return rows;
+    }
+    final var pref = r == null ? MAX_ROWS.getDefaultValue()
+        : preferences.getPreferenceValues(r).getPreference(MAX_ROWS);
+    try {
+      return pref == null ? 0 : Integer.parseInt(pref.strip());
+    } catch (NumberFormatException e) {
+      // As with backend selection, we can't usefully complain about bad preferences here.
+      return 0;
+    }
+  }
+
+  /**
+   * Overrides the maximum number of matrix rows per segment, for instance from the command line.
+   *
+   * @param maxRows the new maximum (0 or less disables segmentation), or null to fall back to
+   *                preferences.
+   */
+  public void setMaxRows(Integer maxRows) {
+    this.override = maxRows;
+  }
+
+  /**
+   * Splits an interaction into segments.
+   *
+   * @param it the interaction to split.
+   * @return the segments, in order; there is always at least one.
+   */
+  public List<Segment> segments(Interaction it) {
+    final var limit = maxRows(it.eResource());
+    final var size = it.getFragments().size();
+    if (limit <= 0 || size == 0) {
+      return List.of(new Segment(0, size, 0, 1));
+    }
+
+    final var rows = rowCounts(it);
+
+    final var bounds = new ArrayList<int[]>();
+    var start = 0;
+    var used = 0;
+    for (var i = 0; i < size; i++) {
+      if (start < i && limit < used + rows[i]) {
+        bounds.add(new int[]{start, i});
+        start = i;
+        used = 0;
+      }
+      used += rows[i];
+    }
+    bounds.add(new int[]{start, size});
+
+    final var count = bounds.size();
+    final var result = new ArrayList<Segment>(count);
+    for (var i = 0; i < count; i++) {
+      result.add(new Segment(bounds.get(i)[0], bounds.get(i)[1], i, count));
+    }
+    return result;
+  }
+
+  /**
+   * Estimates the number of matrix rows each top-level fragment produces.
+   * <p>
+   * This doesn't account for row merging, so it errs on the side of smaller segments.
+   *
+   * @param it the interaction to measure.
+   * @return the row count for each top-level fragment, by index.
+   */
+  private int[] rowCounts(Interaction it) {
+    final var rows = new int[it.getFragments().size()];
+    final var current = new int[]{-1};
+
+    new InteractionFlattener(it).unwind(e -> {
+      // Top-level fragments are entered at depth 1, directly inside the diagram.
+      if (e.depth() == 1 && e.type() == EventType.Entered && e.subject().eContainer() == it) {
+        current[0]++;
+      }
+      if (0 <= current[0] && current[0] < rows.length && rowGen.generate(e).isPresent()) {
+        rows[current[0]]++;
+      }
+    });
+
+    return rows;
+  }
+
+  /**
+   * A run of top-level fragments drawn as one picture.
+   *
+   * @param from  index of the first top-level fragment in this segment.
+   * @param to    index one past the last top-level fragment in this segment.
+   * @param index index of this segment, starting from 0.
+   * @param count total number of segments in the diagram.
+   */
+  public record Segment(int from, int to, int index, int count) {
+
+    /**
+     * @return whether this segment follows another.
+     */
+    public boolean isContinuation() {
+      return 0 < index;
+    }
+
+    /**
+     * @return whether another segment follows this one.
+     */
+    public boolean isContinued() {
+      return index < count - 1;
+    }
+  }
+}
@@ -14,7 +14,6 @@ import org.eclipse.xtext.serializer.ISerializer;
 import robostar.robocert.Actor;
 import robostar.robocert.World;
 import robostar.robocert.textual.generator.tikz.matrix.ActorColumn;
-import robostar.robocert.textual.generator.tikz.matrix.Cell;
 import robostar.robocert.textual.generator.tikz.matrix.DiagramRow;
 import robostar.robocert.textual.generator.tikz.util.InteractionFlattener.EventType;
 import robostar.robocert.textual.generator.tikz.util.Renderable;
@@ -35,8 +34,8 @@ public record Lifeline(Actor actor) implements Renderable {
   @Override
   public String render(Renderable.Context ctx) {
     final var col = new ActorColumn(actor);
-    final var start = Cell.nameOf(new DiagramRow(EventType.Entered), col);
-    final var end = Cell.nameOf(new DiagramRow(EventType.Exited), col);
+    final var start = ctx.cellName(new DiagramRow(EventType.Entered), col);
+    final var end = ctx.cellName(new DiagramRow(EventType.Exited), col);
     return ctx.tikz().draw("rclifeline").to(start).to(end).render();
   }
 }
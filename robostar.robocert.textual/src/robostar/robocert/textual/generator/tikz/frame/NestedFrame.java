@@ -10,7 +10,6 @@
 
 package robostar.robocert.textual.generator.tikz.frame;
 
-import robostar.robocert.textual.generator.tikz.matrix.Cell;
 import robostar.robocert.textual.generator.tikz.matrix.EdgeColumn;
 import robostar.robocert.textual.generator.tikz.util.InteractionFlattener.EventType;
 import robostar.robocert.textual.generator.tikz.util.Renderable;
@@ -28,8 +27,8 @@ public record NestedFrame(Frame frame, int depth) implements Renderable {
   public String render(Renderable.Context ctx) {
     final var label = frame.generateLabel(ctx);
     return ctx.tikz().command("rcframe").argument(Integer.toString(ctx.depthOffset(depth)))
-        .argument(new Cell(frame.row(EventType.Entered), EdgeColumn.Gutter).name())
-        .argument(new Cell(frame.row(EventType.Exited), EdgeColumn.World).name()).argument(label)
+        .argument(ctx.cellName(frame.row(EventType.Entered), EdgeColumn.Gutter))
+        .argument(ctx.cellName(frame.row(EventType.Exited), EdgeColumn.World)).argument(label)
         .render();
   }
 }
@@ -10,10 +10,9 @@
 
 package robostar.robocert.textual.generator.tikz.matrix;
 
-import com.google.common.collect.Streams;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
 import robostar.robocert.CombinedFragment;
 import robostar.robocert.Interaction;
 import robostar.robocert.InteractionOperand;
@@ -36,45 +35,53 @@ import robostar.robocert.util.RoboCertSwitch;
 public class RowGenerator {
 
   /**
-   * Generates a row as a list of cells.
+   * Generates the columns of the matrix.
+   * <p>
+   * Every row spans the same columns, so cells are never stored; they are formed from a row and a
+   * column when needed.
    *
-   * @param event  event for which we are generating a row.
    * @param lifelines list of non-World actors participating in the interaction.
+   * @return the columns, from the gutter through each lifeline to the world.
+   */
+  public List<Column> columns(List<Lifeline> lifelines) {
+    final var columns = new ArrayList<Column>(lifelines.size() + 2);
+    columns.add(EdgeColumn.Gutter);
+    for (var lifeline : lifelines) {
+      columns.add(new ActorColumn(lifeline.actor()));
+    }
+    columns.add(EdgeColumn.World);
+    return columns;
+  }
+
+  /**
+   * Generates a row.
+   *
+   * @param event event for which we are generating a row.
    * @return the row, if one is indeed generatable for this event.
    */
-  public Optional<List<Cell>> generate(Event event, List<Lifeline> lifelines) {
-    return Optional.ofNullable(new RoboCertSwitch<Stream<Cell>>() {
+  public Optional<Row> generate(Event event) {
+    return Optional.ofNullable(new RoboCertSwitch<Row>() {
       @Override
-      public Stream<Cell> caseInteraction(Interaction object) {
-        return makeRow(new DiagramRow(event.type()));
+      public Row caseInteraction(Interaction object) {
+        return new DiagramRow(event.type());
       }
 
       @Override
-      public Stream<Cell> caseCombinedFragment(CombinedFragment object) {
-        return makeRow(new CombinedFragmentRow(event.type(), event.id()));
+      public Row caseCombinedFragment(CombinedFragment object) {
+        return new CombinedFragmentRow(event.type(), event.id());
       }
 
       @Override
-      public Stream<Cell> caseInteractionOperand(InteractionOperand object) {
+      public Row caseInteractionOperand(InteractionOperand object) {
         // Emit branch separators if this is an entry into an interaction operand that is not the
         // first such operand in its parent.
-        return event.isBranchSplit() ? makeRow(new BranchRow(event.id())) : null;
+        return event.isBranchSplit() ? new BranchRow(event.id()) : null;
       }
 
       @Override
-      public Stream<Cell> caseOccurrenceFragment(OccurrenceFragment object) {
-        return makeRow(new OccurrenceRow(event.id()));
+      public Row caseOccurrenceFragment(OccurrenceFragment object) {
+        return new OccurrenceRow(event.id());
       }
-
-      private Stream<Cell> makeRow(Row row) {
-        final var actorCells = lifelines.stream().map(a -> new Cell(row, new ActorColumn(a.actor())));
-
-        final var left = new Cell(row, EdgeColumn.Gutter);
-        final var right = new Cell(row, EdgeColumn.World);
-
-        return Streams.concat(Stream.of(left), actorCells, Stream.of(right));
-      }
-    }.doSwitch(event.subject())).map(Stream::toList);
+    }.doSwitch(event.subject()));
   }
-
 }
@@ -43,7 +43,12 @@ public record Topic(MessageTopic topic) implements Renderable {
     };
   }
 
-  private String topicName() {
+  /**
+   * Gets the undecorated name of the topic.
+   *
+   * @return the name of the operation or event(s) forming this topic.
+   */
+  public String topicName() {
     return new RoboCertSwitch<String>() {
       @Override
       public String defaultCase(EObject e) {
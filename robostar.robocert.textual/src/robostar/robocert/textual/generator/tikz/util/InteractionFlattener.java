@@ -10,13 +10,11 @@
 
 package robostar.robocert.textual.generator.tikz.util;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
-import java.util.Map;
 import org.eclipse.emf.ecore.EObject;
 
 import robostar.robocert.BlockFragment;
@@ -31,37 +29,77 @@ import robostar.robocert.util.RoboCertSwitch;
  * recording information about depth, while also giving each item a unique sequential ID.
  * <p>
  * This is mostly useful for things like the TikZ generator, but is designed for generality.
+ * <p>
+ * IDs are dense and sequential, so the flattener keeps its bookkeeping in primitive arrays indexed
+ * by ID (or by depth) rather than in boxed collections.  Events can either be collected into a
+ * {@link Result}, or streamed to a sink as they occur so that callers can build their own
+ * structures in one pass.
  *
  * @author Matt Windsor
  */
 public class InteractionFlattener {
 
+  private static final int INITIAL_CAPACITY = 16;
+
   private final Interaction subject;
   private int maxDepth = 0;
   private int currentId = 0;
 
   private int currentRelativeId = 0;
-  private final Deque<Integer> relativeIdStack = new ArrayDeque<>();
-  private final Map<Integer, Integer> relativeIdMap = new HashMap<>();
-
-  private int getCurrentDepth() {
-    return relativeIdStack.size();
-  }
+  private int[] relativeIdStack = new int[INITIAL_CAPACITY];
+  private int depth = 0;
+  private int[] relativeIds = new int[INITIAL_CAPACITY];
 
-  private List<Event> entries = null;
+  private Consumer<Event> sink = null;
 
   public InteractionFlattener(Interaction subject) {
     this.subject = subject;
   }
 
+  /**
+   * Flattens the interaction into a list of events.
+   *
+   * @return the list of events, alongside the maximum depth.
+   */
   public Result unwind() {
-    entries = new ArrayList<>();
+    final var entries = new ArrayList<Event>();
+    final var max = unwind(entries::add);
+    return new Result(entries, max);
+  }
+
+  /**
+   * Flattens the interaction, passing each event to a sink in occurrence order.
+   *
+   * @param sink the consumer of events.
+   * @return the maximum nesting depth (0 = top level only).
+   */
+  public int unwind(Consumer<Event> sink) {
+    return unwind(sink, 0, subject.getFragments().size());
+  }
+
+  /**
+   * Flattens part of the interaction, passing each event to a sink in occurrence order.
+   * <p>
+   * Only the top-level fragments in the given range are visited, though the interaction itself is
+   * still entered and exited around them.
+   *
+   * @param sink the consumer of events.
+   * @param from index of the first top-level fragment to visit.
+   * @param to   index one past the last top-level fragment to visit.
+   * @return the maximum nesting depth (0 = top level only).
+   */
+  public int unwind(Consumer<Event> sink, int from, int to) {
+    this.sink = sink;
     maxDepth = 0;
+    currentId = 0;
+    currentRelativeId = 0;
+    depth = 0;
+
     new RoboCertSwitch<Boolean>() {
       @Override
       public Boolean caseInteraction(Interaction object) {
         final var id = enterNested(object);
-        for (var frag : object.getFragments()) {
+        for (var frag : object.getFragments().subList(from, to)) {
           doSwitch(frag);
         }
         exitNested(object, id);
@@ -109,7 +147,9 @@ public class InteractionFlattener {
         return Boolean.TRUE;
       }
     }.doSwitch(subject);
-    return new Result(entries, maxDepth);
+
+    this.sink = null;
+    return maxDepth;
   }
 
   /**
@@ -121,10 +161,13 @@ public class InteractionFlattener {
   private int enterNested(EObject object) {
     final int id = enter(object);
 
-    relativeIdStack.push(currentRelativeId);
+    if (depth == relativeIdStack.length) {
+      relativeIdStack = Arrays.copyOf(relativeIdStack, depth * 2);
+    }
+    relativeIdStack[depth++] = currentRelativeId;
     currentRelativeId = 0;
 
-    maxDepth = Integer.max(getCurrentDepth(), maxDepth);
+    maxDepth = Integer.max(depth, maxDepth);
 
     return id;
   }
@@ -142,7 +185,10 @@ public class InteractionFlattener {
     final var rid = currentRelativeId;
     currentRelativeId++;
 
-    relativeIdMap.put(id, rid);
+    if (id == relativeIds.length) {
+      relativeIds = Arrays.copyOf(relativeIds, id * 2);
+    }
+    relativeIds[id] = rid;
 
     add(object, id, EventType.Entered);
     return id;
@@ -155,11 +201,10 @@ public class InteractionFlattener {
    * @param id     ID assigned to the object by enter.
    */
   private void exitNested(EObject object, int id) {
-    final var currentDepth = getCurrentDepth();
-    assert (0 < currentDepth);
-    assert (currentDepth <= maxDepth);
+    assert (0 < depth);
+    assert (depth <= maxDepth);
 
-    currentRelativeId = relativeIdStack.pop();
+    currentRelativeId = relativeIdStack[--depth];
 
     exit(object, id);
   }
@@ -176,7 +221,7 @@ public class InteractionFlattener {
   }
 
   private void add(EObject object, int id, EventType etype) {
-    entries.add(new Event(etype, id, relativeIdMap.get(id), getCurrentDepth(), object));
+    sink.accept(new Event(etype, id, relativeIds[id], depth, object));
   }
 
   /**
@@ -10,9 +10,13 @@
 
 package robostar.robocert.textual.generator.tikz.util;
 
+import java.util.Objects;
+import java.util.function.UnaryOperator;
 import org.eclipse.xtext.serializer.ISerializer;
 import robostar.robocert.textual.generator.tikz.matrix.Cell;
+import robostar.robocert.textual.generator.tikz.matrix.Column;
 import robostar.robocert.textual.generator.tikz.matrix.EdgeColumn;
+import robostar.robocert.textual.generator.tikz.matrix.Row;
 
 /**
  * Interface representing a sequence diagram element that can be rendered to TikZ.
@@ -36,8 +40,37 @@ public interface Renderable {
    * @param tikz     TikZ structure generator, used to create TikZ commands.
    * @param ser      serialiser used for rendering expressions.
    * @param topLevel nesting level of the highest-nested element, used for scaling purposes.
+   * @param rows     maps each row to the row whose coordinates it shares (merged rows map to the
+   *                 row into which they were merged; all others map to themselves).
    */
-  record Context(TikzStructureGenerator tikz, ISerializer ser, int topLevel) {
+  record Context(TikzStructureGenerator tikz, ISerializer ser, int topLevel,
+                 UnaryOperator<Row> rows) {
+
+    public Context {
+      Objects.requireNonNull(rows);
+    }
+
+    /**
+     * Constructs a context in which no rows have been merged.
+     *
+     * @param tikz     TikZ structure generator, used to create TikZ commands.
+     * @param ser      serialiser used for rendering expressions.
+     * @param topLevel nesting level of the highest-nested element, used for scaling purposes.
+     */
+    public Context(TikzStructureGenerator tikz, ISerializer ser, int topLevel) {
+      this(tikz, ser, topLevel, UnaryOperator.identity());
+    }
+
+    /**
+     * Gets the name of the cell at the given row and column, accounting for row merging.
+     *
+     * @param row    row of the cell.
+     * @param column column of the cell.
+     * @return the name of the cell as it appears in the matrix.
+     */
+    public String cellName(Row row, Column column) {
+      return Cell.nameOf(rows.apply(row), column);
+    }
 
     /**
      * Gets the offset of the depth of something from the inmost depth level of the diagram.
@@ -67,7 +100,7 @@ public interface Renderable {
      * @return TikZ for the shifted coordinate.
      */
     public String nestedEdgeCellName(Cell cell, int offset) {
-      final var baseName = cell.name();
+      final var baseName = cellName(cell.row(), cell.column());
 
       if (!(cell.column() instanceof EdgeColumn e)) {
         return baseName;
@@ -12,8 +12,15 @@ package robostar.robocert.textual.generator.tockcsp;
 import com.google.inject.Inject;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.xtext.generator.IFileSystemAccess2;
 import org.eclipse.xtext.generator.IGeneratorContext;
@@ -22,6 +29,7 @@ import robostar.robocert.textual.generator.tockcsp.core.group.AssertionGroupGene
 import robostar.robocert.textual.generator.tockcsp.core.ImportGenerator;
 import robostar.robocert.textual.generator.tockcsp.core.group.CSPGroupGenerator;
 import robostar.robocert.textual.generator.tockcsp.core.group.SpecificationGroupGenerator;
+import robostar.robocert.textual.generator.utils.GroupDependencies;
 import robostar.robocert.textual.generator.utils.PackageGenerator;
 import robostar.robocert.textual.generator.utils.name.GroupNamer;
 import robostar.robocert.AssertionGroup;
@@ -33,12 +41,33 @@ import robostar.robocert.util.RoboCertSwitch;
 
 /**
  * Generates CSP-M files for {@link CertPackage}s.
+ * <p>
+ * In the split {@link OutputLayout}, each package {@code P} becomes:
+ * <ul>
+ *   <li>for each specification or CSP group {@code G}, a file {@code P__G.csp} holding just the
+ *   body of the group, without any includes;</li>
+ *   <li>for each assertion group {@code A}, a file {@code P__A.csp} that includes only the
+ *   RoboChart definitions and group files its assertions need, then holds the assertions;</li>
+ *   <li>{@code P.csp}, which includes everything, as in the single-file layout.</li>
+ * </ul>
+ * Only the package and assertion group files can be loaded on their own.  CSP-M has no include
+ * guards, so if the files of specification and CSP groups carried their own includes, any file
+ * including two of them would define everything they share twice.
+ * <p>
+ * The package file lists the group files generated alongside it on a marker line, and group files
+ * it listed last time that aren't generated again are deleted.
  *
  * @author Matt Windsor
  */
 public record CertPackageGenerator(GroupNamer groupNamer, AssertionGroupGenerator ag,
                                    CSPGroupGenerator cg, SpecificationGroupGenerator sg,
-                                   ImportGenerator ig) implements PackageGenerator {
+                                   ImportGenerator ig, OutputLayout layout,
+                                   GroupDependencies deps) implements PackageGenerator {
+
+  /**
+   * Starts the line of a split package file that lists the group files generated with it.
+   */
+  public static final String GROUP_FILES_MARKER = "--- group files:";
 
   /**
    * Constructs a CertPackage generator.
@@ -48,6 +77,8 @@ public record CertPackageGenerator(GroupNamer groupNamer, AssertionGroupGenerato
    * @param cg         CSP group generator.
    * @param sg         sequence group generator.
    * @param ig         import generator.
+   * @param layout     decides whether to split packages into one file per group.
+   * @param deps       works out which groups each assertion group needs.
    */
   @Inject
   public CertPackageGenerator {
@@ -56,11 +87,121 @@ public record CertPackageGenerator(GroupNamer groupNamer, AssertionGroupGenerato
     Objects.requireNonNull(cg);
     Objects.requireNonNull(sg);
     Objects.requireNonNull(ig);
+    Objects.requireNonNull(layout);
+    Objects.requireNonNull(deps);
   }
 
   @Override
-  public void generate(IFileSystemAccess2 fsa, IGeneratorContext context, CertPackage pkg) {
-    fsa.generateFile(groupNamer.getPackageName(pkg) + ".csp", generate(pkg));
+  public void generate(IFileSystemAccess2 fsa, IGeneratorContext context, CertPackage pkg,
+      IProgressMonitor monitor) {
+    final var name = groupNamer.getPackageName(pkg);
+    if (layout.isSplit()) {
+      generateSplit(fsa, pkg, name, monitor);
+    } else {
+      deleteStaleGroupFiles(fsa, name, Set.of());
+      fsa.generateFile(name + ".csp", generate(pkg, monitor));
+    }
+  }
+
+  private void generateSplit(IFileSystemAccess2 fsa, CertPackage pkg, String name,
+      IProgressMonitor monitor) {
+    // Generate each group once; assertion groups then reuse the bodies of those they depend on.
+    final var groups = pkg.getGroups();
+    final var sub = SubMonitor.convert(monitor, groups.size());
+    final var bodies = new LinkedHashMap<Group, CharSequence>();
+    for (var g : groups) {
+      bodies.put(g, generateGroup(g, sub.split(1)));
+    }
+
+    deleteStaleGroupFiles(fsa, name,
+        groups.stream().map(g -> groupFile(name, g)).collect(Collectors.toSet()));
+
+    for (var e : bodies.entrySet()) {
+      final var g = e.getKey();
+      final var contents = g instanceof AssertionGroup a ? generateAssertionFile(pkg, name, a,
+          e.getValue()) : e.getValue();
+      fsa.generateFile(groupFile(name, g), contents);
+    }
+
+    fsa.generateFile(name + ".csp", generatePackageFile(pkg, name, bodies));
+  }
+
+  /**
+   * Generates the standalone file for an assertion group.
+   *
+   * @param pkg  the package.
+   * @param name the name of the package.
+   * @param a    the assertion group.
+   * @param body the pre-generated body of the assertion group.
+   * @return CSP-M that can be loaded into FDR on its own.
+   */
+  private CharSequence generateAssertionFile(CertPackage pkg, String name, AssertionGroup a,
+      CharSequence body) {
+    final var closure = deps.closure(a);
+    final var needed = closure.stream().filter(x -> !(x instanceof AssertionGroup)).toList();
+    // Opaque groups could mention anything, so they get every import.
+    final var imports = closure.stream().anyMatch(deps::isOpaque) ? ig.generate(pkg.eResource())
+        : ig.generate(pkg.eResource(), closure);
+    return String.join("\n\n", generateHeader(), imports, groupIncludes(name, needed), body);
+  }
+
+  /**
+   * Generates the top-level file for a split package, which includes every group file.
+   * <p>
+   * Assertion group files carry their own includes, so we inline their bodies instead of including
+   * them; otherwise FDR would see the same definitions twice.
+   */
+  private CharSequence generatePackageFile(CertPackage pkg, String name,
+      Map<Group, CharSequence> bodies) {
+    final var files = bodies.keySet().stream().map(g -> groupFile(name, g))
+        .collect(Collectors.joining(" "));
+    final var header = String.join("\n", generateHeader(), GROUP_FILES_MARKER + " " + files);
+    final var includes = groupIncludes(name,
+        bodies.keySet().stream().filter(x -> !(x instanceof AssertionGroup)).toList());
+    final var assertions = bodies.entrySet().stream()
+        .filter(e -> e.getKey() instanceof AssertionGroup).map(Map.Entry::getValue);
+    return Stream.concat(Stream.of(header, ig.generate(pkg.eResource()), includes), assertions)
+        .collect(Collectors.joining("\n\n"));
+  }
+
+  /**
+   * Deletes the group files of a previous split generation of a package that aren't being
+   * regenerated, such as those of groups that have since been removed or renamed.
+   * <p>
+   * The previous package file lists every group file generated alongside it on its
+   * {@link #GROUP_FILES_MARKER} line, so we read the names from there rather than guessing at the
+   * contents of the output directory.
+   *
+   * @param fsa     the file system access.
+   * @param name    the name of the package.
+   * @param current the group files being generated this time.
+   */
+  private void deleteStaleGroupFiles(IFileSystemAccess2 fsa, String name, Set<String> current) {
+    final var file = name + ".csp";
+    if (!fsa.isFile(file)) {
+      return;
+    }
+    // Only look in the header we generated, as the rest of the file may contain user text.
+    final var marker = fsa.readTextFile(file).toString().lines().takeWhile(l -> l.startsWith("---"))
+        .filter(l -> l.startsWith(GROUP_FILES_MARKER)).findFirst();
+    if (marker.isEmpty()) {
+      return;
+    }
+    final var prefix = name + "__";
+    for (var old : marker.get().substring(GROUP_FILES_MARKER.length()).trim().split("\\s+")) {
+      if (old.startsWith(prefix) && old.endsWith(".csp") && !current.contains(old)) {
+        fsa.deleteFile(old);
+      }
+    }
+  }
+
+  private CharSequence groupIncludes(String name, List<Group> groups) {
+    return groups.stream().map(g -> "include \"%s\"".formatted(groupFile(name, g)))
+        .collect(Collectors.joining("\n"));
+  }
+
+  private String groupFile(String pkgName, Group g) {
+    return "%s__%s.csp".formatted(pkgName, groupNamer.getOrSynthesiseName(g));
   }
 
   /**
@@ -68,9 +209,18 @@ public record CertPackageGenerator(GroupNamer groupNamer, AssertionGroupGenerato
    * @return generated CSP for all elements.
    */
   public CharSequence generate(CertPackage pkg) {
+    return generate(pkg, null);
+  }
+
+  /**
+   * @param pkg     the package being generated.
+   * @param monitor the progress monitor (may be null), advanced once per group.
+   * @return generated CSP for all elements.
+   */
+  public CharSequence generate(CertPackage pkg, IProgressMonitor monitor) {
     final var header = generateHeader();
     final var imports = ig.generate(pkg.eResource());
-    final var groups = generateGroups(pkg);
+    final var groups = generateGroups(pkg, monitor);
     return String.join("\n\n", header, imports, groups);
   }
 
@@ -95,14 +245,18 @@ public record CertPackageGenerator(GroupNamer groupNamer, AssertionGroupGenerato
   }
 
   /**
-   * @param pkg the top-level package.
+   * @param pkg     the top-level package.
+   * @param monitor the progress monitor.
    * @return included CSP for all groups.
    */
-  private String generateGroups(CertPackage pkg) {
-    return pkg.getGroups().stream().map(this::generateGroup).collect(Collectors.joining("\n\n"));
+  private String generateGroups(CertPackage pkg, IProgressMonitor monitor) {
+    final var groups = pkg.getGroups();
+    final var sub = SubMonitor.convert(monitor, groups.size());
+    return groups.stream().map(x -> generateGroup(x, sub.split(1)))
+        .collect(Collectors.joining("\n\n"));
   }
 
-  private CharSequence generateGroup(Group it) {
+  private CharSequence generateGroup(Group it, IProgressMonitor monitor) {
     return new RoboCertSwitch<CharSequence>() {
       @Override
       public CharSequence caseAssertionGroup(AssertionGroup a) {
@@ -116,7 +270,7 @@ public record CertPackageGenerator(GroupNamer groupNamer, AssertionGroupGenerato
 
       @Override
       public CharSequence caseSpecificationGroup(SpecificationGroup s) {
-        return sg.generate(s);
+        return sg.generate(s, monitor);
       }
 
       @Override
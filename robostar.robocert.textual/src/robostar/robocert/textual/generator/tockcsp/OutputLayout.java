@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.tockcsp;
+
+import com.google.inject.Singleton;
+
+/**
+ * Decides how the CSP-M for a package is laid out across files.
+ * <p>
+ * By default, each package becomes one file holding every group and every include.  In the split
+ * layout, each group also gets its own file, and each assertion group's file includes only the
+ * groups (and RoboChart definitions) that its assertions need, so FDR can load one set of checks
+ * without parsing the rest of the package.  The layout comes from {@link #setSplit(boolean)} or
+ * the {@value #PROPERTY} system property.
+ *
+ * @author Matt Windsor
+ */
+@Singleton
+public class OutputLayout {
+
+  /**
+   * System property from which the initial layout is taken.
+   */
+  public static final String PROPERTY = "robocert.csp.split";
+
+  private volatile boolean split = Boolean.getBoolean(PROPERTY);
+
+  /**
+   * @return whether packages are being split into one file per group.
+   */
+  public boolean isSplit() {
+    return split;
+  }
+
+  /**
+   * Sets whether packages are split into one file per group.
+   *
+   * @param split whether to split packages.
+   */
+  public void setSplit(boolean split) {
+    this.split = split;
+  }
+}
@@ -12,6 +12,7 @@ package robostar.robocert.textual.generator.tockcsp.core;
 
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.eclipse.emf.ecore.EObject;
 
@@ -26,6 +27,7 @@ import circus.robocalc.robochart.IntegerExp;
 import circus.robocalc.robochart.Neg;
 import circus.robocalc.robochart.RefExp;
 import circus.robocalc.robochart.RoboChartPackage;
+import circus.robocalc.robochart.SetExp;
 import circus.robocalc.robochart.Variable;
 import circus.robocalc.robochart.generator.csp.untimed.TypeGenerator;
 import circus.robocalc.robochart.textual.RoboCalcTypeProvider;
@@ -117,6 +119,13 @@ public record ExpressionGenerator(TemporaryVariableGenerator bg, VariableHelper
 			public CharSequence caseNeg(Neg m) {
 				return "-(" + generate(m.getExp()) + ")";
 			}
+
+			@Override
+			public CharSequence caseSetExp(SetExp s) {
+				// These mainly turn up as the domains of interaction variables.
+				return s.getValues().stream().map(x -> generate(x))
+						.collect(Collectors.joining(", ", "{", "}"));
+			}
 		}.doSwitch(it);
 	}
 
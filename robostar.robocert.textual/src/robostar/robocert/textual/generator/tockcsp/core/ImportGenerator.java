@@ -15,12 +15,24 @@ import circus.robocalc.robochart.RCPackage;
 import circus.robocalc.robochart.generator.csp.comp.timed.CTimedGeneratorUtils;
 import com.google.common.collect.Streams;
 import com.google.inject.Inject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.EcoreUtil2;
+import org.eclipse.xtext.util.IResourceScopeCache;
+import org.eclipse.xtext.util.Tuples;
 import robostar.robocert.textual.generator.utils.PackageFinder;
 import robostar.robocert.CertPackage;
+import robostar.robocert.Group;
 import robostar.robocert.SpecificationGroup;
 import robostar.robocert.util.StreamHelper;
 import robostar.robocert.util.resolve.TargetElementResolver;
@@ -33,7 +45,8 @@ import robostar.robocert.util.resolve.TargetElementResolver;
  * @author Matt Windsor
  */
 public record ImportGenerator(TockCspPathSet ps, PackageFinder pf, CTimedGeneratorUtils gu,
-                              TargetElementResolver targetElementResolver) {
+                              TargetElementResolver targetElementResolver,
+                              IResourceScopeCache cache) {
   // TODO(@MattWindsor91): try merge this with upstream. We can't easily
   // just take upstream directly, as it doesn't directly pick up everything
   // that generates an import in robocert. However, this version of the
@@ -55,11 +68,43 @@ public record ImportGenerator(TockCspPathSet ps, PackageFinder pf, CTimedGenerat
    * @return the generated imports.
    */
   public CharSequence generate(Resource r) {
-    return imports(r).map("include \"%s\""::formatted).collect(Collectors.joining("\n"));
+    return render(imports(r));
+  }
+
+  /**
+   * Generates only the imports needed by some of a resource's groups.
+   * <p>
+   * This keeps the standard library and the RoboChart definitions for the targets of any
+   * specification groups, then adds the definitions (and imports) of any other RoboChart resource
+   * that {@code groups} refer to, as long as {@link #generate(Resource)} would import it too.
+   * Anonymous packages and package-level imports that only other groups use are left out, so
+   * {@code groups} should be closed under dependencies and contain no opaque CSP; see
+   * {@link robostar.robocert.textual.generator.utils.GroupDependencies}.
+   *
+   * @param r      the resource containing the groups.
+   * @param groups the groups whose imports we need.
+   * @return the generated imports.
+   */
+  public CharSequence generate(Resource r, Collection<? extends Group> groups) {
+    // Library resources, for instance, have no definitions file of their own.
+    final var importable = Stream.concat(anonymousResources(r),
+            pf.packagesInResource(r, CertPackage.class).flatMap(this::importedResources))
+        .collect(Collectors.toSet());
+    final var imports = Streams.concat(standardImports(),
+            StreamHelper.filter(groups.stream(), SpecificationGroup.class)
+                .flatMap(this::specificationGroupImports),
+            referencedResources(groups).filter(importable::contains)
+                .flatMap(this::resourceImports))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    return render(imports);
+  }
+
+  private CharSequence render(Set<String> imports) {
+    return imports.stream().map("include \"%s\""::formatted).collect(Collectors.joining("\n"));
   }
 
   // Pulled out of GeneratorUtils
-  private Stream<String> imports(Resource r) {
+  private Set<String> imports(Resource r) {
     // We need to import:
     // - the RoboCert standard library (transitively, the RoboChart standard library);
     // - for each anonymous RoboChart package in the resource set, its resource defs file;
@@ -69,7 +114,8 @@ public record ImportGenerator(TockCspPathSet ps, PackageFinder pf, CTimedGenerat
     //     - top-level module file;
     //     - imports' defs files;
     //   - for each import, its resource defs file.
-    return Streams.concat(standardImports(), anonymousImports(r), certPackageImports(r)).distinct();
+    return Streams.concat(standardImports(), anonymousImports(r), certPackageImports(r))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
   }
 
   private Stream<String> standardImports() {
@@ -80,12 +126,30 @@ public record ImportGenerator(TockCspPathSet ps, PackageFinder pf, CTimedGenerat
   }
 
   private Stream<String> anonymousImports(Resource r) {
-    return pf.packagesInSiblingResources(r, RCPackage.class).filter(this::isAnonymousRc)
-        .map(x -> defsInclude(x.eResource()));
+    return anonymousResources(r).map(this::defsInclude);
+  }
+
+  private Stream<Resource> anonymousResources(Resource r) {
+    return pf.anonymousPackagesInSiblingResources(r, RCPackage.class).filter(this::isRct)
+        .map(RCPackage::eResource);
   }
 
-  private boolean isAnonymousRc(RCPackage p) {
-    return p.getName() == null && Objects.equals(p.eResource().getURI().fileExtension(), "rct");
+  private boolean isRct(RCPackage p) {
+    return isRct(p.eResource());
+  }
+
+  private boolean isRct(Resource r) {
+    return Objects.equals(r.getURI().fileExtension(), "rct");
+  }
+
+  private Stream<Resource> referencedResources(Collection<? extends Group> groups) {
+    return groups.stream().flatMap(g -> Streams.stream(EcoreUtil2.eAll(g)))
+        .flatMap(x -> x.eCrossReferences().stream()).map(EObject::eResource)
+        .filter(r -> r != null && isRct(r)).distinct();
+  }
+
+  private Stream<String> resourceImports(Resource r) {
+    return Stream.concat(Stream.of(defsInclude(r)), rcPackages(r).flatMap(this::namedImports));
   }
 
   private Stream<String> certPackageImports(Resource r) {
@@ -98,11 +162,65 @@ public record ImportGenerator(TockCspPathSet ps, PackageFinder pf, CTimedGenerat
   }
 
   private Stream<String> specificationGroupImports(SpecificationGroup sg) {
-    final var elt = targetElementResolver.resolve(sg.getTarget());
+    return elementImports(targetElementResolver.resolve(sg.getTarget())).stream();
+  }
 
-    // This is basically the same as the analogous code in GeneratorUtils
+  /**
+   * Gets the import closure of a target element.
+   *
+   * <p>This depends only on the element, its RoboChart resource, and the resources that resource
+   * imports, so many groups targeting the same element share one computation.  The result is
+   * cached on the element's resource, which drops it whenever that resource changes.  The cache
+   * can't see changes to the imported resources, so the result also records a stamp from the cache
+   * of each of them; as those caches are cleared on change too, a missing stamp means that the
+   * result is out of date.
+   *
+   * @param elt the target element.
+   * @return the ordered, deduplicated set of includes needed by the element.
+   */
+  private Set<String> elementImports(NamedElement elt) {
     final var resource = elt.eResource();
-    return rcPackages(resource).flatMap(p -> elementImportsInPackage(resource, elt, p));
+    if (resource == null) {
+      return computeElementImports(null, elt).imports();
+    }
+    final var holder = cache.get(Tuples.pair(ImportGenerator.class, elt), resource,
+        () -> new AtomicReference<ElementImports>());
+    var result = holder.get();
+    if (result == null || !result.isCurrent(this)) {
+      result = computeElementImports(resource, elt);
+      holder.set(result);
+    }
+    return result.imports();
+  }
+
+  private ElementImports computeElementImports(Resource resource, NamedElement elt) {
+    // This is basically the same as the analogous code in GeneratorUtils
+    final var imports = rcPackages(resource).flatMap(p -> elementImportsInPackage(resource, elt, p))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    final var stamps = new HashMap<Resource, Object>();
+    rcPackages(resource).flatMap(p -> gu.allImports(p).stream()).map(EObject::eResource)
+        .filter(r -> r != null && r != resource).forEach(r -> stamps.put(r, stamp(r)));
+    return new ElementImports(Collections.unmodifiableSet(imports), stamps);
+  }
+
+  /**
+   * Gets the current stamp of a resource, which lasts until the resource next changes.
+   */
+  private Object stamp(Resource r) {
+    return cache.get(Tuples.pair(ImportGenerator.class, "stamp"), r, Object::new);
+  }
+
+  /**
+   * A cached import closure.
+   *
+   * @param imports the ordered, deduplicated set of includes.
+   * @param stamps  the stamps of the imported resources when the closure was computed.
+   */
+  private record ElementImports(Set<String> imports, Map<Resource, Object> stamps) {
+
+    private boolean isCurrent(ImportGenerator ig) {
+      return stamps.entrySet().stream().allMatch(e -> ig.stamp(e.getKey()) == e.getValue());
+    }
   }
 
   private Stream<String> elementImportsInPackage(Resource r, NamedElement elt, RCPackage p) {
@@ -115,7 +233,7 @@ public record ImportGenerator(TockCspPathSet ps, PackageFinder pf, CTimedGenerat
   }
 
   private Stream<RCPackage> rcPackages(Resource r) {
-    return pf.packagesInResource(r, RCPackage.class);
+    return r == null ? Stream.empty() : pf.packagesInResource(r, RCPackage.class);
   }
 
   private Stream<SpecificationGroup> specificationGroups(CertPackage p) {
@@ -123,6 +241,10 @@ public record ImportGenerator(TockCspPathSet ps, PackageFinder pf, CTimedGenerat
   }
 
   private Stream<String> namedImports(BasicPackage p) {
-    return gu.allImports(p).stream().map(x -> defsInclude(x.eResource()));
+    return importedResources(p).map(this::defsInclude);
+  }
+
+  private Stream<Resource> importedResources(BasicPackage p) {
+    return gu.allImports(p).stream().map(x -> x.eResource());
   }
 }
@@ -10,6 +10,7 @@
 package robostar.robocert.textual.generator.tockcsp.core.group;
 
 import java.util.stream.Stream;
+import org.eclipse.core.runtime.IProgressMonitor;
 
 import com.google.inject.Inject;
 
@@ -34,7 +35,7 @@ public class AssertionGroupGenerator extends GroupGenerator<AssertionGroup> {
 	private CorePropertyGenerator ug;
 
 	@Override
-	protected Stream<CharSequence> generateBodyElements(AssertionGroup group) {
+	protected Stream<CharSequence> generateBodyElements(AssertionGroup group, IProgressMonitor monitor) {
 		return group.getAssertions().stream().map(this::generateAssertion);
 	}
 
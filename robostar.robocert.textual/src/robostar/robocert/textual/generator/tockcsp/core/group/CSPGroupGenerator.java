@@ -10,6 +10,7 @@
 package robostar.robocert.textual.generator.tockcsp.core.group;
 
 import java.util.stream.Stream;
+import org.eclipse.core.runtime.IProgressMonitor;
 import robostar.robocert.CSPGroup;
 
 /**
@@ -19,7 +20,7 @@ import robostar.robocert.CSPGroup;
  */
 public class CSPGroupGenerator extends GroupGenerator<CSPGroup> {
 	@Override
-	protected Stream<CharSequence> generateBodyElements(CSPGroup group) {
+	protected Stream<CharSequence> generateBodyElements(CSPGroup group, IProgressMonitor monitor) {
 		return Stream.of(group.getCsp());
 	}
 
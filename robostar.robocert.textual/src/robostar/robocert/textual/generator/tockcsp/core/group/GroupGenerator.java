@@ -12,6 +12,9 @@ package robostar.robocert.textual.generator.tockcsp.core.group;
 
 import java.util.stream.Stream;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+
 import com.google.inject.Inject;
 
 import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
@@ -37,8 +40,21 @@ public abstract class GroupGenerator<T extends Group> {
    * @return CSP-M for the group.
    */
   public CharSequence generate(T group) {
-    final var body = csp.innerJoin(generateBodyElements(group));
+    return generate(group, null);
+  }
+
+  /**
+   * Generates CSP-M for a group, reporting progress and checking for cancellation.
+   *
+   * @param group   the group in question.
+   * @param monitor the progress monitor (may be null).
+   * @return CSP-M for the group.
+   */
+  public CharSequence generate(T group, IProgressMonitor monitor) {
+    final var sub = SubMonitor.convert(monitor, 2);
+    final var body = csp.innerJoin(generateBodyElements(group, sub.split(1)));
     final var priv = csp.innerJoin(generatePrivateElements(group));
+    sub.split(1);
     return String.join("\n", generateHeader(group), liftBody(group, body, priv),
         generateFooter(group));
   }
@@ -49,11 +65,14 @@ public abstract class GroupGenerator<T extends Group> {
 
   /**
    * Generates the body of the group.
+   * <p>
+   * Implementations that do a lot of work should use the monitor to check for cancellation.
    *
-   * @param group the group in question.
+   * @param group   the group in question.
+   * @param monitor the progress monitor for the body.
    * @return the CSP-M for the body of the group, as a stream of top-level elements.
    */
-  protected abstract Stream<CharSequence> generateBodyElements(T group);
+  protected abstract Stream<CharSequence> generateBodyElements(T group, IProgressMonitor monitor);
 
   /**
    * Generates private elements for the group.
@@ -14,6 +14,8 @@ import com.google.inject.Inject;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.emf.common.util.EList;
 import robostar.robocert.textual.generator.intf.core.SpecGroupField;
 import robostar.robocert.textual.generator.intf.core.SpecGroupParametricField;
@@ -25,6 +27,7 @@ import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStreamHelper;
 import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
 import robostar.robocert.textual.generator.tockcsp.memory.ModuleGenerator;
 import robostar.robocert.textual.generator.tockcsp.seq.ActorGenerator;
+import robostar.robocert.textual.generator.tockcsp.seq.CompressionStrategy;
 import robostar.robocert.textual.generator.tockcsp.seq.InteractionGenerator;
 import robostar.robocert.textual.generator.tockcsp.seq.InteractionContextFactory;
 import robostar.robocert.textual.generator.tockcsp.seq.SyncChannelGenerator;
@@ -72,10 +75,14 @@ public class SpecificationGroupGenerator extends GroupGenerator<SpecificationGro
   private TargetParameterResolver paramRes;
   @Inject
   private InteractionContextFactory ctxFactory;
+  @Inject
+  private CompressionStrategy compression;
 
   @Override
-  protected Stream<CharSequence> generateBodyElements(SpecificationGroup group) {
-    final var openDef = csp.module(openSig(group, null)).withPublic(openDefBody(group)).end();
+  protected Stream<CharSequence> generateBodyElements(SpecificationGroup group,
+      IProgressMonitor monitor) {
+    final var openDef = csp.module(openSig(group, null)).withPublic(openDefBody(group, monitor))
+        .end();
     final var closedDef = csp.instance(SpecGroupField.PARAMETRIC_CLOSED.toString(),
         openSig(group, group.getAssignments()));
     return Stream.of(openDef, closedDef, tickTockContext());
@@ -109,16 +116,17 @@ public class SpecificationGroupGenerator extends GroupGenerator<SpecificationGro
   /**
    * Generates the body of this specification's 'open' form.
    *
-   * @param group the group for which we are generating an open form.
+   * @param group   the group for which we are generating an open form.
+   * @param monitor the progress monitor, which is advanced once per interaction.
    * @return CSP-M for the body of the 'open' form of the spec group.
    * @implNote This merges elements from two sources: a set common to all specifications (such as
    * the target definition), and a set overridden by the downstream class.
    */
-  private CharSequence openDefBody(SpecificationGroup group) {
+  private CharSequence openDefBody(SpecificationGroup group, IProgressMonitor monitor) {
     // Space here for expansion.
     final var specs = group.getInteractions().stream().map(ctxFactory::context).toList();
 
-    final var optimisations = Stream.of("sbisim", "dbisim").map(x -> "transparent " + x);
+    final var optimisations = compression.transparentFunctions().map(x -> "transparent " + x);
 
     // Component targets are just invocations of the existing RoboChart process semantics, and
     // don't need to be wrapped in a timed section.  Collection targets are more involved, and do.
@@ -127,7 +135,8 @@ public class SpecificationGroupGenerator extends GroupGenerator<SpecificationGro
             targetGen.openDef(group.getTarget())));
 
     final var elements = Streams.concat(optimisations, Stream.of(target),
-        msgSetGen.generate(group).stream(), channelModule(specs).stream(), interactionModule(specs).stream());
+        msgSetGen.generate(group).stream(), channelModule(specs).stream(),
+        interactionModule(specs, monitor).stream());
 
     return csp.innerJoin(elements);
   }
@@ -193,13 +202,15 @@ public class SpecificationGroupGenerator extends GroupGenerator<SpecificationGro
             cspStream.collectToModule(SpecGroupParametricField.MEMORY_MODULE.toString(), false));
   }
 
-  private Optional<CharSequence> interactionModule(List<InteractionContext> seqs) {
-    return seqs.stream().map(this::specDef).collect(
+  private Optional<CharSequence> interactionModule(List<InteractionContext> seqs,
+      IProgressMonitor monitor) {
+    final var sub = SubMonitor.convert(monitor, seqs.size());
+    return seqs.stream().map(x -> specDef(x, sub.split(1))).collect(
         cspStream.collectToModule(SpecGroupParametricField.INTERACTION_MODULE.toString(), true));
   }
 
-  private CharSequence specDef(InteractionContext i) {
-    return csp.definition(i.seq().getName(), interactionGen.generate(i));
+  private CharSequence specDef(InteractionContext i, IProgressMonitor monitor) {
+    return csp.definition(i.seq().getName(), interactionGen.generate(i, monitor));
   }
 
 }
@@ -18,8 +18,8 @@ import com.google.inject.Inject;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import org.eclipse.emf.ecore.EObject;
-import org.eclipse.xtext.EcoreUtil2;
 import robostar.robocert.textual.generator.tockcsp.core.TemporaryVariableGenerator;
+import robostar.robocert.textual.generator.utils.ContentsIndex;
 
 /**
  * Generates loads and stores between local storage and the memory module.
@@ -32,6 +32,7 @@ import robostar.robocert.textual.generator.tockcsp.core.TemporaryVariableGenerat
 public class LoadStoreGenerator {
   @Inject private TemporaryVariableGenerator bg;
   @Inject private ModuleGenerator mg;
+  @Inject private ContentsIndex contents;
 
   /**
    * Generates a memory load prefix for a set of referenced expressions.
@@ -67,7 +68,7 @@ public class LoadStoreGenerator {
    * @return the CSP-M prefix.
    */
   public CharSequence generateBindingStores(EObject it) {
-    return generateStores(EcoreUtil2.eAllOfType(it, Variable.class).stream());
+    return generateStores(contents.allOfType(it, Variable.class).stream());
   }
 
   /**
@@ -90,7 +91,7 @@ public class LoadStoreGenerator {
    * @return all non-constant variables referenced in expressions within it.
    */
   public Stream<Variable> getExprVariables(EObject it) {
-    return EcoreUtil2.eAllOfType(it, RefExp.class).stream()
+    return contents.allOfType(it, RefExp.class).stream()
         .mapMulti((r, p) -> {
           if (r.getRef() instanceof Variable v && v.getModifier() == VariableModifier.VAR) {
             p.accept(v);
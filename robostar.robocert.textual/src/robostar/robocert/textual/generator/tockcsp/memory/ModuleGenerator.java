@@ -20,7 +20,9 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.eclipse.xtext.EcoreUtil2;
 import robostar.robocert.textual.generator.intf.core.SpecGroupParametricField;
+import robostar.robocert.textual.generator.tockcsp.core.ExpressionGenerator;
 import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
+import robostar.robocert.textual.generator.utils.VariableHelper;
 import robostar.robocert.Interaction;
 
 /**
@@ -33,11 +35,15 @@ import robostar.robocert.Interaction;
  * new values (updating its recursion accordingly).
  * <p>
  * There is no true concurrency in sequence diagrams, so this should be sufficient.
+ * <p>
+ * Each channel carries the domain of its variable, which is the variable's whole type unless the
+ * variable has been narrowed with {@code in}.
  *
  * @author Matt Windsor
  */
 public record ModuleGenerator(CTimedGeneratorUtils gu, CSPStructureGenerator csp,
-                              TypeGenerator typeGen) {
+                              TypeGenerator typeGen, ExpressionGenerator exprGen,
+                              VariableHelper vx) {
 
   private static final String MEM_OP_TYPE = "MemOp"; // in robocert_defs
   private static final String LIFT_PROCESS = "lift";
@@ -49,6 +55,8 @@ public record ModuleGenerator(CTimedGeneratorUtils gu, CSPStructureGenerator csp
     Objects.requireNonNull(gu);
     Objects.requireNonNull(csp);
     Objects.requireNonNull(typeGen);
+    Objects.requireNonNull(exprGen);
+    Objects.requireNonNull(vx);
   }
 
   /**
@@ -144,7 +152,17 @@ public record ModuleGenerator(CTimedGeneratorUtils gu, CSPStructureGenerator csp
   }
 
   private CharSequence generateChannelDefinition(Variable it) {
-    return csp.channel(it.getName(), MEM_OP_TYPE, typeGen.compileType(it.getType()));
+    return csp.channel(it.getName(), MEM_OP_TYPE, generateDomain(it));
+  }
+
+  /**
+   * Generates the domain of a variable.
+   *
+   * @param it the variable.
+   * @return CSP-M for the variable's domain, if it has one, and its type otherwise.
+   */
+  public CharSequence generateDomain(Variable it) {
+    return vx.domain(it).map(exprGen::generate).orElseGet(() -> typeGen.compileType(it.getType()));
   }
 
   private CharSequence generatePrivateBody(VariableList it) {
@@ -164,7 +182,15 @@ public record ModuleGenerator(CTimedGeneratorUtils gu, CSPStructureGenerator csp
   }
 
   private CharSequence generateInitialRun(VariableList it) {
-    return generateRun(it, x -> gu.typeDefaultValue(x.getType()));
+    return generateRun(it, this::generateInitialValue);
+  }
+
+  private CharSequence generateInitialValue(Variable it) {
+    final CharSequence dflt = gu.typeDefaultValue(it.getType());
+    // The default might not be in a narrowed domain, in which case we pick any value that is.
+    return vx.domain(it).map(exprGen::generate).<CharSequence>map(
+            d -> "if member(%s, %s) then %s else head(seq(%s))".formatted(dflt, d, dflt, d))
+        .orElse(dflt);
   }
 
   /**
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.tockcsp.seq;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.eclipse.emf.ecore.EStructuralFeature.Setting;
+import org.eclipse.emf.ecore.util.EcoreUtil.UsageCrossReferencer;
+import robostar.robocert.Interaction;
+import robostar.robocert.SemanticModel;
+import robostar.robocert.SequenceProperty;
+import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
+
+/**
+ * Decides which FDR compression, if any, wraps each part of a multi-lifeline interaction before
+ * the parts are composed.
+ * <p>
+ * Compressing each lifeline process separately lets FDR shrink them before it builds their
+ * parallel composition, which matters for wide sequence diagrams.  The composition (the parallel
+ * coordinator over all lifelines) and the until process are compressed in turn before being
+ * synchronised with each other.  On small
+ * processes, though, compression costs more than it saves.  The mode comes from
+ * {@link #setMode(Mode)} or the {@value #MODE_PROPERTY} system property, and the size below which
+ * {@link Mode#AUTO} leaves processes alone comes from {@link #setThreshold(int)} or the
+ * {@value #THRESHOLD_PROPERTY} system property.
+ *
+ * @author Matt Windsor
+ */
+@Singleton
+public class CompressionStrategy {
+
+  /**
+   * System property from which the initial mode is taken.
+   */
+  public static final String MODE_PROPERTY = "robocert.csp.compression";
+
+  /**
+   * System property from which the initial threshold is taken.
+   */
+  public static final String THRESHOLD_PROPERTY = "robocert.csp.compressionThreshold";
+
+  /**
+   * Default size (in messages) at which {@link Mode#AUTO} starts compressing.
+   */
+  public static final int DEFAULT_THRESHOLD = 8;
+
+  /**
+   * Compression modes.
+   */
+  public enum Mode {
+    /**
+     * Never compress.
+     */
+    NONE(null),
+    /**
+     * Compress with {@code sbisim} if the process has at least the threshold number of messages.
+     */
+    AUTO("sbisim"),
+    /**
+     * Always compress with {@code sbisim}.
+     */
+    SBISIM("sbisim"),
+    /**
+     * Always compress with {@code dbisim}.
+     */
+    DBISIM("dbisim"),
+    /**
+     * Always compress with {@code normal} where that is sound, and with {@code sbisim} elsewhere.
+     * <p>
+     * Normalisation removes the taus that {@code :[tau priority]: {tock}} relies on to block tock,
+     * so it is unsound for sequences checked in the traces model, which is wrapped in that
+     * prioritisation.  Only sequences that every visible assertion checks in the timed model are
+     * normalised; see {@link #effectiveMode(Interaction)}.
+     */
+    NORMAL("normal");
+
+    private final String function;
+
+    Mode(String function) {
+      this.function = function;
+    }
+  }
+
+  private final CSPStructureGenerator csp;
+  private volatile Mode mode = modeFromProperty();
+  private volatile int threshold = Integer.getInteger(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD);
+
+  /**
+   * Constructs a compression strategy.
+   *
+   * @param csp used to generate compression function applications.
+   */
+  @Inject
+  public CompressionStrategy(CSPStructureGenerator csp) {
+    this.csp = csp;
+  }
+
+  private static Mode modeFromProperty() {
+    final var prop = System.getProperty(MODE_PROPERTY);
+    if (prop == null) {
+      return Mode.AUTO;
+    }
+    try {
+      return Mode.valueOf(prop.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return Mode.AUTO;
+    }
+  }
+
+  /**
+   * @return the current compression mode.
+   */
+  public Mode mode() {
+    return mode;
+  }
+
+  /**
+   * Sets the compression mode.
+   *
+   * @param mode the new mode.
+   */
+  public void setMode(Mode mode) {
+    this.mode = mode;
+  }
+
+  /**
+   * @return the size (in messages) at which automatic compression starts.
+   */
+  public int threshold() {
+    return threshold;
+  }
+
+  /**
+   * Sets the size at which automatic compression starts.
+   *
+   * @param threshold the new threshold.
+   */
+  public void setThreshold(int threshold) {
+    this.threshold = threshold;
+  }
+
+  /**
+   * Gets the mode to use when compressing the parts of a particular sequence.
+   * <p>
+   * This is the current mode, except that {@link Mode#NORMAL} falls back to {@link Mode#SBISIM}
+   * unless the sequence has at least one sequence property using it, and all of them are in the
+   * timed model.  Only properties in the sequence's resource set count, so a property in a file
+   * that isn't loaded alongside the sequence can still see a normalised sequence; the command-line
+   * tool loads the whole project, and so avoids this.
+   *
+   * @param seq the sequence whose parts are being compressed.
+   * @return the mode to pass to {@link #compress(Mode, CharSequence, int)}.
+   */
+  public Mode effectiveMode(Interaction seq) {
+    final var m = mode;
+    if (m != Mode.NORMAL || isTimedOnly(seq)) {
+      return m;
+    }
+    return Mode.SBISIM;
+  }
+
+  private static boolean isTimedOnly(Interaction seq) {
+    final var res = seq.eResource();
+    if (res == null || res.getResourceSet() == null) {
+      return false;
+    }
+    final var props = UsageCrossReferencer.find(seq, res.getResourceSet()).stream()
+        .map(Setting::getEObject).filter(SequenceProperty.class::isInstance)
+        .map(SequenceProperty.class::cast).toList();
+    return !props.isEmpty() && props.stream().allMatch(p -> p.getModel() == SemanticModel.TIMED);
+  }
+
+  /**
+   * Wraps a process in the compression function chosen for its size, if any.
+   * <p>
+   * This uses the current mode, treating {@link Mode#NORMAL} as {@link Mode#SBISIM}; use
+   * {@link #compress(Mode, CharSequence, int)} with {@link #effectiveMode(Interaction)} to allow
+   * normalisation.
+   *
+   * @param process CSP-M for the process.
+   * @param size    number of messages the process handles.
+   * @return CSP-M for the process, possibly compressed.
+   */
+  public CharSequence compress(CharSequence process, int size) {
+    final var m = mode;
+    return compress(m == Mode.NORMAL ? Mode.SBISIM : m, process, size);
+  }
+
+  /**
+   * Wraps a process in the compression function chosen by the given mode for its size, if any.
+   *
+   * @param mode    the mode, usually from {@link #effectiveMode(Interaction)}.
+   * @param process CSP-M for the process.
+   * @param size    number of messages the process handles.
+   * @return CSP-M for the process, possibly compressed.
+   */
+  public CharSequence compress(Mode mode, CharSequence process, int size) {
+    return function(mode, size).map(f -> csp.function(f, process)).orElse(process);
+  }
+
+  /**
+   * Gets the compression functions that need declaring as transparent.
+   *
+   * @return the names of the functions.
+   */
+  public Stream<String> transparentFunctions() {
+    final var base = Stream.of("sbisim", "dbisim");
+    return mode == Mode.NORMAL ? Stream.concat(base, Stream.of("normal")) : base;
+  }
+
+  private Optional<String> function(Mode m, int size) {
+    if (m == Mode.AUTO && size < threshold) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(m.function);
+  }
+}
@@ -12,10 +12,10 @@ package robostar.robocert.textual.generator.tockcsp.seq;
 import com.google.inject.Inject;
 import java.util.Objects;
 import java.util.function.Function;
-import org.eclipse.xtext.EcoreUtil2;
 import robostar.robocert.textual.generator.intf.seq.context.InteractionContext;
 import robostar.robocert.textual.generator.intf.seq.context.Synchronisation;
 import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
+import robostar.robocert.textual.generator.utils.ContentsIndex;
 import robostar.robocert.Actor;
 import robostar.robocert.Interaction;
 import robostar.robocert.InteractionFragment;
@@ -29,21 +29,24 @@ import robostar.robocert.World;
  * @param csp      low-level CSP generator.
  * @param syncGen  used to work out whether we need an until-process and, if so, which fragments
  *                 will go into it.
+ * @param contents used to find the fragments needing synchronisation.
  * @author Matt Windsor
  */
 public record InteractionContextFactory(CSPStructureGenerator csp,
-                                        SyncChannelGenerator syncGen) {
+                                        SyncChannelGenerator syncGen, ContentsIndex contents) {
 
   /**
    * Constructs a lifeline context factory.
    *
    * @param csp      low-level CSP generator.
    * @param syncGen  used to get names for synchronisation channels.
+   * @param contents used to find the fragments needing synchronisation.
    */
   @Inject
   public InteractionContextFactory {
     Objects.requireNonNull(csp);
     Objects.requireNonNull(syncGen);
+    Objects.requireNonNull(contents);
   }
 
   /**
@@ -66,7 +69,7 @@ public record InteractionContextFactory(CSPStructureGenerator csp,
     final var channelBase = makeName.apply(s);
     // TODO(@MattWindsor91): make carrying this in the Synchronisation redundant?
     final var channel = syncGen.qualified(channelBase);
-    return new Synchronisation<>(EcoreUtil2.eAllOfType(s, clazz), channel, channelBase);
+    return new Synchronisation<>(contents.allOfType(s, clazz), channel, channelBase);
   }
 
   private boolean actorVisibleInSemantics(Actor a) {
@@ -15,7 +15,8 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import org.eclipse.xtext.EcoreUtil2;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
 import robostar.robocert.textual.generator.intf.core.SpecGroupField;
 import robostar.robocert.textual.generator.intf.seq.context.ActorContext;
 import robostar.robocert.textual.generator.intf.seq.context.InteractionContext;
@@ -25,8 +26,11 @@ import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
 import robostar.robocert.textual.generator.tockcsp.ll.csp.LetGenerator;
 import robostar.robocert.textual.generator.tockcsp.ll.csp.SetGenerator;
 import robostar.robocert.textual.generator.tockcsp.memory.ModuleGenerator;
+import robostar.robocert.textual.generator.tockcsp.seq.CompressionStrategy.Mode;
+import robostar.robocert.textual.generator.tockcsp.seq.interaction.PrefixFlattener;
 import robostar.robocert.textual.generator.tockcsp.seq.interaction.UntilLifter;
 import robostar.robocert.textual.generator.tockcsp.seq.message.MessageGenerator;
+import robostar.robocert.textual.generator.utils.ContentsIndex;
 import robostar.robocert.Interaction;
 import robostar.robocert.Message;
 import robostar.robocert.util.StreamHelper;
@@ -56,6 +60,12 @@ public class InteractionGenerator {
   private MessageGenerator msgGen;
   @Inject
   private UntilLifter untilLifter;
+  @Inject
+  private ContentsIndex contents;
+  @Inject
+  private CompressionStrategy compression;
+  @Inject
+  private PrefixFlattener flattener;
 
   /**
    * Generates CSP-M for a sequence.
@@ -66,14 +76,50 @@ public class InteractionGenerator {
    * @return the generated CSP-M for the sequence.
    */
   public CharSequence generate(InteractionContext s) {
+    return generate(s, null);
+  }
+
+  /**
+   * Generates CSP-M for a sequence, reporting progress and checking for cancellation.
+   *
+   * <p>The monitor is advanced once per lifeline, so that large multi-lifeline interactions can be
+   * cancelled part-way through.
+   *
+   * @param s       the context-lifted sequence for which we are generating CSP-M.
+   * @param monitor the progress monitor (may be null).
+   * @return the generated CSP-M for the sequence.
+   */
+  public CharSequence generate(InteractionContext s, IProgressMonitor monitor) {
+    if (s.isFlat()) {
+      final var flat = generateFlat(s);
+      SubMonitor.done(monitor);
+      return flat;
+    }
+
     // TODO(@MattWindsor91): work out whether the memory is shared between
     // lifelines, or unique to each.
-    final var inner = generateWithoutMemory(s);
+    final var inner = generateWithoutMemory(s, monitor);
     return mg.needsMemory(s.seq().getVariables()) ? mg.lift(s.seq(), inner) : csp.tuple(inner);
   }
 
-  private CharSequence generateWithoutMemory(InteractionContext s) {
+  /**
+   * Generates a flat interaction, which needs neither memory lifting nor bracketing.
+   * <p>
+   * Where possible, we also collapse the lifeline into a single prefix chain.
+   */
+  private CharSequence generateFlat(InteractionContext s) {
     final var lines = s.actors(actorGen);
+    if (lines.isEmpty()) {
+      return csp.skip();
+    }
+    final var line = lines.get(0);
+    final var fragments = s.seq().getFragments();
+    return flattener.flatten(fragments, line).orElseGet(() -> sg.generate(fragments, line));
+  }
+
+  private CharSequence generateWithoutMemory(InteractionContext s, IProgressMonitor monitor) {
+    final var lines = s.actors(actorGen);
+    final var sub = SubMonitor.convert(monitor, lines.size());
 
     // Optimise single-lifeline processes by directly generating the body without trying to produce
     // alphabets, until processes, etc.
@@ -81,22 +127,31 @@ public class InteractionGenerator {
     // The default case is the one that corresponds to the semantics in the manual.
     return switch (lines.size()) {
       case 0 -> csp.skip();
-      case 1 -> sg.generate(s.seq().getFragments(), lines.get(0));
-      default -> generateMultiLifeline(s, lines);
+      case 1 -> {
+        sub.split(1);
+        yield sg.generate(s.seq().getFragments(), lines.get(0));
+      }
+      default -> generateMultiLifeline(s, lines, sub);
     };
   }
 
 
-  private CharSequence generateMultiLifeline(InteractionContext s, List<ActorContext> lines) {
+  private CharSequence generateMultiLifeline(InteractionContext s, List<ActorContext> lines,
+      SubMonitor monitor) {
     final var cs = csp.sets();
 
     final var ctrl = syncGen.qualified(syncGen.ctrlSetName(s.seq()));
 
     final var alphas = defs(lines, ActorContext::alphaCSP, x -> alpha(x, ctrl));
 
-    final CharSequence procs = multiLifelineProcesses(s, lines, cs);
+    final var mode = compression.effectiveMode(s.seq());
+    final CharSequence procs = multiLifelineProcesses(s, lines, cs, mode, monitor);
 
-    final var let = lg.let(alphas, procs).within(mainProcess());
+    // As well as each lifeline, we compress their parallel composition before the until process
+    // (if any) joins it.
+    final var main = compression.compress(mode, mainProcess(),
+        contents.allOfType(s.seq(), Message.class).size());
+    final var let = lg.let(alphas, procs).within(main);
     final var body = untilLifter.lift(s, let);
 
     // If we're using an until sync channel, we need to hide it, as it isn't part of the
@@ -106,9 +161,13 @@ public class InteractionGenerator {
   }
 
   private CharSequence multiLifelineProcesses(InteractionContext s, List<ActorContext> lines,
-      SetGenerator cs) {
-    return defs(lines, ActorContext::procCSP,
-        x -> cs.tuple(csp.seq(sg.generate(s.seq().getFragments(), x), termGen.terminateProc())));
+      SetGenerator cs, Mode mode, SubMonitor monitor) {
+    return defs(lines, ActorContext::procCSP, x -> {
+      monitor.split(1);
+      final var proc = cs.tuple(
+          csp.seq(sg.generate(s.seq().getFragments(), x), termGen.terminateProc()));
+      return compression.compress(mode, proc, lifelineMessages(x).size());
+    });
   }
 
   private CharSequence mainProcess() {
@@ -129,14 +188,16 @@ public class InteractionGenerator {
     // If we're using alphabet sets, we'll be using a separate process to handle UntilFragments.
     // This means that the set of events handled directly by a lifeline is precisely that defined
     // by its messages.
-    final var messages = EcoreUtil2.eAllOfType(ctx.global().seq(), Message.class);
-    final var msgSets = messages.stream()
-        .filter(m -> ctx.isForAnyOf(Stream.of(m.getFrom(), m.getTo())))
-        .map(msgGen::generateCSPEventSet);
+    final var msgSets = lifelineMessages(ctx).stream().map(msgGen::generateCSPEventSet);
 
     // This bit is convoluted, but intended to reduce duplicates.
     final var sets = StreamHelper.push(ctrl, msgSets).map(CharSequence::toString)
         .collect(Collectors.toUnmodifiableSet());
     return csp.iteratedUnion(csp.set(sets.toArray(CharSequence[]::new)));
   }
+
+  private List<Message> lifelineMessages(ActorContext ctx) {
+    return contents.allOfType(ctx.global().seq(), Message.class).stream()
+        .filter(m -> ctx.isForAnyOf(Stream.of(m.getFrom(), m.getTo()))).toList();
+  }
 }
@@ -15,6 +15,7 @@ import robostar.robocert.textual.generator.intf.seq.InteractionFragmentGenerator
 import robostar.robocert.textual.generator.intf.seq.context.LifelineContext;
 import robostar.robocert.textual.generator.intf.seq.SubsequenceGenerator;
 import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
+import robostar.robocert.textual.generator.utils.ExecutionStrategy;
 import robostar.robocert.InteractionFragment;
 
 /**
@@ -24,7 +25,8 @@ import robostar.robocert.InteractionFragment;
  */
 public record SubsequenceGeneratorImpl(
 		CSPStructureGenerator csp,
-		InteractionFragmentGenerator fragGen) implements SubsequenceGenerator {
+		InteractionFragmentGenerator fragGen,
+		ExecutionStrategy exec) implements SubsequenceGenerator {
 	// TODO(@MattWindsor91): it should be the *fragment* generator that has an interface, surely?
 
 	/**
@@ -32,6 +34,7 @@ public record SubsequenceGeneratorImpl(
 	 *
 	 * @param csp CSP structure generator used for the sequential composition.
 	 * @param fragGen generator used for each fragment in the subsequence.
+	 * @param exec strategy for generating fragments in parallel.
 	 */
 	@Inject
 	public SubsequenceGeneratorImpl {
@@ -39,7 +42,7 @@ public record SubsequenceGeneratorImpl(
 
 	@Override
 	public CharSequence generate(List<InteractionFragment> s, LifelineContext ctx) {
-		final var fragments = s.parallelStream().map(x -> fragGen.generate(x, ctx));
+		final var fragments = exec.map(s, x -> fragGen.generate(x, ctx));
 
 		// @MattWindsor91 2022-02-03: I've tried concatenating SKIP_ANYTIME here unconditionally, to
 		// try to make it possible to have empty subsequences as duration and until fragment bodies and
@@ -51,12 +51,18 @@ public record SyncChannelGenerator(CSPStructureGenerator csp, SpecificationGroup
   /**
    * Generates the synchronisation channel definitions for an interaction.
    *
-   * <p>This includes the control channel set, which is always generated.
+   * <p>This includes the control channel set, which is only needed (and so only generated) when
+   * the interaction has more than one lifeline.  Flat interactions generate nothing at all.
    *
    * @param ctx context for the interaction for which we are generating the channel.
    * @return the synchronisation channel definitions and control set definition.
    */
   public Stream<CharSequence> generate(InteractionContext ctx) {
+    // Only multi-lifeline interactions compose lifelines over the control set.
+    if (ctx.numLifelines() <= 1) {
+      return Stream.empty();
+    }
+
     final var syncs = Stream.of(ctx.untils(), ctx.pars())
         .filter(x -> x.mustSynchronise(ctx.numLifelines())).toList();
 
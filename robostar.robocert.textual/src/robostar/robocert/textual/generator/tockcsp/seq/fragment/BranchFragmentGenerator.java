@@ -16,6 +16,7 @@ import java.util.stream.Collector;
 import robostar.robocert.textual.generator.intf.seq.ContextualGenerator;
 import robostar.robocert.textual.generator.intf.seq.context.LifelineContext;
 import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
+import robostar.robocert.textual.generator.utils.ExecutionStrategy;
 import robostar.robocert.AltFragment;
 import robostar.robocert.BranchFragment;
 import robostar.robocert.InteractionOperand;
@@ -28,12 +29,14 @@ import robostar.robocert.XAltFragment;
  * @author Matt Windsor
  */
 public record BranchFragmentGenerator(CSPStructureGenerator csp,
-                                      ContextualGenerator<InteractionOperand> bg) {
+                                      ContextualGenerator<InteractionOperand> bg,
+                                      ExecutionStrategy exec) {
 
   @Inject
   public BranchFragmentGenerator {
     Objects.requireNonNull(csp);
     Objects.requireNonNull(bg);
+    Objects.requireNonNull(exec);
   }
 
   /**
@@ -44,7 +47,7 @@ public record BranchFragmentGenerator(CSPStructureGenerator csp,
    * @return the generated CSP-M process.
    */
   public CharSequence generate(BranchFragment b, LifelineContext ctx) {
-    CharSequence body = b.getBranches().parallelStream().map(x -> csp.tuple(bg.generate(x, ctx)))
+    CharSequence body = exec.map(b.getBranches(), x -> csp.tuple(bg.generate(x, ctx))).stream()
         .collect(operator(b));
 
     if (b instanceof ParFragment p) {
@@ -13,10 +13,8 @@ package robostar.robocert.textual.generator.tockcsp.seq.fragment.until;
 import com.google.inject.Inject;
 import java.util.Objects;
 import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
-import robostar.robocert.textual.generator.tockcsp.seq.message.MessageSetGenerator;
-import robostar.robocert.textual.generator.tockcsp.seq.message.MessageGenerator;
+import robostar.robocert.textual.generator.tockcsp.seq.message.EventSetAlgebra;
 import robostar.robocert.textual.generator.utils.InitialSetBuilder;
-import robostar.robocert.InteractionOperand;
 import robostar.robocert.UntilFragment;
 
 /**
@@ -26,15 +24,13 @@ import robostar.robocert.UntilFragment;
  */
 public record UntilFragmentHeaderGenerator(CSPStructureGenerator csp,
                                            InitialSetBuilder initialSetBuilder,
-                                           MessageSetGenerator messageSetGen,
-                                           MessageGenerator messageGen) {
+                                           EventSetAlgebra algebra) {
 
   @Inject
   public UntilFragmentHeaderGenerator {
     Objects.requireNonNull(csp);
     Objects.requireNonNull(initialSetBuilder);
-    Objects.requireNonNull(messageSetGen);
-    Objects.requireNonNull(messageGen);
+    Objects.requireNonNull(algebra);
   }
 
   /**
@@ -44,34 +40,21 @@ public record UntilFragmentHeaderGenerator(CSPStructureGenerator csp,
    * @return the generated CSP-M.
    */
   public CharSequence generate(UntilFragment fragment) {
-    return csp.function(UNTIL_PROC, intraMessageSet(fragment), initialSet(fragment.getBody()));
+    return csp.function(UNTIL_PROC, chaosSet(fragment));
   }
 
   /**
-   * Optimises the intra-message set in place, then generates it.
+   * Generates the set of events the fragment may perform before its body starts.
    * <p>
-   * We do the optimisation like this to preserve containment information, so sequence group lookup
-   * works.
+   * This is the intra-message set less the initial set of the body, to avoid the possibility of
+   * both the until-fragment and its enclosed subsequence offering the same CSP events.
    *
    * @param fragment the fragment.
    * @return the generated CSP.
    */
-  private CharSequence intraMessageSet(UntilFragment fragment) {
-    return messageSetGen.optimiseAndGenerate(fragment.getIntraMessages(),
-        fragment::setIntraMessages);
-  }
-
-  /**
-   * Generates the initial message set for an interaction operand.
-   * <p>
-   * This is to avoid the possibility of both the until-fragment and its enclosed subsequence
-   * offering the same CSP events.
-   *
-   * @param op the operand for which we are generating CSP.
-   * @return the generated CSP sequence.
-   */
-  private CharSequence initialSet(InteractionOperand op) {
-    return messageGen.generateBulkCSPEventSet(initialSetBuilder.initialSet(op).toList());
+  private CharSequence chaosSet(UntilFragment fragment) {
+    final var initial = initialSetBuilder.initialSet(fragment.getBody());
+    return algebra.diff(fragment.getIntraMessages(), initial);
   }
 
   /**
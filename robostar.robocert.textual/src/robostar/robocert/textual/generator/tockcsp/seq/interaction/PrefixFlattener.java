@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.tockcsp.seq.interaction;
+
+import com.google.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+import robostar.robocert.textual.generator.intf.seq.context.LifelineContext;
+import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
+import robostar.robocert.textual.generator.tockcsp.seq.message.MessageGenerator;
+import robostar.robocert.DeadlockOccurrence;
+import robostar.robocert.InteractionFragment;
+import robostar.robocert.MessageOccurrence;
+import robostar.robocert.OccurrenceFragment;
+import robostar.robocert.Temperature;
+
+/**
+ * Flattens straight-line interactions into a single chain of prefixes.
+ * <p>
+ * An interaction whose fragments are all hot messages on one lifeline (optionally ending in a
+ * deadlock) would otherwise become a sequential composition of {@code e -> SKIP} processes.  The
+ * chain {@code e1 -> e2 -> ... -> SKIP} means the same, but is smaller and cheaper for FDR.
+ *
+ * @param csp    CSP structure generator.
+ * @param msgGen generator for message prefixes.
+ * @author Matt Windsor
+ */
+public record PrefixFlattener(CSPStructureGenerator csp, MessageGenerator msgGen) {
+
+  /**
+   * Constructs a prefix flattener.
+   *
+   * @param csp    CSP structure generator.
+   * @param msgGen generator for message prefixes.
+   */
+  @Inject
+  public PrefixFlattener {
+    Objects.requireNonNull(csp);
+    Objects.requireNonNull(msgGen);
+  }
+
+  /**
+   * Tries to flatten a subsequence into a prefix chain.
+   * <p>
+   * This does not load or store memory, so it should only be used on interactions with no
+   * variables.
+   *
+   * @param fragments the subsequence.
+   * @param ctx       the (only) lifeline on which the subsequence runs.
+   * @return the prefix chain, or empty if the subsequence has anything other than hot messages on
+   * this lifeline followed by at most one deadlock.
+   */
+  public Optional<CharSequence> flatten(List<InteractionFragment> fragments,
+      LifelineContext ctx) {
+    final var prefixes = new ArrayList<CharSequence>(fragments.size());
+    var end = csp.skip();
+
+    for (var i = 0; i < fragments.size(); i++) {
+      if (!(fragments.get(i) instanceof OccurrenceFragment f)) {
+        return Optional.empty();
+      }
+      final var occ = f.getOccurrence();
+      if (occ instanceof DeadlockOccurrence && i == fragments.size() - 1) {
+        end = "STOP";
+        continue;
+      }
+      if (!(occ instanceof MessageOccurrence m) || m.getTemperature() != Temperature.HOT) {
+        return Optional.empty();
+      }
+      final var msg = m.getMessage();
+      if (!ctx.isForAnyOf(Stream.of(msg.getFrom(), msg.getTo()))) {
+        return Optional.empty();
+      }
+      prefixes.add(msgGen.generatePrefix(msg));
+    }
+
+    prefixes.add(end);
+    return Optional.of(String.join(" -> ", prefixes));
+  }
+}
@@ -15,27 +15,37 @@ import java.util.Objects;
 import robostar.robocert.textual.generator.intf.seq.context.InteractionContext;
 import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
 import robostar.robocert.textual.generator.tockcsp.ll.csp.LetGenerator.LetWithin;
+import robostar.robocert.textual.generator.tockcsp.seq.CompressionStrategy;
 import robostar.robocert.textual.generator.tockcsp.seq.fragment.until.UntilFragmentProcessGenerator;
+import robostar.robocert.textual.generator.utils.ContentsIndex;
+import robostar.robocert.Message;
 
 /**
  * Lifts a multi-lifeline interaction process by attaching a process to handle until fragments.
  *
- * @param csp      CSP structure generator.
- * @param untilGen until fragment process generator.
+ * @param csp         CSP structure generator.
+ * @param untilGen    until fragment process generator.
+ * @param compression decides whether to compress the until process.
+ * @param contents    used to find the messages inside until fragments.
  * @author Matt Windsor
  */
-public record UntilLifter(CSPStructureGenerator csp, UntilFragmentProcessGenerator untilGen) {
+public record UntilLifter(CSPStructureGenerator csp, UntilFragmentProcessGenerator untilGen,
+                          CompressionStrategy compression, ContentsIndex contents) {
 
   /**
    * Constructs an until lifter.
    *
-   * @param csp      CSP structure generator.
-   * @param untilGen until fragment process generator.
+   * @param csp         CSP structure generator.
+   * @param untilGen    until fragment process generator.
+   * @param compression decides whether to compress the until process.
+   * @param contents    used to find the messages inside until fragments.
    */
   @Inject
   public UntilLifter {
     Objects.requireNonNull(csp);
     Objects.requireNonNull(untilGen);
+    Objects.requireNonNull(compression);
+    Objects.requireNonNull(contents);
   }
 
   /**
@@ -52,14 +62,22 @@ public record UntilLifter(CSPStructureGenerator csp, UntilFragmentProcessGenerat
 
   private LetWithin addUntil(InteractionContext ctx, LetWithin process, CharSequence untilChan) {
     final var let = process.bindings().and(untilGen.process(ctx));
-    final CharSequence body = syncBodyWithUntil(process.body(), untilChan);
+    final CharSequence body = syncBodyWithUntil(ctx, process.body(), untilChan);
     return new LetWithin(let, body);
   }
 
-  private CharSequence syncBodyWithUntil(CharSequence body, CharSequence untilChan) {
+  private CharSequence syncBodyWithUntil(InteractionContext ctx, CharSequence body,
+      CharSequence untilChan) {
     final var lhs = csp.tuple(body);
     final var untilChanSet = csp.sets().enumeratedSet(untilChan);
-    final var rhs = UntilFragmentProcessGenerator.NAME;
+    // The until process is recursive, so we compress it here rather than inside its definition.
+    final var rhs = compression.compress(compression.effectiveMode(ctx.seq()),
+        UntilFragmentProcessGenerator.NAME, untilSize(ctx));
     return csp.bins().genParallel(lhs, untilChanSet, rhs);
   }
+
+  private int untilSize(InteractionContext ctx) {
+    return ctx.untils().fragments().stream()
+        .mapToInt(f -> contents.allOfType(f, Message.class).size()).sum();
+  }
 }
@@ -10,13 +10,17 @@
 
 package robostar.robocert.textual.generator.tockcsp.seq.message;
 
+import circus.robocalc.robochart.Variable;
 import circus.robocalc.robochart.generator.csp.untimed.TypeGenerator;
 import com.google.inject.Inject;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.eclipse.xtext.xbase.lib.Pair;
 import robostar.robocert.textual.generator.tockcsp.core.TemporaryVariableGenerator;
+import robostar.robocert.textual.generator.tockcsp.core.ExpressionGenerator;
+import robostar.robocert.textual.generator.utils.VariableHelper;
 import robostar.robocert.MessageTopic;
 import robostar.robocert.WildcardValueSpecification;
 import robostar.robocert.util.resolve.ParamTypeResolver;
@@ -24,12 +28,17 @@ import robostar.robocert.util.resolve.ParamTypeResolver;
 /**
  * Generates CSP for ranges of arguments, which will go into a set comprehension inside the
  * generated message.
+ * <p>
+ * Wildcards that bind into a variable with a narrowed domain range over that domain; all other
+ * wildcards range over the whole parameter type.
  *
  * @author Matt Windsor
  */
 public record ArgumentRangeGenerator(TemporaryVariableGenerator bg,
 																		 TypeGenerator tg,
-                                     ParamTypeResolver paramTypeRes
+                                     ParamTypeResolver paramTypeRes,
+                                     ExpressionGenerator exprGen,
+                                     VariableHelper vx
                                      ) {
 
   @Inject
@@ -37,6 +46,8 @@ public record ArgumentRangeGenerator(TemporaryVariableGenerator bg,
     Objects.requireNonNull(bg);
     Objects.requireNonNull(tg);
     Objects.requireNonNull(paramTypeRes);
+    Objects.requireNonNull(exprGen);
+    Objects.requireNonNull(vx);
   }
 
   /**
@@ -55,9 +66,15 @@ public record ArgumentRangeGenerator(TemporaryVariableGenerator bg,
   }
 
   private CharSequence generateRange(MessageTopic t, WildcardValueSpecification arg, long index) {
-    final var name = bg.generateArgumentName(arg.getDestination(), index);
-    final var type = paramTypeRes.resolve(t).skip(index).findFirst().orElseThrow();
-    final var typeStr = tg.compileType(type);
-    return "%s <- %s".formatted(name, typeStr);
+    final var dest = arg.getDestination();
+    final var name = bg.generateArgumentName(dest, index);
+    return "%s <- %s".formatted(name, generateDomain(t, dest, index));
+  }
+
+  private CharSequence generateDomain(MessageTopic t, Variable dest, long index) {
+    return Optional.ofNullable(dest).flatMap(vx::domain).map(exprGen::generate).orElseGet(() -> {
+      final var type = paramTypeRes.resolve(t).skip(index).findFirst().orElseThrow();
+      return tg.compileType(type);
+    });
   }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.tockcsp.seq.message;
+
+import circus.robocalc.robochart.BooleanExp;
+import circus.robocalc.robochart.EnumExp;
+import circus.robocalc.robochart.Expression;
+import circus.robocalc.robochart.IntegerExp;
+import com.google.inject.Inject;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
+import robostar.robocert.ExpressionValueSpecification;
+import robostar.robocert.ExtensionalMessageSet;
+import robostar.robocert.Message;
+import robostar.robocert.MessageSet;
+
+/**
+ * Performs set algebra on message sets at generation time, where it can do so exactly.
+ * <p>
+ * A message whose arguments are all literals resolves to exactly one CSP event, and two such
+ * messages denote the same event exactly when they generate the same prefix.  Sets made only of
+ * these messages can therefore be combined here, rather than leaving FDR to do it every time it
+ * loads the script.  Anything else falls back to the equivalent CSP-M set function.
+ *
+ * @param csp    CSP structure generator.
+ * @param msgGen generator for individual messages.
+ * @param setGen generator for message sets.
+ * @author Matt Windsor
+ */
+public record EventSetAlgebra(CSPStructureGenerator csp, MessageGenerator msgGen,
+                              MessageSetGenerator setGen) {
+
+  /**
+   * Constructs an event set algebra.
+   *
+   * @param csp    CSP structure generator.
+   * @param msgGen generator for individual messages.
+   * @param setGen generator for message sets.
+   */
+  @Inject
+  public EventSetAlgebra {
+    Objects.requireNonNull(csp);
+    Objects.requireNonNull(msgGen);
+    Objects.requireNonNull(setGen);
+  }
+
+  /**
+   * Generates the difference between a message set and a list of messages.
+   *
+   * @param lhs the message set (which is optimised before use).
+   * @param rhs the messages to remove from {@code lhs}.
+   * @return CSP-M for the difference; an enumerated set if it could be computed here.
+   */
+  public CharSequence diff(MessageSet lhs, List<Message> rhs) {
+    final var optLhs = setGen.optimised(lhs);
+    if (rhs.isEmpty()) {
+      return setGen.generate(optLhs);
+    }
+
+    final var lhsEvents = resolve(optLhs);
+    if (lhsEvents.map(Set::isEmpty).orElse(false)) {
+      return csp.set();
+    }
+    final var rhsEvents = resolve(rhs);
+    if (lhsEvents.isPresent() && rhsEvents.isPresent()) {
+      final var result = new LinkedHashSet<>(lhsEvents.get());
+      result.removeAll(rhsEvents.get());
+      return csp.set(result.toArray(CharSequence[]::new));
+    }
+
+    return csp.function("diff", setGen.generate(optLhs), msgGen.generateBulkCSPEventSet(rhs));
+  }
+
+  /**
+   * Tries to resolve a message set to the CSP events it contains.
+   *
+   * @param m the (ideally optimised) message set.
+   * @return the events of {@code m}, if it is extensional and each of its messages resolves to
+   * exactly one event.
+   */
+  public Optional<Set<String>> resolve(MessageSet m) {
+    if (m instanceof ExtensionalMessageSet e) {
+      return resolve(e.getMessages());
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Tries to resolve a list of messages to the CSP events they denote.
+   *
+   * @param ms the messages.
+   * @return the events of {@code ms}, if each message resolves to exactly one event.
+   */
+  public Optional<Set<String>> resolve(List<Message> ms) {
+    if (!ms.stream().allMatch(this::isConcrete)) {
+      return Optional.empty();
+    }
+    final var events = new LinkedHashSet<String>();
+    for (var m : ms) {
+      events.add(msgGen.generatePrefix(m).toString());
+    }
+    return Optional.of(events);
+  }
+
+  private boolean isConcrete(Message m) {
+    return m.getArguments().stream()
+        .allMatch(x -> x instanceof ExpressionValueSpecification e && isLiteral(e.getExpr()));
+  }
+
+  private boolean isLiteral(Expression e) {
+    // Anything else (constants, variables, arithmetic) could generate different text for the same
+    // value, so comparing prefixes would no longer be exact.
+    return e instanceof IntegerExp || e instanceof BooleanExp || e instanceof EnumExp;
+  }
+}
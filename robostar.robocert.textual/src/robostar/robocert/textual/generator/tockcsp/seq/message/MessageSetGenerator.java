@@ -11,7 +11,8 @@ package robostar.robocert.textual.generator.tockcsp.seq.message;
 
 import com.google.inject.Inject;
 import java.util.Objects;
-import java.util.function.Consumer;
+import org.eclipse.xtext.util.IResourceScopeCache;
+import org.eclipse.xtext.util.Tuples;
 import robostar.robocert.textual.generator.intf.core.SpecGroupField;
 import robostar.robocert.textual.generator.tockcsp.ll.csp.CSPStructureGenerator;
 import robostar.robocert.textual.generator.utils.MessageSetOptimiser;
@@ -24,11 +25,14 @@ import robostar.robocert.UniverseMessageSet;
 
 /**
  * CSP generator for message sets.
+ * <p>
+ * Optimised forms of sets are kept in a side table hanging off the set's resource, rather than
+ * being written back into the model, so generation leaves the model untouched.
  *
  * @author Matt Windsor
  */
 public record MessageSetGenerator(CSPStructureGenerator csp, MessageSetOptimiser mso,
-                                  MessageGenerator msg) {
+                                  MessageGenerator msg, IResourceScopeCache cache) {
   // TODO(@MattWindsor91): split named set functionality out of this.
 
   /**
@@ -39,30 +43,44 @@ public record MessageSetGenerator(CSPStructureGenerator csp, MessageSetOptimiser
   /**
    * Constructs a message set generator.
    *
-   * @param csp generator for low-level CSP-M structure.
-   * @param mso optimiser for message sets, used for named message set generation.
-   * @param msg generator for message specs.
+   * @param csp   generator for low-level CSP-M structure.
+   * @param mso   optimiser for message sets, used for named message set generation.
+   * @param msg   generator for message specs.
+   * @param cache cache holding optimised sets.
    */
   @Inject
   public MessageSetGenerator {
     Objects.requireNonNull(csp);
     Objects.requireNonNull(mso);
     Objects.requireNonNull(msg);
+    Objects.requireNonNull(cache);
   }
 
   /**
    * Optimises a message set, then generates CSP-M for it.
    *
-   * @param m         the set in question.
-   * @param registrar function that receives the optimised set before generation, and which should
-   *                  re-attach the new set to the object graph in place of m (eg, if m is
-   *                  <code>foo.getSet()</code>, registrar should be <code>foo::setSet</code>).
+   * @param m the set in question.
    * @return generated, optimised CSP for the message set.
    */
-  public CharSequence optimiseAndGenerate(MessageSet m, Consumer<MessageSet> registrar) {
-    final var opt = mso.optimise(m);
-    registrar.accept(opt);
-    return generate(opt);
+  public CharSequence optimiseAndGenerate(MessageSet m) {
+    return generate(optimised(m));
+  }
+
+  /**
+   * Gets the optimised form of a message set.
+   * <p>
+   * The optimised set is detached from the model, but only ever refers to (rather than contains)
+   * objects outside itself, so it generates the same CSP as it would in place of the original.
+   *
+   * @param m the set in question.
+   * @return the optimised set, computed at most once per set while its resource is unchanged.
+   */
+  public MessageSet optimised(MessageSet m) {
+    final var res = m == null ? null : m.eResource();
+    if (res == null) {
+      return mso.optimise(m);
+    }
+    return cache.get(Tuples.pair(MessageSetGenerator.class, m), res, () -> mso.optimise(m));
   }
 
   /**
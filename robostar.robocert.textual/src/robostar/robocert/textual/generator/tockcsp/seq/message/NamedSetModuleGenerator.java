@@ -49,7 +49,7 @@ public record NamedSetModuleGenerator(CGeneratorUtils gu, CSPStructureGenerator
   public Optional<CharSequence> generate(SpecificationGroup group) {
     final var sets = group.getMessageSets();
     final var userSets = sets.stream().filter(Objects::nonNull).map(
-            x -> csp.definition(x.getName(), setGenerator.optimiseAndGenerate(x.getSet(), x::setSet)))
+            x -> csp.definition(x.getName(), setGenerator.optimiseAndGenerate(x.getSet())))
         .toArray(CharSequence[]::new);
 
     if (userSets.length == 0) {
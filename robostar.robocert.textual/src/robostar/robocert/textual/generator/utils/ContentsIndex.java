@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.utils;
+
+import com.google.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.EcoreUtil2;
+import org.eclipse.xtext.util.IResourceScopeCache;
+import org.eclipse.xtext.util.Tuples;
+
+/**
+ * Index of the transitive contents of model objects, grouped by type.
+ * <p>
+ * The first query on a given root walks its contents once; every later query on that root, for
+ * any type, is served from the walk.  Indices hang off the root's resource through the resource
+ * scope cache, and so are discarded whenever that resource changes.  Objects outside a resource
+ * are walked afresh each time.
+ *
+ * @param cache the cache holding per-root indices.
+ * @author Matt Windsor
+ */
+public record ContentsIndex(IResourceScopeCache cache) {
+
+  /**
+   * Constructs a contents index.
+   *
+   * @param cache the cache holding per-root indices.
+   */
+  @Inject
+  public ContentsIndex {
+    Objects.requireNonNull(cache);
+  }
+
+  /**
+   * Gets every object of a given type transitively contained in a root object.
+   * <p>
+   * This has the same semantics as {@link EcoreUtil2#eAllOfType(EObject, Class)}: the root itself
+   * is not included, and objects appear in tree order.
+   *
+   * @param <T>   type of objects to look for.
+   * @param root  the object whose contents we are searching.
+   * @param clazz class of {@code <T>}.
+   * @return an unmodifiable list of all contained objects of type {@code <T>}.
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends EObject> List<T> allOfType(EObject root, Class<T> clazz) {
+    final var res = root.eResource();
+    if (res == null) {
+      return List.copyOf(EcoreUtil2.eAllOfType(root, clazz));
+    }
+
+    final var entry = cache.get(Tuples.pair(ContentsIndex.class, root), res, () -> new Entry(root));
+    return (List<T>) entry.byType.computeIfAbsent(clazz,
+        c -> entry.contents.stream().filter(c::isInstance).toList());
+  }
+
+  private static class Entry {
+
+    private final List<EObject> contents = new ArrayList<>();
+    private final Map<Class<?>, List<?>> byType = new ConcurrentHashMap<>();
+
+    private Entry(EObject root) {
+      root.eAllContents().forEachRemaining(contents::add);
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.utils;
+
+import com.google.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Decides how (and whether) the generators and validators spread work across threads.
+ * <p>
+ * Parallel work runs on a dedicated, bounded fork/join pool rather than the common pool, so that it
+ * doesn't compete with whatever else is using the common pool (such as an IDE).  Work over fewer
+ * items than the threshold always runs sequentially on the calling thread, as forking costs more
+ * than it saves on small lists.
+ * <p>
+ * The parallelism comes from {@link #setParallelism(int)} or the {@value #PARALLELISM_PROPERTY}
+ * system property, defaulting to the number of processors; a parallelism of 1 or less makes
+ * everything sequential.  The threshold likewise comes from {@link #setThreshold(int)} or the
+ * {@value #THRESHOLD_PROPERTY} system property.
+ *
+ * @author Matt Windsor
+ */
+@Singleton
+public class ExecutionStrategy {
+
+  /**
+   * System property from which the initial parallelism is taken.
+   */
+  public static final String PARALLELISM_PROPERTY = "robocert.parallelism";
+
+  /**
+   * System property from which the initial threshold is taken.
+   */
+  public static final String THRESHOLD_PROPERTY = "robocert.parallelThreshold";
+
+  /**
+   * Default minimum number of items for which work goes parallel.
+   */
+  public static final int DEFAULT_THRESHOLD = 16;
+
+  private volatile int parallelism = Integer.getInteger(PARALLELISM_PROPERTY,
+      Runtime.getRuntime().availableProcessors());
+  private volatile int threshold = Integer.getInteger(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD);
+  private Lease current;
+
+  /**
+   * A pool, together with how many invocations are using it.
+   * <p>
+   * All access happens while synchronised on the strategy.
+   */
+  private static final class Lease {
+
+    private final ForkJoinPool pool;
+    private int users;
+    private boolean retired;
+
+    private Lease(int parallelism) {
+      pool = new ForkJoinPool(parallelism);
+    }
+  }
+
+  /**
+   * @return the maximum number of threads used for parallel work (1 or less means sequential).
+   */
+  public int parallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Sets the maximum number of threads used for parallel work.
+   *
+   * @param parallelism the new parallelism (1 or less makes everything sequential).
+   */
+  public synchronized void setParallelism(int parallelism) {
+    if (parallelism == this.parallelism) {
+      return;
+    }
+    this.parallelism = parallelism;
+    // Work already running on the old pool finishes there; the pool shuts down once the last such
+    // invocation returns it.
+    if (current != null) {
+      current.retired = true;
+      shutdownIfUnused(current);
+      current = null;
+    }
+  }
+
+  /**
+   * @return the minimum number of items for which work goes parallel.
+   */
+  public int threshold() {
+    return threshold;
+  }
+
+  /**
+   * Sets the minimum number of items for which work goes parallel.
+   *
+   * @param threshold the new threshold.
+   */
+  public void setThreshold(int threshold) {
+    this.threshold = threshold;
+  }
+
+  /**
+   * @return whether this strategy does any parallel work at all.
+   */
+  public boolean isSequential() {
+    return parallelism <= 1;
+  }
+
+  /**
+   * Maps a function over a list, in parallel if the list is large enough.
+   *
+   * @param xs  the input list.
+   * @param f   the function to apply; must be safe to call from multiple threads.
+   * @param <T> type of inputs.
+   * @param <R> type of outputs.
+   * @return an unmodifiable list of outputs, in the same order as the inputs.
+   */
+  public <T, R> List<R> map(List<T> xs, Function<? super T, ? extends R> f) {
+    if (isSequential() || xs.size() < threshold) {
+      return xs.stream().<R>map(f).toList();
+    }
+    return invoke(ForkJoinTask.adapt(() -> xs.parallelStream().<R>map(f).toList()));
+  }
+
+  /**
+   * Runs a fork/join task on the pool, waiting for its result.
+   * <p>
+   * Parallel streams started within the task also run on the pool.  If the strategy is sequential,
+   * the task runs on the calling thread, and should avoid forking.
+   *
+   * @param task the task to run.
+   * @param <T>  type of the task's result.
+   * @return the task's result.
+   */
+  public <T> T invoke(ForkJoinTask<T> task) {
+    if (isSequential()) {
+      return task.invoke();
+    }
+    final var lease = acquire();
+    try {
+      // Nested work is already on the pool, and can just carry on there.
+      if (ForkJoinTask.getPool() == lease.pool) {
+        return task.invoke();
+      }
+      return lease.pool.invoke(task);
+    } finally {
+      release(lease);
+    }
+  }
+
+  private synchronized Lease acquire() {
+    if (current == null) {
+      current = new Lease(parallelism);
+    }
+    current.users++;
+    return current;
+  }
+
+  private synchronized void release(Lease lease) {
+    lease.users--;
+    shutdownIfUnused(lease);
+  }
+
+  private static void shutdownIfUnused(Lease lease) {
+    if (lease.retired && lease.users == 0) {
+      lease.pool.shutdown();
+    }
+  }
+}
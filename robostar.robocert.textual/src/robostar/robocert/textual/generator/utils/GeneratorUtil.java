@@ -11,8 +11,13 @@
 package robostar.robocert.textual.generator.utils;
 
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import java.util.Iterator;
-import java.util.function.Consumer;
+import java.util.function.BiConsumer;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.xtext.generator.IGeneratorContext;
@@ -27,31 +32,78 @@ public class GeneratorUtil {
 
   /**
    * Feeds each package in a resource into a consumer function, stopping on cancellation.
+   * <p>
+   * Each package gets its own slice of the context's progress monitor, which the consumer can use
+   * both to report progress and to check for cancellation within the package.
    *
    * @param input   input resource to search for packages.
    * @param context context to monitor for cancellation.
-   * @param f       consumer function to apply to the packages.
+   * @param f       consumer function to apply to the packages and their progress monitors.
    */
   public static void forEachPackage(Resource input, IGeneratorContext context,
-      Consumer<CertPackage> f) {
-    final var iter = packages(input);
-    while (iter.hasNext()) {
-      if (context.getCancelIndicator().isCanceled()) {
+      BiConsumer<CertPackage, IProgressMonitor> f) {
+    final var pkgs = Lists.newArrayList(packages(input));
+    final var sub = SubMonitor.convert(monitor(context), pkgs.size());
+    for (var pkg : pkgs) {
+      if (sub.isCanceled()) {
         return;
       }
 
-      f.accept(iter.next());
+      f.accept(pkg, sub.newChild(1));
     }
   }
 
+  /**
+   * Gets a progress monitor for a generator context.
+   * <p>
+   * The monitor reports cancellation whenever the context's cancel indicator does.  If the context
+   * is a {@link ProgressGeneratorContext}, progress goes to its monitor; otherwise, it is dropped.
+   *
+   * @param context the generator context.
+   * @return a progress monitor tied to the context.
+   */
+  public static IProgressMonitor monitor(IGeneratorContext context) {
+    final var inner = context instanceof ProgressGeneratorContext p ? p.getProgressMonitor()
+        : new NullProgressMonitor();
+    final var cancel = context.getCancelIndicator();
+
+    return new ProgressMonitorWrapper(inner) {
+      @Override
+      public boolean isCanceled() {
+        return super.isCanceled() || (cancel != null && cancel.isCanceled());
+      }
+    };
+  }
+
   /**
    * Gets the packages contained within the given resource.
    *
+   * <p>If the resource is part of a set, this consults the set's {@link PackageIndex}.
+   *
    * @param input resource to inspect.
    * @return an iterator of all RoboCert packages in that resource.
    */
   public static Iterator<CertPackage> packages(Resource input) {
-    return contentsOfType(input, CertPackage.class);
+    final var set = input.getResourceSet();
+    if (set == null) {
+      return topLevelOfType(input, CertPackage.class);
+    }
+    return PackageIndex.of(set).packagesIn(input, CertPackage.class).iterator();
+  }
+
+  /**
+   * Gets the objects of a given type contained directly within the given resource.
+   *
+   * <p>Unlike {@link #contentsOfType(Resource, Class)}, this does not descend into the contents of
+   * those objects, and so is much cheaper when we know that the objects we want are at the top
+   * level (as is the case for packages).
+   *
+   * @param input  resource to inspect.
+   * @param tClass class to extract.
+   * @return an iterator of all top-level objects of that class in that resource.
+   */
+  public static <T> Iterator<T> topLevelOfType(Resource input, Class<T> tClass) {
+    return Iterators.filter(input.getContents().iterator(), tClass);
   }
 
   /**
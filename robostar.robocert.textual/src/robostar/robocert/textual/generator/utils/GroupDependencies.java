@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.utils;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.EcoreUtil2;
+import robostar.robocert.CSPGroup;
+import robostar.robocert.CSPProperty;
+import robostar.robocert.Group;
+
+/**
+ * Works out which groups of a package a group needs in order to be loaded on its own.
+ * <p>
+ * Dependencies come from cross-references between groups in the same package.  CSP groups and CSP
+ * properties are opaque text that could mention anything, so any group that (transitively) needs
+ * one of them needs the whole package.
+ *
+ * @author Matt Windsor
+ */
+public class GroupDependencies {
+
+  /**
+   * Gets the groups that a group depends on, including itself.
+   *
+   * @param group the group.
+   * @return the groups needed by {@code group}, in the order in which they appear in its package.
+   */
+  public List<Group> closure(Group group) {
+    final var pkg = group.getParent();
+    if (pkg == null) {
+      return List.of(group);
+    }
+
+    final var seen = new HashSet<Group>();
+    final var todo = new ArrayDeque<Group>();
+    seen.add(group);
+    todo.add(group);
+
+    while (!todo.isEmpty()) {
+      final var g = todo.remove();
+      if (isOpaque(g)) {
+        return List.copyOf(pkg.getGroups());
+      }
+      for (var dep : directDependencies(g)) {
+        if (dep.getParent() == pkg && seen.add(dep)) {
+          todo.add(dep);
+        }
+      }
+    }
+
+    return pkg.getGroups().stream().filter(seen::contains).toList();
+  }
+
+  /**
+   * Checks whether a group is opaque, meaning that it contains CSP text we can't look into.
+   *
+   * @param g the group to check.
+   * @return whether {@code g} is a CSP group or contains a CSP property.
+   */
+  public boolean isOpaque(Group g) {
+    return g instanceof CSPGroup || !EcoreUtil2.getAllContentsOfType(g, CSPProperty.class)
+        .isEmpty();
+  }
+
+  private Set<Group> directDependencies(Group g) {
+    final var deps = new HashSet<Group>();
+    final var it = g.eAllContents();
+    while (it.hasNext()) {
+      for (EObject ref : it.next().eCrossReferences()) {
+        final var container = EcoreUtil2.getContainerOfType(ref, Group.class);
+        if (container != null && container != g) {
+          deps.add(container);
+        }
+      }
+    }
+    return deps;
+  }
+}
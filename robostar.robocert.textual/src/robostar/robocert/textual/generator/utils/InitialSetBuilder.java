@@ -10,7 +10,12 @@
 
 package robostar.robocert.textual.generator.utils;
 
+import com.google.inject.Inject;
+import java.util.List;
+import java.util.Objects;
 import java.util.stream.Stream;
+import org.eclipse.xtext.util.IResourceScopeCache;
+import org.eclipse.xtext.util.Tuples;
 import robostar.robocert.BlockFragment;
 import robostar.robocert.BranchFragment;
 import robostar.robocert.InteractionOperand;
@@ -23,13 +28,28 @@ import robostar.robocert.UntilFragment;
 
 /**
  * Handles the construction of initial message sets for until-fragments.
+ * <p>
+ * Initial sets are kept in a side table hanging off the operand's resource, so each operand's set
+ * is built at most once per generation, however deeply it is nested.
  *
+ * @param cache cache holding initial sets.
  * @author Matt Windsor
  */
-public class InitialSetBuilder {
+public record InitialSetBuilder(IResourceScopeCache cache) {
+
   /**
-   * Gets the initial set for an interaction operand, as a stream of message sets to be united.
+   * Constructs an initial set builder.
    *
+   * @param cache cache holding initial sets.
+   */
+  @Inject
+  public InitialSetBuilder {
+    Objects.requireNonNull(cache);
+  }
+
+  /**
+   * Gets the initial set for an interaction operand, as a list of messages to be united.
+   * <p>
    * This is empty if the subsequence is empty or an occurrence other than a message, the singleton
    * set containing the message if it is a message occurrence, and will currently throw in any
    * other situation.  More scenarios will be specified in future.
@@ -37,8 +57,17 @@ public class InitialSetBuilder {
    * @param op the operand.
    * @return the messages that the subsequence can initially offer.
    */
-  public Stream<Message> initialSet(InteractionOperand op) {
-    return op.getFragments().stream().limit(1).flatMap(this::fragmentInitialSet).distinct();
+  public List<Message> initialSet(InteractionOperand op) {
+    final var res = op.eResource();
+    if (res == null) {
+      return computeInitialSet(op);
+    }
+    return cache.get(Tuples.pair(InitialSetBuilder.class, op), res, () -> computeInitialSet(op));
+  }
+
+  private List<Message> computeInitialSet(InteractionOperand op) {
+    return op.getFragments().stream().limit(1).flatMap(this::fragmentInitialSet).distinct()
+        .toList();
   }
 
   private Stream<Message> fragmentInitialSet(InteractionFragment fragment) {
@@ -57,7 +86,7 @@ public class InitialSetBuilder {
     // Recurse down the subsequences of combined fragments, assuming any well-formedness issues
     // have already been dealt with.
     if (fragment instanceof BlockFragment b)
-      return initialSet(b.getBody());
+      return initialSet(b.getBody()).stream();
     if (fragment instanceof BranchFragment b)
       return branchInitialSet(b);
 
@@ -65,7 +94,7 @@ public class InitialSetBuilder {
   }
 
   private Stream<Message> branchInitialSet(BranchFragment b) {
-    return b.getBranches().parallelStream().flatMap(this::initialSet);
+    return b.getBranches().stream().flatMap(x -> initialSet(x).stream());
   }
 
   private Stream<Message> occurrenceInitialSet(Occurrence occ) {
@@ -34,18 +34,26 @@ public record MessageSetOptimiser(SetFactory setFactory) {
   /**
    * Optimises a message set.
    * <p>
-   * Note that the optimisation constructs a new set, and will need to be substituted into the model
-   * for containment-sensitive actions to work.
+   * The optimisation never changes the input set; if it can optimise anything, it works on (and
+   * returns) a detached copy.
    */
   public MessageSet optimise(MessageSet it) {
     // We can only optimise binary operations, because universe and extensional sets are always
     // optimised, and we don't traverse through references to maintain modularity.
+    if (!(it instanceof BinaryMessageSet)) {
+      return it;
+    }
+    // Building optimised sets moves subterms out of their containers, so we can't touch the model.
+    return optimiseCopy(EcoreUtil.copy(it));
+  }
+
+  private MessageSet optimiseCopy(MessageSet it) {
     if (!(it instanceof BinaryMessageSet b)) {
       return it;
     }
 
-    final var lhs = optimise(b.getLhs());
-    final var rhs = optimise(b.getRhs());
+    final var lhs = optimiseCopy(b.getLhs());
+    final var rhs = optimiseCopy(b.getRhs());
 
     return switch (b.getOperator()) {
       case UNION -> optimiseUnion(lhs, rhs);
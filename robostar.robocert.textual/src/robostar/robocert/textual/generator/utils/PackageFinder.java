@@ -18,6 +18,8 @@ import robostar.robocert.util.StreamHelper;
 /**
  * Extensions for finding RoboStar packages in resources.
  *
+ * <p>Lookups go through the {@link PackageIndex} of the resource's set where there is one.
+ *
  * @author Matt Windsor
  */
 public class PackageFinder {
@@ -32,9 +34,29 @@ public class PackageFinder {
    * @return the packages available on this resource's set.
    */
   public <T extends BasicPackage> Stream<T> packagesInSiblingResources(Resource r, Class<T> clazz) {
-    return r.getResourceSet().getResources().stream()
-        .filter(x -> x != r)
-        .flatMap(x -> packagesInResource(x, clazz));
+    final var set = r.getResourceSet();
+    if (set == null) {
+      return Stream.empty();
+    }
+    return excluding(r, PackageIndex.of(set).packages(clazz).stream());
+  }
+
+  /**
+   * Gets the anonymous packages of a particular class in the resource set of an EMF resource,
+   * excluding this resource.
+   *
+   * @param <T> type of packages to look for.
+   * @param r the top-level resource.
+   * @param clazz class of {@code <T>}.
+   * @return the unnamed packages available on this resource's set.
+   */
+  public <T extends BasicPackage> Stream<T> anonymousPackagesInSiblingResources(Resource r,
+      Class<T> clazz) {
+    final var set = r.getResourceSet();
+    if (set == null) {
+      return Stream.empty();
+    }
+    return excluding(r, PackageIndex.of(set).anonymousPackages(clazz).stream());
   }
 
   /**
@@ -47,6 +69,14 @@ public class PackageFinder {
    */
   public <T extends BasicPackage> Stream<T> packagesInResource(
       Resource r, Class<T> clazz) {
-    return StreamHelper.filter(r.getContents().stream(), clazz);
+    final var set = r.getResourceSet();
+    if (set == null) {
+      return StreamHelper.filter(r.getContents().stream(), clazz);
+    }
+    return PackageIndex.of(set).packagesIn(r, clazz);
+  }
+
+  private <T extends BasicPackage> Stream<T> excluding(Resource r, Stream<T> packages) {
+    return packages.filter(x -> x.eResource() != r);
   }
 }
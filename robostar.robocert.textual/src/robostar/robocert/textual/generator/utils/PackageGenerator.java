@@ -10,6 +10,7 @@
 
 package robostar.robocert.textual.generator.utils;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.xtext.generator.IFileSystemAccess2;
 import org.eclipse.xtext.generator.IGeneratorContext;
 import robostar.robocert.CertPackage;
@@ -28,6 +29,8 @@ public interface PackageGenerator {
    * @param fsa     filesystem access.
    * @param context context for checking if the action has been cancelled.
    * @param pkg     package to generate.
+   * @param monitor monitor for reporting progress and checking cancellation within the package.
    */
-  void generate(IFileSystemAccess2 fsa, IGeneratorContext context, CertPackage pkg);
+  void generate(IFileSystemAccess2 fsa, IGeneratorContext context, CertPackage pkg,
+      IProgressMonitor monitor);
 }
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.utils;
+
+import circus.robocalc.robochart.BasicPackage;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import robostar.robocert.util.StreamHelper;
+
+/**
+ * Index of the top-level packages in a resource set, grouped by type and anonymity.
+ * <p>
+ * The index is attached as an adapter to the resource set, and attaches a listener of its own to
+ * each resource it indexes; the listener is detached again when the resource leaves the set.  It
+ * records each resource's top-level packages the first time they are asked for, and forgets them
+ * whenever that resource is loaded, unloaded, or has its contents replaced; adding or removing
+ * resources in the set likewise invalidates the by-type views.  This means that repeatedly asking
+ * for every package of a given type costs one pass over the set per change, rather than one pass
+ * per query.
+ * <p>
+ * Renaming a package in place does not invalidate the index; Xtext replaces the contents of a
+ * resource on reparsing, so this only matters for programmatic edits.
+ * <p>
+ * Entries are computed outside any lock and only inserted afterwards, and only if nothing was
+ * invalidated in the meantime.  Computing an entry can touch resources (and so fire notifications
+ * back into this index), so it must never run inside a map's {@code computeIfAbsent}.
+ *
+ * @author Matt Windsor
+ */
+public class PackageIndex extends AdapterImpl {
+
+  private final ResourceSet set;
+  private final Map<Resource, List<BasicPackage>> byResource = new ConcurrentHashMap<>();
+  private final Map<Query, List<? extends BasicPackage>> byType = new ConcurrentHashMap<>();
+
+  /**
+   * Listeners attached to the resources of the set; guarded by {@code this}.
+   */
+  private final Map<Resource, ResourceListener> listeners = new HashMap<>();
+
+  /**
+   * Bumped on every invalidation, so that entries computed from stale state are not inserted.
+   */
+  private long generation = 0;
+
+  private PackageIndex(ResourceSet set) {
+    this.set = set;
+  }
+
+  /**
+   * Gets the package index for a resource set, attaching one if it does not yet exist.
+   *
+   * @param set the resource set to index.
+   * @return the index for {@code set}.
+   */
+  public static PackageIndex of(ResourceSet set) {
+    synchronized (set) {
+      final var existing = EcoreUtil.getAdapter(set.eAdapters(), PackageIndex.class);
+      if (existing instanceof PackageIndex idx) {
+        return idx;
+      }
+
+      final var idx = new PackageIndex(set);
+      set.eAdapters().add(idx);
+      return idx;
+    }
+  }
+
+  /**
+   * Gets all packages of a given type across the resource set.
+   *
+   * @param <T>   type of packages to look for.
+   * @param clazz class of {@code <T>}.
+   * @return the packages of that type, in resource-set order.
+   */
+  public <T extends BasicPackage> List<T> packages(Class<T> clazz) {
+    return query(new Query(clazz, false));
+  }
+
+  /**
+   * Gets all anonymous (unnamed) packages of a given type across the resource set.
+   *
+   * @param <T>   type of packages to look for.
+   * @param clazz class of {@code <T>}.
+   * @return the anonymous packages of that type, in resource-set order.
+   */
+  public <T extends BasicPackage> List<T> anonymousPackages(Class<T> clazz) {
+    return query(new Query(clazz, true));
+  }
+
+  /**
+   * Gets the packages of a given type contained directly in one resource of the set.
+   *
+   * @param <T>   type of packages to look for.
+   * @param r     the resource to inspect.
+   * @param clazz class of {@code <T>}.
+   * @return the packages of that type at the top level of {@code r}.
+   */
+  public <T extends BasicPackage> Stream<T> packagesIn(Resource r, Class<T> clazz) {
+    return StreamHelper.filter(packagesOf(r).stream(), clazz);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends BasicPackage> List<T> query(Query q) {
+    return (List<T>) lookup(byType, q, () -> compute(q));
+  }
+
+  private List<? extends BasicPackage> compute(Query q) {
+    // Taking a copy so that loading resources while iterating doesn't break things.
+    final var resources = List.copyOf(set.getResources());
+    return resources.stream().flatMap(r -> StreamHelper.filter(packagesOf(r).stream(), q.clazz()))
+        .filter(p -> !q.anonymous() || p.getName() == null).toList();
+  }
+
+  private List<BasicPackage> packagesOf(Resource r) {
+    return lookup(byResource, r, () -> {
+      listen(r);
+      return StreamHelper.filter(r.getContents().stream(), BasicPackage.class).toList();
+    });
+  }
+
+  private synchronized void listen(Resource r) {
+    if (listeners.containsKey(r) || r.getResourceSet() != set) {
+      return;
+    }
+    final var l = new ResourceListener();
+    listeners.put(r, l);
+    r.eAdapters().add(l);
+  }
+
+  private <K, V> V lookup(Map<K, V> map, K key, Supplier<V> compute) {
+    final var cached = map.get(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    final long gen;
+    synchronized (this) {
+      gen = generation;
+    }
+    final var value = compute.get();
+    synchronized (this) {
+      if (gen != generation) {
+        // Something changed while computing; the value may be stale, so don't keep it.
+        return value;
+      }
+      final var existing = map.putIfAbsent(key, value);
+      return existing == null ? value : existing;
+    }
+  }
+
+  @Override
+  public synchronized void notifyChanged(Notification msg) {
+    final var notifier = msg.getNotifier();
+    if (notifier instanceof ResourceSet && msg.getFeatureID(ResourceSet.class)
+        == ResourceSet.RESOURCE_SET__RESOURCES) {
+      final var type = msg.getEventType();
+      if (type == Notification.REMOVE || type == Notification.REMOVE_MANY) {
+        forgetRemoved();
+      }
+      generation++;
+      byType.clear();
+    }
+  }
+
+  private void forgetRemoved() {
+    final var present = new HashSet<>(set.getResources());
+    byResource.keySet().retainAll(present);
+
+    final var it = listeners.entrySet().iterator();
+    while (it.hasNext()) {
+      final var e = it.next();
+      if (!present.contains(e.getKey())) {
+        e.getKey().eAdapters().remove(e.getValue());
+        it.remove();
+      }
+    }
+  }
+
+  private synchronized void resourceChanged(Resource r, Notification msg) {
+    final var id = msg.getFeatureID(Resource.class);
+    if (id == Resource.RESOURCE__CONTENTS || id == Resource.RESOURCE__IS_LOADED) {
+      generation++;
+      byResource.remove(r);
+      byType.clear();
+    }
+  }
+
+  @Override
+  public boolean isAdapterForType(Object type) {
+    return type == PackageIndex.class;
+  }
+
+  /**
+   * Forwards changes to one resource of the set to the index.
+   * <p>
+   * Each resource gets its own listener, so that the listener's target is always that resource.
+   */
+  private class ResourceListener extends AdapterImpl {
+
+    @Override
+    public void notifyChanged(Notification msg) {
+      if (msg.getNotifier() instanceof Resource r) {
+        resourceChanged(r, msg);
+      }
+    }
+  }
+
+  private record Query(Class<? extends BasicPackage> clazz, boolean anonymous) {
+
+  }
+}
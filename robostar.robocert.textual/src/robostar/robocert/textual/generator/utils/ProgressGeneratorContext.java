@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.generator.utils;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.xtext.generator.GeneratorContext;
+
+/**
+ * Generator context that also carries a progress monitor.
+ * <p>
+ * Callers that can display progress (for instance, the command-line runner) can pass one of these
+ * into the generator; the RoboCert generators pick up the monitor through
+ * {@link GeneratorUtil#monitor}.  Plain contexts get a monitor that reports only cancellation.
+ *
+ * @author Matt Windsor
+ */
+public class ProgressGeneratorContext extends GeneratorContext {
+
+  private IProgressMonitor progressMonitor = new NullProgressMonitor();
+
+  /**
+   * Gets the progress monitor attached to this context.
+   *
+   * @return the progress monitor.
+   */
+  public IProgressMonitor getProgressMonitor() {
+    return progressMonitor;
+  }
+
+  /**
+   * Sets the progress monitor attached to this context.
+   *
+   * @param progressMonitor the new progress monitor.
+   */
+  public void setProgressMonitor(IProgressMonitor progressMonitor) {
+    this.progressMonitor = progressMonitor;
+  }
+}
@@ -9,10 +9,14 @@
  */
 package robostar.robocert.textual.generator.utils;
 
+import circus.robocalc.robochart.Expression;
 import circus.robocalc.robochart.Variable;
 import circus.robocalc.robochart.generator.csp.comp.timed.CTimedGeneratorUtils;
 import com.google.inject.Inject;
 import java.util.Objects;
+import java.util.Optional;
+import org.eclipse.xtext.EcoreUtil2;
+import robostar.robocert.Interaction;
 
 /**
  * Helper for working with RoboChart variables.
@@ -39,4 +43,23 @@ public record VariableHelper(CTimedGeneratorUtils gu) {
     Objects.requireNonNull(it, "can't get ID of null constant");
     return "const_" + gu.id(it);
   }
+
+  /**
+   * Gets the domain to which an interaction variable has been narrowed, if any.
+   * <p>
+   * Interaction variables are RoboChart {@link Variable}s, whose metamodel has no slot for a
+   * domain.  As interaction variables never have initial values, the grammar rule
+   * {@code InteractionVar} overloads the initial value slot to hold the domain instead.  This
+   * method is the one place that reads it back, and it only does so for variables inside
+   * interactions: the initial value of any other variable means just that.
+   *
+   * @param it the variable whose domain we want.
+   * @return the domain expression, if {@code it} is an interaction variable with one.
+   */
+  public Optional<Expression> domain(Variable it) {
+    if (EcoreUtil2.getContainerOfType(it, Interaction.class) == null) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(it.getInitial());
+  }
 }
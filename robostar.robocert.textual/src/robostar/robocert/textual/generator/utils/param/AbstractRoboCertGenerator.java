@@ -10,10 +10,13 @@
 
 package robostar.robocert.textual.generator.utils.param;
 
+import com.google.inject.Inject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtext.generator.AbstractGenerator;
 import org.eclipse.xtext.generator.IFileSystemAccess2;
 import org.eclipse.xtext.generator.IGeneratorContext;
+import robostar.robocert.CertPackage;
+import robostar.robocert.textual.generator.Metrics;
 import robostar.robocert.textual.generator.utils.GeneratorUtil;
 import robostar.robocert.textual.generator.utils.PackageGenerator;
 import robostar.robocert.textual.generator.utils.StandardLibraryGenerator;
@@ -23,23 +26,45 @@ import robostar.robocert.textual.generator.utils.StandardLibraryGenerator;
  * <p>
  *
  * This involves copying over a standard library of (CSP, TikZ, etc) definitions, then generating
- * separately for each package.
+ * separately for each package.  Both steps are timed through {@link Metrics}.
  *
  * @author Matt Windsor
  */
 public abstract class AbstractRoboCertGenerator extends AbstractGenerator {
 
+  @Inject
+  private Metrics metrics;
+
   @Override
   public void doGenerate(Resource input, IFileSystemAccess2 fsa, IGeneratorContext context) {
     final var libGen = libGenerator();
-    final var isCancelled = libGen.generate(fsa, context, getClass());
+    final boolean isCancelled;
+    try (var ignored = metrics.start(() -> phase("library"), input.getURI())) {
+      isCancelled = libGen.generate(fsa, context, getClass());
+    }
     if (isCancelled) {
       // Don't bother generating the packages.
       return;
     }
 
     final var pkgGen = pkgGenerator();
-    GeneratorUtil.forEachPackage(input, context, pkg -> pkgGen.generate(fsa, context, pkg));
+    GeneratorUtil.forEachPackage(input, context, (pkg, monitor) -> {
+      try (var ignored = metrics.start(() -> phase("package"), packageName(pkg))) {
+        pkgGen.generate(fsa, context, pkg, monitor);
+      }
+    });
+  }
+
+  private String phase(String step) {
+    return getClass().getSimpleName() + "/" + step;
+  }
+
+  private static Object packageName(CertPackage pkg) {
+    final var name = pkg.getName();
+    if (name != null || pkg.eResource() == null) {
+      return name;
+    }
+    return pkg.eResource().getURI();
   }
 
   /**
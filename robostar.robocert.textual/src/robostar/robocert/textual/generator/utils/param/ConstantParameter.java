@@ -60,6 +60,6 @@ public record ConstantParameter(Variable constant, EObject container) implements
    */
   public static Stream<Parameter> localsOf(EObject container, CGeneratorUtils gu) {
     // TODO(@MattWindsor91): reduce tight coupling with the CSP generator
-    return gu.allLocalConstants(container).parallelStream().map(k -> new ConstantParameter(k, container));
+    return gu.allLocalConstants(container).stream().map(k -> new ConstantParameter(k, container));
   }
 }
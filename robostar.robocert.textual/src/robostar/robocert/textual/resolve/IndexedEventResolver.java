@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.resolve;
+
+import circus.robocalc.robochart.Connection;
+import circus.robocalc.robochart.Event;
+import com.google.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.eclipse.xtext.util.IResourceScopeCache;
+import org.eclipse.xtext.util.Tuples;
+import robostar.robocert.Actor;
+import robostar.robocert.ComponentActor;
+import robostar.robocert.EventTopic;
+import robostar.robocert.SpecificationGroup;
+import robostar.robocert.util.resolve.EventResolver;
+import robostar.robocert.util.resolve.EventResolverImpl;
+
+/**
+ * Event resolver that keeps, for each specification group, a lookup table from (source node,
+ * event, target node) to the connections matching that key.
+ * <p>
+ * Resolution is delegated to {@link EventResolverImpl} the first time each key is seen; after
+ * that, lookups are served from the table.  Tables hang off the group's resource through the
+ * resource scope cache, so they are discarded whenever that resource changes.  Actors outside a
+ * resource (for instance, those built programmatically in tests) bypass the table entirely.
+ *
+ * @param delegate the resolver used to populate the table.
+ * @param cache    the cache holding per-group tables.
+ * @author Matt Windsor
+ */
+public record IndexedEventResolver(EventResolverImpl delegate, IResourceScopeCache cache) implements
+    EventResolver {
+
+  /**
+   * Constructs an indexed event resolver.
+   *
+   * @param delegate the resolver used to populate the table.
+   * @param cache    the cache holding per-group tables.
+   */
+  @Inject
+  public IndexedEventResolver {
+    Objects.requireNonNull(delegate);
+    Objects.requireNonNull(cache);
+  }
+
+  @Override
+  public Stream<Connection> resolve(EventTopic topic, Actor from, Actor to) {
+    final var group = from.getGroup();
+    if (group == null || group.eResource() == null || group != to.getGroup()) {
+      return delegate.resolve(topic, from, to);
+    }
+
+    final var key = new Key(nodeKey(from), topic.getEfrom(), topic.getEto(), nodeKey(to));
+    return table(group).computeIfAbsent(key, k -> delegate.resolve(topic, from, to).toList())
+        .stream();
+  }
+
+  private Map<Key, List<Connection>> table(SpecificationGroup group) {
+    return cache.get(Tuples.pair(IndexedEventResolver.class, group), group.eResource(),
+        ConcurrentHashMap::new);
+  }
+
+  /**
+   * Gets the part of the table key identifying an actor.
+   * <p>
+   * Component actors are identified by their RoboChart node, so that several actors over the same
+   * node share entries.  Other actors are unique within their group, so their class suffices.
+   *
+   * @param a the actor.
+   * @return the key object.
+   */
+  private Object nodeKey(Actor a) {
+    return a instanceof ComponentActor c ? c.getNode() : a.eClass();
+  }
+
+  private record Key(Object from, Event efrom, Event eto, Object to) {
+
+  }
+}
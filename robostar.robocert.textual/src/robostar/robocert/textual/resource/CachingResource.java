@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.resource;
+
+import com.google.inject.Inject;
+import java.io.IOException;
+import java.util.Map;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+
+/**
+ * RoboCert resource that loads itself through the {@link ResourceCache} when it is enabled.
+ * <p>
+ * Only loads from the resource's URI go through the cache; loads from explicit streams (such as the
+ * contents of an editor) always parse.
+ *
+ * @author Matt Windsor
+ */
+public class CachingResource extends StorageAwareResource {
+
+  @Inject
+  private ResourceCache cache;
+
+  @Override
+  public void load(Map<?, ?> options) throws IOException {
+    if (isLoaded || isLoading || cache.directory().isEmpty()) {
+      super.load(options);
+      return;
+    }
+
+    final var effective = options == null ? getDefaultLoadOptions() : options;
+    try (var in = getURIConverter().createInputStream(getURI(), effective)) {
+      cache.load(this, in, effective);
+    }
+  }
+}
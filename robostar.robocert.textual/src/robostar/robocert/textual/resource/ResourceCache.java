@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.resource;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.inject.Singleton;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.Grammar;
+import org.eclipse.xtext.IGrammarAccess;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.persistence.ResourceStorageLoadable;
+import org.eclipse.xtext.resource.persistence.ResourceStorageWritable;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+
+/**
+ * On-disk cache of parsed resources, stored in Xtext's binary resource storage format.
+ * <p>
+ * Entries are keyed by the URI and source text of the resource and by a fingerprint of the grammar
+ * that parsed it, so editing either a file or the language invalidates the relevant entries.  Each
+ * entry holds the AST, the node model, and the resource description, which is everything Xtext needs
+ * to link against the resource as if it had just been parsed.  The stored cross-reference proxies
+ * are absolute, which is why the URI is part of the key: moving a file misses the cache rather than
+ * restoring proxies that point at its old location.
+ * <p>
+ * The cache is best-effort: any entry that can't be read or written is silently treated as a miss.
+ * Resources with syntax errors are never cached.  Once the cache grows beyond its size limit, the
+ * least recently used entries are evicted.
+ *
+ * @author Matt Windsor
+ */
+@Singleton
+public class ResourceCache {
+
+  /**
+   * System property naming the cache directory; {@link #OFF} disables the cache.
+   */
+  public static final String PROPERTY = "robocert.cache";
+
+  /**
+   * Value of {@link #PROPERTY} that disables the cache.
+   */
+  public static final String OFF = "off";
+
+  /**
+   * System property giving the size limit of the cache, in bytes.
+   */
+  public static final String LIMIT_PROPERTY = "robocert.cache.limit";
+
+  /**
+   * Default size limit of the cache, in bytes.
+   */
+  public static final long DEFAULT_LIMIT = 256L * 1024 * 1024;
+
+  /**
+   * Version of the cache layout, mixed into every key.
+   */
+  public static final int FORMAT_VERSION = 2;
+
+  /**
+   * Load option that makes {@link #load} hold back the cache entry of a freshly parsed resource
+   * until {@link #storeDeferred} is called.
+   * <p>
+   * Storing a resource writes its resource description, which links the resource.  Resources being
+   * parsed into a scratch resource set must therefore wait until they have moved into the set that
+   * holds the resources they refer to; otherwise every cross-resource reference fails to resolve.
+   */
+  public static final String OPTION_DEFER_STORE = ResourceCache.class.getName() + ".deferStore";
+
+  private static final String EXTENSION = ".bin";
+
+  /**
+   * How many stores we make between checks of the cache size.
+   */
+  private static final int PRUNE_INTERVAL = 64;
+
+  private final Map<String, String> grammars = new ConcurrentHashMap<>();
+  private final AtomicInteger stores = new AtomicInteger();
+  private final Map<Resource, byte[]> deferred = Collections.synchronizedMap(new WeakHashMap<>());
+  private volatile Path directory;
+  private volatile boolean configured;
+  private volatile long limit;
+
+  /**
+   * Constructs a resource cache, configured from {@link #PROPERTY} and {@link #LIMIT_PROPERTY}.
+   */
+  public ResourceCache() {
+    final var prop = System.getProperty(PROPERTY);
+    configured = prop != null;
+    directory = prop == null || OFF.equals(prop) ? null : Path.of(prop);
+    limit = Long.getLong(LIMIT_PROPERTY, DEFAULT_LIMIT);
+  }
+
+  /**
+   * Gets the per-user cache directory.
+   * <p>
+   * This is under {@code $XDG_CACHE_HOME} if it is set, and {@code ~/.cache} otherwise.
+   *
+   * @return the per-user cache directory.
+   */
+  public static Path userDirectory() {
+    final var xdg = System.getenv("XDG_CACHE_HOME");
+    final var base = xdg == null || xdg.isEmpty() ? Path.of(System.getProperty("user.home"),
+        ".cache") : Path.of(xdg);
+    return base.resolve("robocert");
+  }
+
+  /**
+   * @return the cache directory, if caching is enabled.
+   */
+  public Optional<Path> directory() {
+    return Optional.ofNullable(directory);
+  }
+
+  /**
+   * Sets the cache directory.
+   *
+   * @param dir the new directory, or null to disable caching.
+   */
+  public void setDirectory(Path dir) {
+    directory = dir;
+    configured = true;
+  }
+
+  /**
+   * Sets the cache directory, unless it has already been configured (for example, through
+   * {@link #PROPERTY} or from the command line).
+   *
+   * @param dir the default directory.
+   */
+  public void setDefaultDirectory(Path dir) {
+    if (!configured) {
+      directory = dir;
+    }
+  }
+
+  /**
+   * Sets the size limit of the cache.
+   *
+   * @param bytes the new limit, in bytes.
+   */
+  public void setLimit(long bytes) {
+    limit = bytes;
+  }
+
+  /**
+   * Loads a resource from the cache, if it has an entry for the given source.
+   *
+   * @param resource the (unloaded) resource to load.
+   * @param source   the source text of the resource.
+   * @return whether the resource was loaded from the cache.
+   */
+  public boolean restore(StorageAwareResource resource, byte[] source) {
+    final var entry = entry(resource, source);
+    if (entry.isEmpty() || !Files.isRegularFile(entry.get())) {
+      return false;
+    }
+
+    try (var in = Files.newInputStream(entry.get())) {
+      resource.loadFromStorage(new ResourceStorageLoadable(in, true));
+      // Eviction goes by modification time, so this marks the entry as recently used.
+      Files.setLastModifiedTime(entry.get(), FileTime.from(Instant.now()));
+      return true;
+    } catch (IOException | RuntimeException e) {
+      // The entry is corrupt or from an incompatible Xtext; throw away whatever we read of it.
+      resource.unload();
+      deleteQuietly(entry.get());
+      return false;
+    }
+  }
+
+  /**
+   * Stores a freshly parsed resource in the cache.
+   *
+   * @param resource the resource.
+   * @param source   the source text from which it was parsed.
+   */
+  public void store(StorageAwareResource resource, byte[] source) {
+    if (!resource.getErrors().isEmpty()) {
+      return;
+    }
+    final var entry = entry(resource, source);
+    if (entry.isEmpty()) {
+      return;
+    }
+
+    // Other threads (or processes) may be writing the same entry, so we only ever move complete
+    // entries into place.
+    Path tmp = null;
+    try {
+      Files.createDirectories(entry.get().getParent());
+      tmp = Files.createTempFile(entry.get().getParent(), "entry", ".tmp");
+      try (var out = Files.newOutputStream(tmp)) {
+        new ResourceStorageWritable(out, true).writeResource(resource);
+      }
+      Files.move(tmp, entry.get(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      if (tmp != null) {
+        deleteQuietly(tmp);
+      }
+      return;
+    }
+
+    // Checking the size means listing the whole cache, so we only do it every so often (and on
+    // the first store, to catch up with growth from previous runs).
+    if (stores.getAndIncrement() % PRUNE_INTERVAL == 0) {
+      prune();
+    }
+  }
+
+  /**
+   * Evicts the least recently used entries until the cache fits within its size limit.
+   */
+  public void prune() {
+    final var dir = directory;
+    if (dir == null || !Files.isDirectory(dir)) {
+      return;
+    }
+
+    record Entry(Path path, long size, FileTime used) {
+
+    }
+
+    final List<Entry> entries = new ArrayList<>();
+    try (var files = Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+      for (var f : files) {
+        final var attrs = Files.readAttributes(f, BasicFileAttributes.class);
+        entries.add(new Entry(f, attrs.size(), attrs.lastModifiedTime()));
+      }
+    } catch (IOException e) {
+      // Entries may vanish under us if another process is pruning; try again next time.
+      return;
+    }
+
+    var total = entries.stream().mapToLong(Entry::size).sum();
+    entries.sort(Comparator.comparing(Entry::used));
+    for (var e : entries) {
+      if (total <= limit) {
+        break;
+      }
+      deleteQuietly(e.path());
+      total -= e.size();
+    }
+  }
+
+  /**
+   * Loads a resource through the cache, parsing and caching it on a miss.
+   * <p>
+   * This is for storage-aware resources of languages whose resources don't use the cache
+   * themselves; RoboCert resources are {@link CachingResource}s, and can just be loaded.
+   *
+   * If {@code options} sets {@link #OPTION_DEFER_STORE}, the entry of a freshly parsed resource is
+   * only written once {@link #storeDeferred} is called.
+   *
+   * @param resource the (unloaded) resource to load.
+   * @param in       the source of the resource.
+   * @param options  load options, used if the resource needs parsing.
+   * @throws IOException if the source can't be read or parsed.
+   */
+  public void load(StorageAwareResource resource, InputStream in, Map<?, ?> options)
+      throws IOException {
+    final var source = in.readAllBytes();
+    if (restore(resource, source)) {
+      return;
+    }
+    resource.load(new ByteArrayInputStream(source), options);
+    if (options != null && Boolean.TRUE.equals(options.get(OPTION_DEFER_STORE))) {
+      deferred.put(resource, source);
+    } else {
+      store(resource, source);
+    }
+  }
+
+  /**
+   * Stores a resource whose cache entry was held back by {@link #OPTION_DEFER_STORE}.
+   * <p>
+   * This should be called once the resource is in the resource set against which it links.  It
+   * does nothing if the resource has no held-back entry (for instance, if it came from the cache).
+   *
+   * @param resource the resource.
+   */
+  public void storeDeferred(StorageAwareResource resource) {
+    final var source = deferred.remove(resource);
+    if (source != null) {
+      store(resource, source);
+    }
+  }
+
+  private Optional<Path> entry(XtextResource resource, byte[] source) {
+    final var dir = directory;
+    if (dir == null) {
+      return Optional.empty();
+    }
+
+    final var hasher = Hashing.sha256().newHasher();
+    hasher.putInt(FORMAT_VERSION);
+    hasher.putString(Objects.toString(resource.getURI()), StandardCharsets.UTF_8);
+    hasher.putString(Objects.toString(resource.getLanguageName()), StandardCharsets.UTF_8);
+    hasher.putString(grammarFingerprint(resource), StandardCharsets.UTF_8);
+    hasher.putBytes(source);
+    return Optional.of(dir.resolve(hasher.hash() + EXTENSION));
+  }
+
+  private String grammarFingerprint(XtextResource resource) {
+    return grammars.computeIfAbsent(Objects.toString(resource.getLanguageName()), n -> {
+      final var grammar = resource.getResourceServiceProvider().get(IGrammarAccess.class)
+          .getGrammar();
+      final var hasher = Hashing.sha256().newHasher();
+      putGrammar(hasher, grammar);
+      return hasher.hash().toString();
+    });
+  }
+
+  /**
+   * Hashes the structure of a grammar and of the grammars it uses.
+   */
+  private static void putGrammar(Hasher hasher, Grammar grammar) {
+    hasher.putString(grammar.getName(), StandardCharsets.UTF_8);
+    for (var it = grammar.eAllContents(); it.hasNext(); ) {
+      final var obj = it.next();
+      final var cls = obj.eClass();
+      hasher.putString(cls.getName(), StandardCharsets.UTF_8);
+      for (var attr : cls.getEAllAttributes()) {
+        hasher.putString(String.valueOf(obj.eGet(attr)), StandardCharsets.UTF_8);
+      }
+      for (var ref : cls.getEAllReferences()) {
+        if (!ref.isContainment() && !ref.isContainer() && !ref.isMany()
+            && obj.eGet(ref) instanceof EObject target) {
+          hasher.putString(EcoreUtil.getURI(target).toString(), StandardCharsets.UTF_8);
+        }
+      }
+    }
+    for (var used : grammar.getUsedGrammars()) {
+      putGrammar(hasher, used);
+    }
+  }
+
+  private static void deleteQuietly(Path p) {
+    try {
+      Files.deleteIfExists(p);
+    } catch (IOException e) {
+      // Nothing we can do; the next store will overwrite it.
+    }
+  }
+}
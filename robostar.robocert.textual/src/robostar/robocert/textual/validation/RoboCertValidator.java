@@ -18,6 +18,7 @@ import robostar.robocert.textual.validation.core.ExpressionValidator;
 import robostar.robocert.textual.validation.seq.DiscreteBoundValidator;
 import robostar.robocert.textual.validation.seq.ActorValidator;
 import robostar.robocert.textual.validation.seq.DeadlineFragmentValidator;
+import robostar.robocert.textual.validation.seq.InteractionVariableValidator;
 import robostar.robocert.textual.validation.seq.LifelineOccurrenceValidator;
 import robostar.robocert.textual.validation.seq.MessageValidator;
 import robostar.robocert.textual.validation.seq.SequenceGroupValidator;
@@ -28,8 +29,8 @@ import robostar.robocert.textual.validation.seq.SequenceGroupValidator;
  * See https://www.eclipse.org/Xtext/documentation/303_runtime_concepts.html#validation
  */
 @ComposedChecks(validators = {ActorValidator.class, DiscreteBoundValidator.class,
-    DeadlineFragmentValidator.class, ExpressionValidator.class, LifelineOccurrenceValidator.class,
-    MessageValidator.class, SequenceGroupValidator.class})
+    DeadlineFragmentValidator.class, ExpressionValidator.class, InteractionVariableValidator.class,
+    LifelineOccurrenceValidator.class, MessageValidator.class, SequenceGroupValidator.class})
 public class RoboCertValidator extends AbstractRoboCertValidator {
 
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2022 University of York and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package robostar.robocert.textual.validation.seq;
+
+import circus.robocalc.robochart.RoboChartPackage.Literals;
+import circus.robocalc.robochart.SetExp;
+import circus.robocalc.robochart.Variable;
+import circus.robocalc.robochart.textual.RoboCalcTypeProvider;
+import com.google.inject.Inject;
+import org.eclipse.xtext.validation.AbstractDeclarativeValidator;
+import org.eclipse.xtext.validation.Check;
+import org.eclipse.xtext.validation.EValidatorRegistrar;
+import robostar.robocert.textual.generator.utils.VariableHelper;
+
+/**
+ * Validates the domains of interaction variables.
+ *
+ * @author Matt Windsor
+ */
+public class InteractionVariableValidator extends AbstractDeclarativeValidator {
+
+  @Inject
+  private VariableHelper vx;
+  @Inject
+  private RoboCalcTypeProvider typeProvider;
+
+  // Domain (D)
+  public static final String DOMAIN_IS_SET_LITERAL = "SIVD1";
+  public static final String DOMAIN_TYPE_COMPATIBLE = "SIVD2";
+
+  @Override
+  public void register(EValidatorRegistrar registrar) {
+    // per discussion in ComposedChecks annotation documentation
+  }
+
+  /**
+   * Checks that the domain of an interaction variable, if any, is a non-empty set literal whose
+   * elements all fit the type of the variable.
+   *
+   * @param v the variable to check.
+   */
+  @Check
+  public void checkDomain(Variable v) {
+    final var domain = vx.domain(v);
+    if (domain.isEmpty()) {
+      return;
+    }
+
+    // References to constant sets would need the constant's value, which only exists in the
+    // instantiations file, so they are rejected along with everything else that isn't a literal.
+    if (!(domain.get() instanceof SetExp s) || s.getValues().isEmpty()) {
+      error("The domain of an interaction variable must be a non-empty set literal "
+              + "(references to constants, even of set type, aren't supported)",
+          Literals.VARIABLE__INITIAL, DOMAIN_IS_SET_LITERAL);
+      return;
+    }
+
+    final var type = v.getType();
+    if (type == null) {
+      return;
+    }
+    for (var x : s.getValues()) {
+      // The type provider can't always type an expression; if so, give it the benefit of the doubt.
+      final var xtype = typeProvider.typeFor(x);
+      if (xtype != null && !typeProvider.typeCompatible(xtype, type)) {
+        error("Each element of an interaction variable's domain must fit the variable's type",
+            Literals.VARIABLE__INITIAL, DOMAIN_TYPE_COMPATIBLE);
+        return;
+      }
+    }
+  }
+}
@@ -85,10 +85,10 @@ public class SequenceGroupValidator extends AbstractDeclarativeValidator {
   }
 
   private boolean hasActors(SpecificationGroup g, Class<? extends Actor> clazz) {
-    return g.getActors().parallelStream().anyMatch(clazz::isInstance);
+    return g.getActors().stream().anyMatch(clazz::isInstance);
   }
 
   private long countActors(SpecificationGroup g, Class<? extends Actor> clazz) {
-    return g.getActors().parallelStream().filter(clazz::isInstance).count();
+    return g.getActors().stream().filter(clazz::isInstance).count();
   }
 }